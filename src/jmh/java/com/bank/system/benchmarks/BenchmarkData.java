@@ -0,0 +1,63 @@
+package com.bank.system.benchmarks;
+
+import com.bank.system.enums.TransactionType;
+import com.bank.system.models.Account;
+import com.bank.system.models.CheckingAccount;
+import com.bank.system.models.Money;
+import com.bank.system.models.RegularCustomer;
+import com.bank.system.models.Transaction;
+import com.bank.system.services.AccountManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic accounts and transaction histories shared by the benchmarks.
+ */
+final class BenchmarkData {
+    // Fixed seed so every fork and every run sees the same data
+    private static final long SEED = 42L;
+    private static final long START_EPOCH_MILLIS = 1_767_225_600_000L;
+    private static final TransactionType[] TYPES =
+            {TransactionType.DEPOSIT, TransactionType.WITHDRAWAL, TransactionType.TRANSFER, TransactionType.RECEIVE};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Opens {@code count} checking accounts in the registry and returns their numbers.
+     */
+    static String[] openAccounts(AccountManager accountManager, int count, double initialBalance) {
+        RegularCustomer customer = new RegularCustomer("Benchmark Customer", 30, "0000000000", "benchmark");
+        Map<String, Account> accounts = new LinkedHashMap<>();
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            Account account = new CheckingAccount(customer, initialBalance);
+            accounts.put(account.getAccountNumber(), account);
+            numbers[i] = account.getAccountNumber();
+        }
+        accountManager.putAll(accounts);
+        return numbers;
+    }
+
+    /**
+     * Builds {@code rows} transactions spread round-robin over the accounts, one minute apart.
+     */
+    static List<Transaction> generateTransactions(String[] accountNumbers, int rows) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Transaction> transactions = new ArrayList<>(rows);
+        long balanceMinor = Money.ofMajor(10_000_000.0);
+        for (int i = 0; i < rows; i++) {
+            TransactionType type = TYPES[random.nextInt(TYPES.length)];
+            long amountMinor = random.nextLong(100, 100_000);
+            balanceMinor += type == TransactionType.DEPOSIT || type == TransactionType.RECEIVE ? amountMinor : -amountMinor;
+            transactions.add(Transaction.ofMinorUnits(Transaction.formatId(i + 1L),
+                    accountNumbers[i % accountNumbers.length], type.name(), amountMinor, balanceMinor,
+                    START_EPOCH_MILLIS + i * 60_000L));
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bank.system.benchmarks;
+
+import com.bank.system.models.Transaction;
+import com.bank.system.services.AccountManager;
+import com.bank.system.services.StatementGenerator;
+import com.bank.system.services.TransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading one account's history out of a ledger holding {@code rows} transactions,
+ * spread evenly over {@value #ACCOUNTS} accounts. Each call moves on to the next account so
+ * the same rows are not read back to back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class HistoryQueryBenchmark {
+    private static final int ACCOUNTS = 100;
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private TransactionManager transactionManager;
+    private StatementGenerator statementGenerator;
+    private String[] accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        AccountManager accountManager = new AccountManager();
+        transactionManager = new TransactionManager(accountManager);
+        statementGenerator = new StatementGenerator(accountManager, transactionManager);
+        accountNumbers = BenchmarkData.openAccounts(accountManager, ACCOUNTS, 1_000.0);
+        transactionManager.setTransactions(BenchmarkData.generateTransactions(accountNumbers, rows));
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        String nextAccount(String[] accountNumbers) {
+            String accountNumber = accountNumbers[next];
+            next = (next + 1) % accountNumbers.length;
+            return accountNumber;
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> transactionsForAccount(Cursor cursor) {
+        return transactionManager.getTransactionsForAccount(cursor.nextAccount(accountNumbers));
+    }
+
+    @Benchmark
+    public String statement(Cursor cursor) {
+        return statementGenerator.generateStatement(cursor.nextAccount(accountNumbers));
+    }
+}
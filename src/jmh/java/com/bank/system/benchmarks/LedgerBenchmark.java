@@ -0,0 +1,96 @@
+package com.bank.system.benchmarks;
+
+import com.bank.system.exceptions.InvalidAmountException;
+import com.bank.system.services.AccountManager;
+import com.bank.system.services.TransactionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TransactionManager#deposit}, {@link TransactionManager#withdraw} and
+ * {@link TransactionManager#transfer} on uniformly chosen accounts. JMH generates a benchmark for
+ * each concrete subclass, so the nested classes run the same operations on 1, 4 and 16 threads.
+ *
+ * <p>Every operation appends to the transaction history, so the ledger is rebuilt before each
+ * iteration to keep the heap from growing across the run.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class LedgerBenchmark {
+    private static final int ACCOUNTS = 1_024;
+    // Large enough that withdrawals never run an account dry within one iteration
+    private static final double INITIAL_BALANCE = 1_000_000_000.0;
+    private static final double AMOUNT = 1.25;
+
+    @State(Scope.Benchmark)
+    public static class Ledger {
+        TransactionManager transactionManager;
+        String[] accountNumbers;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            AccountManager accountManager = new AccountManager();
+            transactionManager = new TransactionManager(accountManager);
+            accountNumbers = BenchmarkData.openAccounts(accountManager, ACCOUNTS, INITIAL_BALANCE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next() {
+            return random.nextInt(ACCOUNTS);
+        }
+
+        // Any account except the given one
+        int other(int index) {
+            return (index + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        }
+    }
+
+    @Benchmark
+    public boolean deposit(Ledger ledger, Picker picker) throws InvalidAmountException {
+        return ledger.transactionManager.deposit(ledger.accountNumbers[picker.next()], AMOUNT);
+    }
+
+    @Benchmark
+    public boolean withdraw(Ledger ledger, Picker picker) throws InvalidAmountException {
+        return ledger.transactionManager.withdraw(ledger.accountNumbers[picker.next()], AMOUNT);
+    }
+
+    @Benchmark
+    public boolean transfer(Ledger ledger, Picker picker) throws InvalidAmountException {
+        int from = picker.next();
+        return ledger.transactionManager.transfer(ledger.accountNumbers[from],
+                ledger.accountNumbers[picker.other(from)], AMOUNT);
+    }
+
+    @Threads(1)
+    public static class OneThread extends LedgerBenchmark {
+    }
+
+    @Threads(4)
+    public static class FourThreads extends LedgerBenchmark {
+    }
+
+    @Threads(16)
+    public static class SixteenThreads extends LedgerBenchmark {
+    }
+}
@@ -0,0 +1,93 @@
+package com.bank.system.benchmarks;
+
+import com.bank.system.models.Transaction;
+import com.bank.system.services.AccountManager;
+import com.bank.system.services.BinaryTransactionLog;
+import com.bank.system.services.FilePersistence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time to write and to read back a transactions file of {@code rows} generated lines, and to scan
+ * the same rows in the binary log format. Files live in a temporary directory, never in the
+ * application's data/ folder.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+    private static final int ACCOUNTS = 1_000;
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private Path dataDirectory;
+    private FilePersistence persistence;
+    private List<Transaction> transactions;
+    private Path binaryFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDirectory = Files.createTempDirectory("bank-bench");
+        persistence = new FilePersistence(dataDirectory);
+        String[] accountNumbers = BenchmarkData.openAccounts(new AccountManager(), ACCOUNTS, 1_000.0);
+        transactions = BenchmarkData.generateTransactions(accountNumbers, rows);
+        // Gives loadTransactions a file to read even when saveTransactions is not selected
+        persistence.saveTransactions(transactions);
+        binaryFile = dataDirectory.resolve("transactions.bin");
+        persistence.exportTransactionsToBinary(binaryFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(dataDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void saveTransactions() {
+        persistence.saveTransactions(transactions);
+    }
+
+    @Benchmark
+    public List<Transaction> loadTransactions() {
+        return persistence.loadTransactions();
+    }
+
+    @Benchmark
+    public long scanBinaryLog() throws IOException {
+        long total = 0;
+        try (BinaryTransactionLog log = BinaryTransactionLog.open(binaryFile)) {
+            BinaryTransactionLog.Cursor cursor = log.cursor();
+            while (cursor.next()) {
+                total += cursor.amountMinor();
+            }
+        }
+        return total;
+    }
+}
@@ -2,13 +2,18 @@
 package com.bank.system;
 
 import com.bank.system.models.Account;
+import com.bank.system.models.LedgerSnapshot;
 
 import com.bank.system.models.Transaction;
 import com.bank.system.processes.AccountProcessHandler;
 import com.bank.system.processes.TransactionProcessHandler;
 import com.bank.system.services.AccountManager;
+import com.bank.system.services.MetricsRegistry;
 import com.bank.system.services.StatementGenerator;
+import com.bank.system.services.TransactionJournal;
 import com.bank.system.services.TransactionManager;
+import com.bank.system.services.TransactionStore;
+import com.bank.system.utils.CallTimer;
 import com.bank.system.utils.ConcurrencyUtils;
 import org.junit.platform.engine.discovery.DiscoverySelectors;
 import org.junit.platform.launcher.Launcher;
@@ -18,10 +23,12 @@ import org.junit.platform.launcher.core.LauncherFactory;
 import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
 import com.bank.system.services.FilePersistence;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 import static com.bank.system.utils.ConsoleUtil.*;
@@ -36,6 +43,12 @@ public class Main {
     private final TransactionProcessHandler transactionProcessHandler;
     private final StatementGenerator statementGenerator;
     private static final FilePersistence filePersistence  = new FilePersistence();;
+    private static final MetricsRegistry metricsRegistry =
+            new MetricsRegistry(accountManager, transactionManager, filePersistence);
+    // -Dbank.snapshot.records=N takes a snapshot once N more records have been journaled; 0 only snapshots on save
+    private static final long SNAPSHOT_EVERY_RECORDS = Long.getLong("bank.snapshot.records", 10_000L);
+    // Journal record count covered by the last snapshot, so startup replays at most about N records
+    private static long journaledAtSnapshot;
 
     private Main() {
         this.accountProcessHandler = new AccountProcessHandler(accountManager, transactionManager);
@@ -44,6 +57,13 @@ public class Main {
     }
 
     public static void main(String[] args) {
+        // -Dbank.engine.shards=N runs transactions on N single-writer shards instead of account locks
+        Integer shards = Integer.getInteger("bank.engine.shards");
+        if (shards != null && shards > 0) {
+            transactionManager.startEngine(shards);
+        }
+        // Published to JMX, e.g. for jconsole, under the com.bank.system domain
+        metricsRegistry.registerMBeans();
         new Main().run();
     }
 
@@ -51,12 +71,14 @@ public class Main {
         displayWelcomeMessage();
         //accountProcessHandler.initializeSampleData();
         loadDataFromFiles();
+        openJournal();
 
         boolean running = true;
         while (running) {
             displayMainMenu();
-            int choice = getValidIntInput("Enter your choice: ", 1, 7);
+            int choice = getValidIntInput("Enter your choice: ", 1, 8);
             running = processMenuChoice(choice);
+            snapshotIfDue();
         }
         shutdown();
     }
@@ -84,8 +106,11 @@ public class Main {
             }case 6 -> {
                 runTests();
                 yield true;
+            }case 7 -> {
+                viewMetrics();
+                yield true;
             }
-            case 7 -> false;
+            case 8 -> false;
             default -> true;
         };
     }
@@ -104,7 +129,8 @@ public class Main {
         print("4. Save/Load Data");
         print("5. Run Concurrent Simulation");
         print("6. Run Tests");
-        print("7. Exit");
+        print("7. View Metrics");
+        print("8. Exit");
         print("");
     }
     private void manageAccounts() {
@@ -164,9 +190,9 @@ public class Main {
         print(subSeparator(60));
         print(" ");
 
-        String accountNumber = readString("Enter account number (format: ACC###): ",
+        String accountNumber = readString("Enter account number (format: ACC followed by 3 to 18 digits): ",
                 isValidAccountNumber,
-                "Error: Invalid account number format. Please use format ACC###"
+                "Error: Invalid account number format. Please use ACC followed by 3 to 18 digits"
         );
 
         if (!accountManager.accountExists(accountNumber)) {
@@ -218,9 +244,9 @@ public class Main {
      }
     private void generateAccountStatements() {
         print("\nGENERATE ACCOUNT STATEMENT");
-        String accountNumber = readString("Enter account number (format: ACC###): ",
+        String accountNumber = readString("Enter account number (format: ACC followed by 3 to 18 digits): ",
                 isValidAccountNumber,
-                "Error: Invalid account number format. Please use format ACC###"
+                "Error: Invalid account number format. Please use ACC followed by 3 to 18 digits"
         );
 
         if (!accountManager.accountExists(accountNumber)) {
@@ -318,31 +344,76 @@ public class Main {
         }
     }
     private static void loadDataFromFiles() {
-
-        Map<String, Account> loadedAccounts = filePersistence.loadAccounts();
+        long start = System.nanoTime();
+
+        // A snapshot's offset is only valid while the journal keeps transactions.txt append-only
+        LedgerSnapshot snapshot = TransactionJournal.SyncPolicy.fromSystemProperty() == null
+                ? null
+                : filePersistence.loadSnapshot().orElse(null);
+
+        // The two files are independent, so accounts load meanwhile on a thread of their own rather
+        // than the common pool, where they could queue behind other work
+        CompletableFuture<Map<String, Account>> accountsLoad = CompletableFuture.supplyAsync(filePersistence::loadAccounts,
+                task -> Thread.ofPlatform().name("accounts-load").start(task));
+        // Only the tail after a snapshot is replayed; older history stays on disk and comes
+        // back with Save/Load > Load Data from Files. Parsed chunks go straight into the store
+        TransactionStore loadedStore = new TransactionStore();
+        long loadedTransactions = snapshot != null
+                ? filePersistence.loadTransactionsAfter(snapshot, loadedStore)
+                : filePersistence.loadTransactions(loadedStore);
+        Map<String, Account> loadedAccounts = accountsLoad.join();
 
         if (loadedAccounts != null && !loadedAccounts.isEmpty()) {
-            accountManager.getAccountsMap().putAll(loadedAccounts);
+            accountManager.putAll(loadedAccounts);
 
         } else {
             print("No account data found to load.");
         }
 
-        List<Transaction> loadedTransactions = filePersistence.loadTransactions();
-        if (loadedTransactions != null && !loadedTransactions.isEmpty()) {
-            transactionManager.setTransactions(loadedTransactions);
+        if (snapshot != null) {
+            snapshot.applyBalances(accountManager.getAccountsMap());
+            Transaction.observeSequence(snapshot.getLastSequence());
+            transactionManager.setTransactions(loadedStore, snapshot);
+        } else if (loadedTransactions > 0) {
+            transactionManager.setTransactions(loadedStore);
 
         } else {
             print("No transactions found to load.");
         }
+        // The journal may be ahead of accounts.txt if the last run ended without saving; with the
+        // journal off, accounts.txt is the only record of the balances
+        if (TransactionJournal.SyncPolicy.fromSystemProperty() != null) {
+            filePersistence.restoreBalances(accountManager.getAccountsMap());
+        }
+
+        Map<String, CallTimer> timers = filePersistence.getTimers();
+        print(String.format("Startup: snapshot %.1f ms, accounts %.1f ms and transactions %.1f ms (%d %s) in parallel, total %.1f ms",
+                snapshot == null ? 0.0 : timers.get("loadSnapshot").getLastMillis(),
+                timers.get("loadAccounts").getLastMillis(), timers.get("loadTransactions").getLastMillis(),
+                loadedTransactions,
+                snapshot != null ? "replayed after snapshot" : "loaded", (System.nanoTime() - start) / 1e6));
         pressEnterToContinue();
     }
+
+    // -Dbank.journal.sync=record|interval:<ms>|records:<n> sets when journaled transactions reach the disk; off disables it
+    private static void openJournal() {
+        TransactionJournal.SyncPolicy policy = TransactionJournal.SyncPolicy.fromSystemProperty();
+        if (policy == null) {
+            return;
+        }
+        try {
+            transactionManager.setJournal(filePersistence.openJournal(policy));
+            print("Transaction journal open, syncing " + policy);
+        } catch (IOException e) {
+            print("Error opening transaction journal: " + e.getMessage() + ". Transactions will be saved on exit only.");
+        }
+    }
     private static void loadDataFromFiles(Map<String, Account> existingAccounts, List<Transaction> existingTransactions) {
 
         Map<String, Account> loadedAccounts = filePersistence.loadAccounts(existingAccounts);
 
         if (loadedAccounts != null && !loadedAccounts.isEmpty()) {
-            accountManager.getAccountsMap().putAll(loadedAccounts);
+            accountManager.putAll(loadedAccounts);
 
         } else {
             print("No account data found to load.");
@@ -385,19 +456,52 @@ public class Main {
 
 
 
+    }
+
+    private static void viewMetrics() {
+        print("\nSYSTEM METRICS");
+        print(subSeparator(110));
+        print(metricsRegistry.dump());
+        pressEnterToContinue();
     }
 
     private static void saveDataToFiles() {
         print("\nSAVING ACCOUNT DATA");
         filePersistence.saveAccounts(accountManager.getAccountsMap());
-        filePersistence.saveTransactions(transactionManager.getAllTransactions());
+        filePersistence.saveTransactions(transactionManager.getTransactionStore());
+        TransactionJournal journal = filePersistence.getJournal();
+        if (journal != null) {
+            saveSnapshot(journal);
+        }
         System.out.println("File save completed successfully.");
         pressEnterToContinue();
     }
 
+    // Runs between menu operations, when no transaction is being recorded
+    private static void snapshotIfDue() {
+        TransactionJournal journal = filePersistence.getJournal();
+        if (journal != null && SNAPSHOT_EVERY_RECORDS > 0
+                && journal.getAppended() - journaledAtSnapshot >= SNAPSHOT_EVERY_RECORDS) {
+            // The snapshot's offset has to cover every record its balances include
+            journal.sync();
+            saveSnapshot(journal);
+        }
+    }
+
+    private static void saveSnapshot(TransactionJournal journal) {
+        long appended = journal.getAppended();
+        if (filePersistence.saveSnapshot(accountManager.getAccountsMap(), transactionManager.getAggregates(),
+                transactionManager.getHighestStoredSequence())) {
+            journaledAtSnapshot = appended;
+        }
+    }
+
     private void shutdown() {
+        transactionManager.stopEngine();
         // Save data before exiting
         saveDataToFiles();
+        transactionManager.setJournal(null);
+        filePersistence.closeJournal();
         print("\nThank you for using Bank Account Management System!");
         print("Data automatically saved to disk.");
         print("Goodbye!");
@@ -0,0 +1,24 @@
+package com.bank.system.enums;
+
+import java.util.Locale;
+
+/**
+ * How concurrent work runs: on a fixed pool of platform threads, or on one virtual thread per task.
+ */
+public enum ExecutionMode {
+    PLATFORM,
+    VIRTUAL;
+
+    public static final String PROPERTY = "bank.execution.mode";
+
+    /**
+     * Reads {@code -Dbank.execution.mode=platform|virtual}; platform threads when unset.
+     */
+    public static ExecutionMode fromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null || value.isBlank()) {
+            return PLATFORM;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
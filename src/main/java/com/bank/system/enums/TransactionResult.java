@@ -0,0 +1,38 @@
+package com.bank.system.enums;
+
+/**
+ * Outcome of a deposit, withdrawal or transfer, returned instead of thrown so that a decline
+ * costs no more than an approval. The amount that could have been withdrawn is available from
+ * {@link com.bank.system.models.Account#getAvailableMinor()} when a caller needs it.
+ */
+public enum TransactionResult {
+    APPROVED("Approved"),
+    INSUFFICIENT_FUNDS("Insufficient funds"),
+    OVERDRAFT_EXCEEDED("Overdraft limit exceeded"),
+    INVALID_AMOUNT("Amount must be greater than 0"),
+    ACCOUNT_NOT_FOUND("Account not found"),
+    SAME_ACCOUNT("Cannot transfer to the same account"),
+    LOCK_TIMEOUT("Timed out waiting for account lock");
+
+    private final String description;
+
+    TransactionResult(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isApproved() {
+        return this == APPROVED;
+    }
+
+    /**
+     * True when a valid request was refused by the account rules or by lock contention, as
+     * opposed to being rejected for bad input.
+     */
+    public boolean isDeclined() {
+        return this == INSUFFICIENT_FUNDS || this == OVERDRAFT_EXCEEDED || this == LOCK_TIMEOUT;
+    }
+}
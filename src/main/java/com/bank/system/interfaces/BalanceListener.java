@@ -0,0 +1,8 @@
+package com.bank.system.interfaces;
+
+import com.bank.system.models.Account;
+
+public interface BalanceListener {
+    // Called after every successful balance change; read the account for the current balance
+    void balanceChanged(Account account);
+}
@@ -0,0 +1,12 @@
+package com.bank.system.interfaces;
+
+/**
+ * JMX view of the ledger as a whole, plus a text dump of every metric.
+ */
+public interface BankMetricsMXBean {
+    long getActiveAccounts();
+
+    long getTransactionCount();
+
+    String dump();
+}
@@ -0,0 +1,19 @@
+package com.bank.system.interfaces;
+
+/**
+ * JMX view of a timed call such as loading or saving a file. Durations are in milliseconds.
+ */
+public interface CallTimerMXBean {
+    long getCalls();
+
+    long getFailures();
+
+    // Records read or written by the most recent call
+    long getLastRecords();
+
+    double getLastMillis();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+}
@@ -0,0 +1,26 @@
+package com.bank.system.interfaces;
+
+/**
+ * JMX view of one transaction operation type. Latencies are in microseconds.
+ */
+public interface OperationMetricsMXBean {
+    long getSucceeded();
+
+    // Refused by the account rules or a lock timeout
+    long getDeclined();
+
+    // Invalid input, unknown accounts and unexpected failures
+    long getErrors();
+
+    double getAmountTotal();
+
+    double getMeanLatencyMicros();
+
+    double getP50LatencyMicros();
+
+    double getP99LatencyMicros();
+
+    double getP999LatencyMicros();
+
+    double getMaxLatencyMicros();
+}
@@ -1,42 +1,53 @@
 package com.bank.system.models;
+import com.bank.system.enums.TransactionResult;
 import com.bank.system.enums.TransactionType;
 import com.bank.system.exceptions.InsufficientFundsException;
 import com.bank.system.exceptions.InvalidAmountException;
 import com.bank.system.exceptions.OverdraftExceededException;
+import com.bank.system.interfaces.BalanceListener;
 import com.bank.system.interfaces.Transactable;
+import com.bank.system.utils.IdSequence;
 
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongConsumer;
 
 
 public abstract class Account implements Transactable {
     private String accountNumber;
     private final Customer customer;
-    private double balance;
+    // Minor units (cents); updated only through compare-and-set so readers never need a lock
+    private volatile long balance;
     private final String status;
+    // Set by the registry that indexes this account by balance
+    private volatile BalanceListener balanceListener;
 
-    private static final AtomicInteger ACCOUNT_COUNTER = new AtomicInteger(0);
+    private static final IdSequence ACCOUNT_NUMBERS = new IdSequence("ACC");
+    private static final VarHandle BALANCE;
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
 
     protected Account(String accountNumber, Customer customer, double initialDeposit) {
         this.customer = customer;
-        this.balance = initialDeposit;
+        this.balance = Money.ofMajor(initialDeposit);
         this.status = "Active";
         this.accountNumber = accountNumber;
         syncAccountCounter(accountNumber);
 
     }
     private static void syncAccountCounter(String accountNumber) {
-        if (accountNumber != null && accountNumber.startsWith("ACC")) {
-            try {
-                int value = Integer.parseInt(accountNumber.substring(3));
-                ACCOUNT_COUNTER.updateAndGet(current -> Math.max(current, value));
-            } catch (NumberFormatException ignored) {
-            }
-        }
+        ACCOUNT_NUMBERS.observe(accountNumber);
     }
     protected static String generateAccountNumber() {
-        return String.format("ACC%03d", ACCOUNT_COUNTER.incrementAndGet());
+        return ACCOUNT_NUMBERS.next();
     }
 
     // Abstract methods to be implemented by subclasses
@@ -47,18 +58,91 @@ public abstract class Account implements Transactable {
 
 
     // Abstract methods to be implemented by subclasses
-    public  abstract  boolean withdraw(double amount) throws InsufficientFundsException, InvalidAmountException, OverdraftExceededException;
+    public  abstract  boolean withdrawMinor(long amountMinor) throws InsufficientFundsException, InvalidAmountException, OverdraftExceededException;
+
+    /**
+     * Withdraws unless the account rules refuse it. Never throws for a decline and allocates
+     * nothing, unlike {@link #withdrawMinor}.
+     */
+    public TransactionResult tryWithdrawMinor(long amountMinor) {
+        return tryWithdrawMinor(amountMinor, null);
+    }
+
+    /**
+     * Like {@link #tryWithdrawMinor(long)}, but on a rules decline passes {@code declinedBalance}
+     * the balance the refusing check saw, which may have moved again by the time it returns.
+     * A null consumer is ignored.
+     */
+    public abstract TransactionResult tryWithdrawMinor(long amountMinor, LongConsumer declinedBalance);
+
+    /**
+     * The most that can be withdrawn right now, in minor units; never negative.
+     */
+    public abstract long getAvailableMinor();
+
+    /**
+     * Explains why a withdrawal of {@code amountMinor} is refused at {@code balanceMinor}, in
+     * the words of the exception {@link #withdrawMinor} throws. Pass the balance reported by
+     * {@link #tryWithdrawMinor(long, LongConsumer)}; reading it again afterwards may show one
+     * that would have allowed the withdrawal.
+     */
+    public abstract String describeDecline(long amountMinor, long balanceMinor);
+
+    public boolean withdraw(double amount) throws InsufficientFundsException, InvalidAmountException, OverdraftExceededException {
+        return withdrawMinor(toMinorAmount(amount, "Withdrawal"));
+    }
+
+    public boolean deposit(double amount) throws InvalidAmountException {
+        return depositMinor(toMinorAmount(amount, "Deposit"));
+    }
+
+    public boolean depositMinor(long amountMinor) throws InvalidAmountException {
+        ensurePositiveAmount(amountMinor, "Deposit");
+        return tryDepositMinor(amountMinor).isApproved();
+    }
 
-    public synchronized boolean deposit(double amount) throws InvalidAmountException {
-        ensurePositiveAmount(amount, "Deposit");
-        setBalance(getBalance() + amount);
+    public TransactionResult tryDepositMinor(long amountMinor) {
+        if (amountMinor <= 0) {
+            return TransactionResult.INVALID_AMOUNT;
+        }
+        long current;
+        do {
+            current = getBalanceMinor();
+        } while (!compareAndSetBalance(current, Money.add(current, amountMinor)));
+        return TransactionResult.APPROVED;
+    }
+
+    /**
+     * Atomically replaces the balance if it still equals {@code expected}. Withdrawal rules are
+     * checked against {@code expected} inside the caller's retry loop, so a concurrent update
+     * forces the check to run again on the fresh value.
+     */
+    protected final boolean compareAndSetBalance(long expected, long newBalance) {
+        if (!BALANCE.compareAndSet(this, expected, newBalance)) {
+            return false;
+        }
+        notifyBalanceChanged();
         return true;
     }
 
-    protected final void ensurePositiveAmount(double amount, String context) throws InvalidAmountException {
-        if (amount <= 0) {
+    private void notifyBalanceChanged() {
+        BalanceListener listener = balanceListener;
+        if (listener != null) {
+            listener.balanceChanged(this);
+        }
+    }
+
+    protected final void ensurePositiveAmount(long amountMinor, String context) throws InvalidAmountException {
+        if (amountMinor <= 0) {
+            throw new InvalidAmountException(context + " amount must be greater than 0");
+        }
+    }
+
+    protected static long toMinorAmount(double amount, String context) throws InvalidAmountException {
+        if (!(amount > 0) || Double.isInfinite(amount)) {
             throw new InvalidAmountException(context + " amount must be greater than 0");
         }
+        return Money.ofMajor(amount);
     }
     // Withdraw method - to be overridden by subclasses
 
@@ -77,11 +161,28 @@ public abstract class Account implements Transactable {
 
 
     public double getBalance() {
+        return Money.toMajor(balance);
+    }
+
+    public long getBalanceMinor() {
         return balance;
     }
 
     public void setBalance(double balance) {
-        this.balance = balance;
+        setBalanceMinor(Money.ofMajor(balance));
+    }
+
+    public void setBalanceMinor(long balanceMinor) {
+        this.balance = balanceMinor;
+        notifyBalanceChanged();
+    }
+
+    public BalanceListener getBalanceListener() {
+        return balanceListener;
+    }
+
+    public void setBalanceListener(BalanceListener balanceListener) {
+        this.balanceListener = balanceListener;
     }
 
     public String getStatus() {
@@ -101,6 +202,38 @@ public abstract class Account implements Transactable {
         };
     }
 
+    /**
+     * Deposits or withdraws, reporting a decline as a result instead of an exception.
+     */
+    public TransactionResult applyMinor(long amountMinor, TransactionType type) {
+        return applyMinor(amountMinor, type, null);
+    }
+
+    /**
+     * {@link #applyMinor(long, TransactionType)} that reports a declined withdrawal's balance as
+     * {@link #tryWithdrawMinor(long, LongConsumer)} does.
+     */
+    public TransactionResult applyMinor(long amountMinor, TransactionType type, LongConsumer declinedBalance) {
+        if (type == TransactionType.DEPOSIT) {
+            return tryDepositMinor(amountMinor);
+        }
+        if (type == TransactionType.WITHDRAWAL) {
+            return tryWithdrawMinor(amountMinor, declinedBalance);
+        }
+        throw new IllegalArgumentException("Unsupported transaction type: " + type);
+    }
+
+    public boolean processTransactionMinor(long amountMinor, TransactionType type) {
+        if (type == null) {
+            return false;
+        }
+        return switch (type) {
+            case DEPOSIT -> executeTransaction(() -> depositMinor(amountMinor));
+            case WITHDRAWAL -> executeTransaction(() -> withdrawMinor(amountMinor));
+            default -> false;
+        };
+    }
+
     private boolean executeTransaction(TransactionCommand command) {
         try {
             return command.run();
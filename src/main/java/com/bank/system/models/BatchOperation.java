@@ -0,0 +1,56 @@
+package com.bank.system.models;
+
+import com.bank.system.enums.TransactionType;
+
+/**
+ * One deposit, withdrawal or transfer submitted to {@code TransactionManager.applyBatch}.
+ * Amounts are in minor units.
+ */
+public class BatchOperation {
+    private final TransactionType type;
+    private final String accountNumber;
+    private final String targetAccountNumber;
+    private final long amountMinor;
+
+    private BatchOperation(TransactionType type, String accountNumber, String targetAccountNumber, long amountMinor) {
+        this.type = type;
+        this.accountNumber = accountNumber;
+        this.targetAccountNumber = targetAccountNumber;
+        this.amountMinor = amountMinor;
+    }
+
+    public static BatchOperation deposit(String accountNumber, long amountMinor) {
+        return new BatchOperation(TransactionType.DEPOSIT, accountNumber, null, amountMinor);
+    }
+
+    public static BatchOperation withdrawal(String accountNumber, long amountMinor) {
+        return new BatchOperation(TransactionType.WITHDRAWAL, accountNumber, null, amountMinor);
+    }
+
+    public static BatchOperation transfer(String fromAccountNumber, String toAccountNumber, long amountMinor) {
+        return new BatchOperation(TransactionType.TRANSFER, fromAccountNumber, toAccountNumber, amountMinor);
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    // Destination of a transfer; null for deposits and withdrawals
+    public String getTargetAccountNumber() {
+        return targetAccountNumber;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + accountNumber + (targetAccountNumber == null ? "" : " -> " + targetAccountNumber)
+                + " " + Money.format(amountMinor);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.system.models;
+
+/**
+ * Per-operation outcome of a batch, indexed like the submitted operation list.
+ */
+public class BatchResult {
+    private final boolean[] succeeded;
+    private final String[] errors;
+    private int successCount;
+
+    public BatchResult(int size) {
+        this.succeeded = new boolean[size];
+        this.errors = new String[size];
+    }
+
+    public void markSucceeded(int index) {
+        if (!succeeded[index]) {
+            succeeded[index] = true;
+            successCount++;
+        }
+        errors[index] = null;
+    }
+
+    public void markFailed(int index, String error) {
+        if (succeeded[index]) {
+            succeeded[index] = false;
+            successCount--;
+        }
+        errors[index] = error;
+    }
+
+    public boolean isSucceeded(int index) {
+        return succeeded[index];
+    }
+
+    // Reason the operation failed, or null if it succeeded or was not attempted
+    public String getError(int index) {
+        return errors[index];
+    }
+
+    public boolean isFailed(int index) {
+        return errors[index] != null;
+    }
+
+    public int size() {
+        return succeeded.length;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public int getFailureCount() {
+        return succeeded.length - successCount;
+    }
+}
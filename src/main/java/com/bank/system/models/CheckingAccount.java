@@ -1,15 +1,18 @@
 package com.bank.system.models;
 
+import com.bank.system.enums.TransactionResult;
 import com.bank.system.enums.TransactionType;
 import com.bank.system.exceptions.InvalidAmountException;
 import com.bank.system.exceptions.OverdraftExceededException;
 
+import java.util.function.LongConsumer;
 
 import static com.bank.system.utils.ConsoleUtil.printf;
 
 public class CheckingAccount extends Account {
     private static final double OVERDRAFT_LIMIT = 500.0;
     private static final double MONTHLY_FEE = 10.0 ;
+    private static final long OVERDRAFT_LIMIT_MINOR = Money.ofMajor(OVERDRAFT_LIMIT);
 
     public CheckingAccount(Customer customer, double initialDeposit) {
         this(generateAccountNumber(), customer, initialDeposit);
@@ -21,13 +24,13 @@ public class CheckingAccount extends Account {
 
     @Override
     public void displayAccountDetails() {
-        printf("%-8s | %-15s | %-9s | $%,-9.2f | %-8s%n",
+        printf("%-21s | %-15s | %-9s | $%,-9.2f | %-8s%n",
                 getAccountNumber(),
                 getCustomer().getName(),
                 getAccountType(),
                 getBalance(),
                 getStatus());
-        printf("%-8s | Overdraft Limit: $%.2f | Monthly Fee: $%,.2f%n",
+        printf("%-21s | Overdraft Limit: $%.2f | Monthly Fee: $%,.2f%n",
                 "",
                 OVERDRAFT_LIMIT,
                 MONTHLY_FEE);
@@ -40,20 +43,49 @@ public class CheckingAccount extends Account {
     }
 
     @Override
-    public synchronized boolean withdraw(double amount) throws InvalidAmountException, OverdraftExceededException {
-        if (amount <= 0) {
+    public boolean withdraw(double amount) throws InvalidAmountException, OverdraftExceededException {
+        return withdrawMinor(toMinorAmount(amount, "Withdrawal"));
+    }
+
+    @Override
+    public boolean withdrawMinor(long amountMinor) throws InvalidAmountException, OverdraftExceededException {
+        if (amountMinor <= 0) {
             throw new InvalidAmountException("Withdrawal amount must be greater than 0");
         }
+        long[] declined = new long[1];
+        if (!tryWithdrawMinor(amountMinor, balance -> declined[0] = balance).isApproved()) {
+            throw new OverdraftExceededException(describeDecline(amountMinor, declined[0]));
+        }
+        return true;
+    }
 
-
-        if (getBalance() + OVERDRAFT_LIMIT < amount) {
-            throw new OverdraftExceededException(
-                    String.format("Overdraft limit exceeded. Current balance: $%.2f, Requested: $%.2f, Overdraft limit: $%.2f",
-                            getBalance(), amount, OVERDRAFT_LIMIT));
+    @Override
+    public TransactionResult tryWithdrawMinor(long amountMinor, LongConsumer declinedBalance) {
+        if (amountMinor <= 0) {
+            return TransactionResult.INVALID_AMOUNT;
         }
+        long current;
+        do {
+            current = getBalanceMinor();
+            if (current + OVERDRAFT_LIMIT_MINOR < amountMinor) {
+                if (declinedBalance != null) {
+                    declinedBalance.accept(current);
+                }
+                return TransactionResult.OVERDRAFT_EXCEEDED;
+            }
+        } while (!compareAndSetBalance(current, current - amountMinor));
+        return TransactionResult.APPROVED;
+    }
 
-        setBalance(getBalance() - amount);
-        return true;
+    @Override
+    public long getAvailableMinor() {
+        return Math.max(0, getBalanceMinor() + OVERDRAFT_LIMIT_MINOR);
+    }
+
+    @Override
+    public String describeDecline(long amountMinor, long balanceMinor) {
+        return String.format("Overdraft limit exceeded. Current balance: $%.2f, Requested: $%.2f, Overdraft limit: $%.2f",
+                Money.toMajor(balanceMinor), Money.toMajor(amountMinor), OVERDRAFT_LIMIT);
     }
 
 
@@ -66,7 +98,7 @@ public class CheckingAccount extends Account {
         return MONTHLY_FEE;
     }
     public double getMaxWithdrawalAmount() {
-        return getBalance() + OVERDRAFT_LIMIT;
+        return Money.toMajor(getBalanceMinor() + OVERDRAFT_LIMIT_MINOR);
     }
 
 
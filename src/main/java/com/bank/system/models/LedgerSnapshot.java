@@ -0,0 +1,75 @@
+package com.bank.system.models;
+
+import com.bank.system.enums.TransactionType;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Account balances and transaction totals as of one point in the transactions journal. Rows up
+ * to {@link #getJournalOffset()} are covered by it; startup only replays the rows after that.
+ */
+public class LedgerSnapshot {
+    private final long lastSequence;
+    private final long journalOffset;
+    private final long createdMillis;
+    private final Map<String, Long> balances;
+    private final Map<String, TransactionAggregate> aggregates;
+
+    public LedgerSnapshot(long lastSequence, long journalOffset, long createdMillis,
+                          Map<String, Long> balances, Map<String, TransactionAggregate> aggregates) {
+        this.lastSequence = lastSequence;
+        this.journalOffset = journalOffset;
+        this.createdMillis = createdMillis;
+        this.balances = balances;
+        this.aggregates = aggregates;
+    }
+
+    // Every transaction ID covered by the snapshot is at or below this sequence number
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    // Byte length of the transactions journal when the snapshot was taken
+    public long getJournalOffset() {
+        return journalOffset;
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    public Map<String, Long> getBalances() {
+        return Collections.unmodifiableMap(balances);
+    }
+
+    public Map<String, TransactionAggregate> getAggregates() {
+        return Collections.unmodifiableMap(aggregates);
+    }
+
+    /**
+     * Takes a transaction covered by the snapshot back out of its account's totals, e.g. when
+     * the journal tail voids it.
+     */
+    public void rollback(String accountNumber, TransactionType type, long amountMinor) {
+        TransactionAggregate aggregate = aggregates.get(accountNumber);
+        if (aggregate != null) {
+            aggregate.rollback(type, amountMinor);
+        }
+    }
+
+    /**
+     * Sets each known account to its snapshot balance. Returns how many accounts were found.
+     */
+    public int applyBalances(Map<String, Account> accounts) {
+        int applied = 0;
+        for (Map.Entry<String, Long> entry : balances.entrySet()) {
+            Account account = accounts.get(entry.getKey());
+            if (account != null) {
+                account.setBalanceMinor(entry.getValue());
+                applied++;
+            }
+        }
+        return applied;
+    }
+}
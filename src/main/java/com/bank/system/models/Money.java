@@ -0,0 +1,158 @@
+package com.bank.system.models;
+
+/**
+ * Fixed-point money helpers. Amounts are carried as a {@code long} count of minor units
+ * (cents), so ledger arithmetic is exact and needs no boxing or BigDecimal allocation.
+ * Doubles only appear at the console and legacy API edges.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    public static final long MINOR_PER_UNIT = 100L;
+
+    private Money() {
+        throw new UnsupportedOperationException("Money is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Converts a major-unit amount (e.g. dollars typed at the console) to minor units, rounding
+     * half away from zero to the nearest cent.
+     */
+    public static long ofMajor(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new NumberFormatException("Not a finite amount: " + amount);
+        }
+        return Math.round(amount * MINOR_PER_UNIT);
+    }
+
+    public static double toMajor(long minorUnits) {
+        return minorUnits / (double) MINOR_PER_UNIT;
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Parses a decimal amount such as {@code 1500}, {@code 3434.0} or {@code -12.34} into minor
+     * units without going through a double. Extra fraction digits written by older versions
+     * (which stored {@code String.valueOf(double)}) are rounded half up; exponent notation from
+     * those files falls back to double parsing.
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            throw new NumberFormatException("Amount is null");
+        }
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses {@code text[start, end)} like {@link #parse(CharSequence)}, without copying it.
+     */
+    public static long parse(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("Invalid amount: " + text.subSequence(start, end));
+        }
+
+        long whole = 0;
+        int digits = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            whole = Math.addExact(Math.multiplyExact(whole, 10), text.charAt(i) - '0');
+            i++;
+            digits++;
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(text.charAt(i))) {
+                int digit = text.charAt(i) - '0';
+                if (fractionDigits < SCALE) {
+                    fraction = fraction * 10 + digit;
+                } else if (fractionDigits == SCALE) {
+                    roundUp = digit >= 5;
+                }
+                fractionDigits++;
+                digits++;
+                i++;
+            }
+        }
+
+        if (i < end && (text.charAt(i) == 'E' || text.charAt(i) == 'e')) {
+            return ofMajor(Double.parseDouble(text.subSequence(start, end).toString()));
+        }
+        if (i != end || digits == 0) {
+            throw new NumberFormatException("Invalid amount: " + text.subSequence(start, end));
+        }
+
+        for (int scale = Math.min(fractionDigits, SCALE); scale < SCALE; scale++) {
+            fraction *= 10;
+        }
+        long minor = Math.addExact(Math.multiplyExact(whole, MINOR_PER_UNIT), fraction);
+        if (roundUp) {
+            minor = Math.addExact(minor, 1);
+        }
+        return negative ? -minor : minor;
+    }
+
+    /**
+     * Formats minor units as a plain decimal string, e.g. {@code 123456 -> "1234.56"}.
+     */
+    public static String format(long minorUnits) {
+        StringBuilder builder = new StringBuilder(24);
+        appendTo(builder, minorUnits, false);
+        return builder.toString();
+    }
+
+    /**
+     * Formats minor units with thousands separators, e.g. {@code 123456 -> "1,234.56"}.
+     */
+    public static String formatGrouped(long minorUnits) {
+        StringBuilder builder = new StringBuilder(32);
+        appendTo(builder, minorUnits, true);
+        return builder.toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder builder, long minorUnits, boolean grouped) {
+        if (minorUnits < 0) {
+            builder.append('-');
+        }
+        // Work on the magnitude as unsigned so Long.MIN_VALUE formats correctly
+        long magnitude = Math.abs(minorUnits);
+        long whole = Long.divideUnsigned(magnitude, MINOR_PER_UNIT);
+        long cents = Long.remainderUnsigned(magnitude, MINOR_PER_UNIT);
+
+        String wholeDigits = Long.toUnsignedString(whole);
+        if (grouped) {
+            int firstGroup = wholeDigits.length() % 3;
+            for (int i = 0; i < wholeDigits.length(); i++) {
+                if (i > 0 && (i - firstGroup) % 3 == 0) {
+                    builder.append(',');
+                }
+                builder.append(wholeDigits.charAt(i));
+            }
+        } else {
+            builder.append(wholeDigits);
+        }
+        builder.append('.');
+        if (cents < 10) {
+            builder.append('0');
+        }
+        return builder.append(cents);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
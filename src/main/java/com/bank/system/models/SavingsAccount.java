@@ -1,14 +1,17 @@
 package com.bank.system.models;
 
+import com.bank.system.enums.TransactionResult;
 import com.bank.system.exceptions.InsufficientFundsException;
 import com.bank.system.exceptions.InvalidAmountException;
 
+import java.util.function.LongConsumer;
 
 import static com.bank.system.utils.ConsoleUtil.printf;
 public class SavingsAccount extends Account  {
     private static final double INTEREST_RATE = 3.5;
     private static final double MINIMUM_BALANCE = 500.0;
     private static final double WITHDRAWAL_FEE = 2.0;
+    private static final long MINIMUM_BALANCE_MINOR = Money.ofMajor(MINIMUM_BALANCE);
 
     public SavingsAccount(Customer customer, double initialDeposit) {
         this(generateAccountNumber(), customer, initialDeposit);
@@ -20,13 +23,13 @@ public class SavingsAccount extends Account  {
 
     @Override
     public void displayAccountDetails() {
-        printf("%-8s | %-15s | %-9s | $%,-9.2f | %-8s%n",
+        printf("%-21s | %-15s | %-9s | $%,-9.2f | %-8s%n",
                 getAccountNumber(),
                 getCustomer().getName(),
                 getAccountType(),
                 getBalance(),
                 getStatus());
-        printf("%-8s | Interest Rate: %.1f%% | Min Balance: $%,.2f%n",
+        printf("%-21s | Interest Rate: %.1f%% | Min Balance: $%,.2f%n",
                 "",
                 INTEREST_RATE,
                 MINIMUM_BALANCE);
@@ -38,20 +41,49 @@ public class SavingsAccount extends Account  {
     }
 
     @Override
-    public synchronized boolean withdraw(double amount) throws InvalidAmountException, InsufficientFundsException {
-        ensurePositiveAmount(amount, "Withdrawal");
-
-        double withdrawalTotal = amount ;
-        if (getBalance() - withdrawalTotal < MINIMUM_BALANCE) {
-            throw new InsufficientFundsException(
-                    String.format(
-                            "Insufficient funds. Current balance: $%.2f, Requested: $%.2f (incl. $%.2f fee), Min required: $%.2f",
-                            getBalance(), withdrawalTotal, WITHDRAWAL_FEE, MINIMUM_BALANCE));
+    public boolean withdraw(double amount) throws InvalidAmountException, InsufficientFundsException {
+        return withdrawMinor(toMinorAmount(amount, "Withdrawal"));
+    }
+
+    @Override
+    public boolean withdrawMinor(long amountMinor) throws InvalidAmountException, InsufficientFundsException {
+        ensurePositiveAmount(amountMinor, "Withdrawal");
+        long[] declined = new long[1];
+        if (!tryWithdrawMinor(amountMinor, balance -> declined[0] = balance).isApproved()) {
+            throw new InsufficientFundsException(describeDecline(amountMinor, declined[0]));
         }
+        return true;
+    }
 
+    @Override
+    public TransactionResult tryWithdrawMinor(long amountMinor, LongConsumer declinedBalance) {
+        if (amountMinor <= 0) {
+            return TransactionResult.INVALID_AMOUNT;
+        }
+        long withdrawalTotal = amountMinor ;
+        long current;
+        do {
+            current = getBalanceMinor();
+            if (current - withdrawalTotal < MINIMUM_BALANCE_MINOR) {
+                if (declinedBalance != null) {
+                    declinedBalance.accept(current);
+                }
+                return TransactionResult.INSUFFICIENT_FUNDS;
+            }
+        } while (!compareAndSetBalance(current, current - withdrawalTotal));
+        return TransactionResult.APPROVED;
+    }
 
-        setBalance(getBalance() - withdrawalTotal);
-        return true;
+    @Override
+    public long getAvailableMinor() {
+        return Math.max(0, getBalanceMinor() - MINIMUM_BALANCE_MINOR);
+    }
+
+    @Override
+    public String describeDecline(long amountMinor, long balanceMinor) {
+        return String.format(
+                "Insufficient funds. Current balance: $%.2f, Requested: $%.2f (incl. $%.2f fee), Min required: $%.2f",
+                Money.toMajor(balanceMinor), Money.toMajor(amountMinor), WITHDRAWAL_FEE, MINIMUM_BALANCE);
     }
 
 
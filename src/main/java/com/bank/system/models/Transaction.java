@@ -1,9 +1,14 @@
 package com.bank.system.models;
 
+import com.bank.system.utils.IdSequence;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicInteger;
-
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
 
 import static com.bank.system.utils.ConsoleUtil.*;
 
@@ -11,42 +16,149 @@ public class Transaction {
     private final String transactionId;
     private final String accountNumber;
     private final String type; // "DEPOSIT" or "WITHDRAWAL"
-    private final double amount;
-    private final double balanceAfter;
-    private String timestamp;
-    private static final AtomicInteger TRANSACTION_COUNTER = new AtomicInteger(0);
-    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy hh:mm a");
+    private final long amountMinor;
+    private final long balanceAfterMinor;
+    // Epoch millis; the display text is derived from it on demand
+    private long epochMillis;
+    // Only set for stored timestamps that could not be parsed, so they round-trip unchanged
+    private String irregularTimestamp;
+    private static final IdSequence TRANSACTION_IDS = new IdSequence("TXN");
+    // Display format, and the format files were written in before timestamps were stored as instants
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy hh:mm a", Locale.ENGLISH);
+    private static final DateTimeFormatter STORED_TIMESTAMP_FORMATTER = new DateTimeFormatterBuilder()
+            .appendInstant(3)
+            .toFormatter(Locale.ROOT);
+    public static final long NO_SEQUENCE = -1L;
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
 
     public Transaction(String accountNumber, String type, double amount, double balanceAfter) {
-        this(generateTransactionId(), accountNumber, type, amount, balanceAfter, getCurrentTimestamp());
+        this(generateTransactionId(), accountNumber, type, System.currentTimeMillis(),
+                Money.ofMajor(amount), Money.ofMajor(balanceAfter));
     }
 
     public Transaction(String transactionId, String accountNumber, String type, double amount, double balanceAfter, String timestamp) {
+        this(transactionId, accountNumber, type, NO_TIMESTAMP, Money.ofMajor(amount), Money.ofMajor(balanceAfter));
+        setTimestamp(timestamp);
+    }
+
+    private Transaction(String transactionId, String accountNumber, String type, long epochMillis,
+                        long amountMinor, long balanceAfterMinor) {
         this.transactionId = transactionId;
         this.accountNumber = accountNumber;
         this.type = type;
-        this.amount = amount;
-        this.balanceAfter = balanceAfter;
-        this.timestamp = timestamp;
+        this.amountMinor = amountMinor;
+        this.balanceAfterMinor = balanceAfterMinor;
+        this.epochMillis = epochMillis;
         syncTransactionCounter(transactionId);
     }
 
+    /**
+     * Creates a new transaction with a generated ID and the current time; amounts in minor units.
+     */
+    public static Transaction ofMinorUnits(String accountNumber, String type, long amountMinor, long balanceAfterMinor) {
+        return new Transaction(generateTransactionId(), accountNumber, type, System.currentTimeMillis(), amountMinor, balanceAfterMinor);
+    }
+
+    /**
+     * Restores a stored transaction whose amounts are already in minor units.
+     */
+    public static Transaction ofMinorUnits(String transactionId, String accountNumber, String type,
+                                           long amountMinor, long balanceAfterMinor, String timestamp) {
+        Transaction transaction = new Transaction(transactionId, accountNumber, type, NO_TIMESTAMP, amountMinor, balanceAfterMinor);
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+
+    /**
+     * Restores a stored transaction from minor-unit amounts and an epoch-millis timestamp.
+     */
+    public static Transaction ofMinorUnits(String transactionId, String accountNumber, String type,
+                                           long amountMinor, long balanceAfterMinor, long epochMillis) {
+        return new Transaction(transactionId, accountNumber, type, epochMillis, amountMinor, balanceAfterMinor);
+    }
+
     private static String generateTransactionId() {
-        return String.format("TXN%03d", TRANSACTION_COUNTER.incrementAndGet());
+        return TRANSACTION_IDS.next();
     }
 
-    private static void syncTransactionCounter(String transactionId) {
-        if (transactionId != null && transactionId.startsWith("TXN")) {
-            try {
-                int value = Integer.parseInt(transactionId.substring(3));
-                TRANSACTION_COUNTER.updateAndGet(current -> Math.max(current, value));
-            } catch (NumberFormatException ignored) {
+    /**
+     * Reserves the next transaction sequence number for rows created without a Transaction object.
+     */
+    public static long nextSequence() {
+        return TRANSACTION_IDS.nextValue();
+    }
+
+    public static String formatId(long sequence) {
+        return TRANSACTION_IDS.format(sequence);
+    }
+
+    /**
+     * Upper bound of every sequence number generated so far.
+     */
+    public static long highestSequence() {
+        return TRANSACTION_IDS.current();
+    }
+
+    /**
+     * Keeps newly generated IDs above {@code sequence}, e.g. for history that is not loaded.
+     */
+    public static void observeSequence(long sequence) {
+        TRANSACTION_IDS.observe(sequence);
+    }
+
+    /**
+     * Returns the numeric part of a generated ID such as {@code TXN042}, or {@link #NO_SEQUENCE}
+     * when the ID does not have that exact form and must be kept as text.
+     */
+    public static long parseSequence(String transactionId) {
+        long sequence = TRANSACTION_IDS.parseCanonical(transactionId);
+        return sequence == IdSequence.NONE ? NO_SEQUENCE : sequence;
+    }
+
+    /**
+     * Parses a stored timestamp into epoch millis, or returns {@link #NO_TIMESTAMP}. Accepts the
+     * ISO-8601 instants written by {@link #formatStoredTimestamp(long)} and the older
+     * {@code dd-MM-yyyy hh:mm a} text, which is read in the system zone.
+     */
+    public static long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return NO_TIMESTAMP;
+        }
+        try {
+            if (isIsoInstant(timestamp)) {
+                return Instant.parse(timestamp).toEpochMilli();
             }
+            return LocalDateTime.parse(timestamp, TIMESTAMP_FORMATTER)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return NO_TIMESTAMP;
         }
     }
 
-    private static String getCurrentTimestamp() {
-        return LocalDateTime.now().format(TIMESTAMP_FORMATTER);
+    // e.g. 2025-12-15T10:00:00.000Z; the legacy format has its first dash at index 2
+    private static boolean isIsoInstant(String timestamp) {
+        return timestamp.length() > 10 && timestamp.charAt(4) == '-' && timestamp.charAt(10) == 'T';
+    }
+
+    /**
+     * Formats epoch millis for display, in the system zone.
+     */
+    public static String formatTimestamp(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault())
+                .format(TIMESTAMP_FORMATTER);
+    }
+
+    /**
+     * Formats epoch millis for files as a zone-independent ISO-8601 instant with millisecond precision.
+     */
+    public static String formatStoredTimestamp(long epochMillis) {
+        return STORED_TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    private static void syncTransactionCounter(String transactionId) {
+        TRANSACTION_IDS.observe(transactionId);
     }
 
     // Method to display transaction details
@@ -57,10 +169,10 @@ public class Transaction {
         print("Transaction ID: " + transactionId);
         print("Account: " + accountNumber);
         print("Type: " + type);
-        printf("Amount: $%,.2f%n", amount);
+        print("Amount: $" + Money.formatGrouped(amountMinor));
         printf("Previous Balance: $%,.2f%n", previousBalance);
-        printf("NewBalance : $%,.2f%n", balanceAfter);
-        print("Date/Time: " + timestamp);
+        print("NewBalance : $" + Money.formatGrouped(balanceAfterMinor));
+        print("Date/Time: " + getTimestamp());
         print(subSeparator(60));
     }
 
@@ -78,20 +190,53 @@ public class Transaction {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toMajor(amountMinor);
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
     }
 
     public double getBalanceAfter() {
-        return balanceAfter;
+        return Money.toMajor(balanceAfterMinor);
+    }
+
+    public long getBalanceAfterMinor() {
+        return balanceAfterMinor;
     }
 
+    /**
+     * Display text for the timestamp; unparseable stored values are returned as they were read.
+     */
     public String getTimestamp() {
-        return timestamp;
+        if (epochMillis == NO_TIMESTAMP) {
+            return irregularTimestamp;
+        }
+        return formatTimestamp(epochMillis);
+    }
+
+    /**
+     * Timestamp as written to files: an ISO-8601 instant, or the original text if it could not be parsed.
+     */
+    public String getStoredTimestamp() {
+        if (epochMillis == NO_TIMESTAMP) {
+            return irregularTimestamp;
+        }
+        return formatStoredTimestamp(epochMillis);
     }
 
+    public long getEpochMillis() {
+        return epochMillis;
+    }
 
     public void setTimestamp(String timestamp) {
-        this.timestamp = timestamp;
+        this.epochMillis = parseTimestamp(timestamp);
+        this.irregularTimestamp = epochMillis == NO_TIMESTAMP ? timestamp : null;
+    }
+
+    public void setEpochMillis(long epochMillis) {
+        this.epochMillis = epochMillis;
+        this.irregularTimestamp = null;
     }
 
 
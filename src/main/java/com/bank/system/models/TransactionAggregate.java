@@ -0,0 +1,100 @@
+package com.bank.system.models;
+
+import com.bank.system.enums.TransactionType;
+
+import java.util.Arrays;
+
+/**
+ * Running count and amount total per {@link TransactionType} for a single account.
+ * Updated as transactions are recorded or rolled back so statement totals are O(1).
+ */
+public class TransactionAggregate {
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final String accountNumber;
+    private final long[] counts = new long[TYPES.length];
+    private final long[] sums = new long[TYPES.length];
+
+    public TransactionAggregate(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public synchronized void record(TransactionType type, long amountMinor) {
+        counts[type.ordinal()]++;
+        sums[type.ordinal()] += amountMinor;
+    }
+
+    public synchronized void rollback(TransactionType type, long amountMinor) {
+        counts[type.ordinal()]--;
+        sums[type.ordinal()] -= amountMinor;
+    }
+
+    /**
+     * Adds totals carried over from elsewhere, e.g. a snapshot of history that is not loaded.
+     */
+    public synchronized void add(TransactionType type, long count, long sumMinor) {
+        counts[type.ordinal()] += count;
+        sums[type.ordinal()] += sumMinor;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(sums, 0L);
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public synchronized long getCount(TransactionType type) {
+        return counts[type.ordinal()];
+    }
+
+    public synchronized long getSumMinor(TransactionType type) {
+        return sums[type.ordinal()];
+    }
+
+    public double getSum(TransactionType type) {
+        return Money.toMajor(getSumMinor(type));
+    }
+
+    public synchronized long getTotalCount() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Withdrawals include money sent by transfer, matching how statements report outflow
+    public synchronized long getTotalOutflowMinor() {
+        return sums[TransactionType.WITHDRAWAL.ordinal()] + sums[TransactionType.TRANSFER.ordinal()];
+    }
+
+    public synchronized long getNetChangeMinor() {
+        return sums[TransactionType.DEPOSIT.ordinal()] - getTotalOutflowMinor();
+    }
+
+    public double getTotalOutflow() {
+        return Money.toMajor(getTotalOutflowMinor());
+    }
+
+    public double getNetChange() {
+        return Money.toMajor(getNetChangeMinor());
+    }
+
+    /**
+     * Maps a stored transaction type string to its enum, or null when it is not recognised.
+     */
+    public static TransactionType parseType(String type) {
+        if (type == null) {
+            return null;
+        }
+        for (TransactionType candidate : TYPES) {
+            if (candidate.name().equalsIgnoreCase(type)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
@@ -5,6 +5,7 @@ import com.bank.system.enums.TransactionType;
 import com.bank.system.models.Account;
 import com.bank.system.models.CheckingAccount;
 import com.bank.system.models.Customer;
+import com.bank.system.models.Money;
 import com.bank.system.models.PremiumCustomer;
 import com.bank.system.models.RegularCustomer;
 import com.bank.system.models.SavingsAccount;
@@ -12,8 +13,6 @@ import com.bank.system.models.Transaction;
 import com.bank.system.services.AccountManager;
 import com.bank.system.services.TransactionManager;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 import static com.bank.system.utils.ConsoleUtil.*;
@@ -27,6 +26,8 @@ import static com.bank.system.utils.ValidationUtils.isValidPhone;
 public class AccountProcessHandler {
     private static final double REGULAR_MIN_DEPOSIT = 500;
     private static final double PREMIUM_MIN_DEPOSIT = 10000;
+    private static final int LIST_PAGE_SIZE = 50;
+    private static final int SEARCH_RESULT_LIMIT = 10;
     private final TransactionManager transactionManager;
     private final AccountManager accountManager;
 
@@ -151,9 +152,9 @@ public class AccountProcessHandler {
 
     public void viewAccountDetails() {
         print("\nVIEW ACCOUNT DETAILS");
-        String accountNumber = readString("Enter account number (format: ACC###): ",
+        String accountNumber = readString("Enter account number (format: ACC followed by 3 to 18 digits): ",
                 isValidAccountNumber,
-                "Error: Invalid account number format. Please use format ACC###"
+                "Error: Invalid account number format. Please use ACC followed by 3 to 18 digits"
         );
 
         if (!accountManager.accountExists(accountNumber)) {
@@ -178,9 +179,8 @@ public class AccountProcessHandler {
 
         String accountType = type == 1 ? "savings" : "checking";
 
+       // Already ordered by account number
        List<Account> accounts = accountManager.getAccountsByType(accountType);
-        // Sort accounts by account number (ascending)
-        accounts.sort(Comparator.comparing(Account::getAccountNumber));
         if (accounts.isEmpty()) {
             print("No " + accountType + " accounts found.");
             return;
@@ -189,7 +189,7 @@ public class AccountProcessHandler {
         print(" ");
         printHeader( accountType.toUpperCase() + " Accounts");
         printSeparator();
-        printf("%-8s | %-15s | %-9s | %-10s | %-8s%n",
+        printf("%-21s | %-15s | %-9s | %-10s | %-8s%n",
                 "ACC NO", "CUSTOMER NAME", "TYPE", "BALANCE", "STATUS");
         printSeparator();
         for (Account acct : accounts) {
@@ -205,7 +205,7 @@ public class AccountProcessHandler {
         print(" ");
         printHeader( accountType.toUpperCase() + " Accounts");
         printSeparator();
-        printf("%-8s | %-15s | %-9s | %-10s | %-8s%n",
+        printf("%-21s | %-15s | %-9s | %-10s | %-8s%n",
                 "ACC NO", "CUSTOMER NAME", "TYPE", "BALANCE", "STATUS");
         printSeparator();
         for (Account acct : accounts) {
@@ -220,9 +220,9 @@ public class AccountProcessHandler {
     }
     public void deleteAccount() {
 
-        String accountNumber = readString("Enter account number to delete (format: ACC###): ",
+        String accountNumber = readString("Enter account number to delete (format: ACC followed by 3 to 18 digits): ",
                 isValidAccountNumber,
-                "Error: Invalid account number format. Please use format ACC###"
+                "Error: Invalid account number format. Please use ACC followed by 3 to 18 digits"
         );
         if (!accountManager.accountExists(accountNumber)) {
             print("Error: Account not found. Please check the account number and try again.");
@@ -241,9 +241,9 @@ public class AccountProcessHandler {
     }
     public void updateCustomerInfo() {
 
-        String accountNumber = readString("Enter account number to update (format: ACC###): ",
+        String accountNumber = readString("Enter account number to update (format: ACC followed by 3 to 18 digits): ",
                 isValidAccountNumber,
-                "Error: Invalid account number format. Please use format ACC###"
+                "Error: Invalid account number format. Please use ACC followed by 3 to 18 digits"
         );
         if (!accountManager.accountExists(accountNumber)) {
             print("Error: Account not found. Please check the account number and try again.");
@@ -277,10 +277,18 @@ public class AccountProcessHandler {
         return new CustomerData(name, age, contact, address);
     }
     public void searchAccount() {
+        print("Search By");
+        print("1. Account Number");
+        print("2. Customer Name or Phone Number");
+        int choice = getValidIntInput("Select option (1-2): ", 1, 2);
+        if (choice == 2) {
+            searchAccountsByCustomer();
+            return;
+        }
 
-        String accountNumber = readString("Enter account number to search (format: ACC###): ",
+        String accountNumber = readString("Enter account number to search (format: ACC followed by 3 to 18 digits): ",
                 isValidAccountNumber,
-                "Error: Invalid account number format. Please use format ACC###"
+                "Error: Invalid account number format. Please use ACC followed by 3 to 18 digits"
         );
         if (!accountManager.accountExists(accountNumber)) {
             print("Error: Account not found. Please check the account number and try again.");
@@ -308,6 +316,38 @@ public class AccountProcessHandler {
         pressEnterToContinue();
     }
 
+    private void searchAccountsByCustomer() {
+        String query = readString("Enter part of the customer name or phone number: ",
+                text -> text != null && !text.trim().isEmpty(),
+                "Error: Search text cannot be empty."
+        );
+        List<Account> matches = accountManager.searchAccounts(query, SEARCH_RESULT_LIMIT);
+        if (matches.isEmpty()) {
+            print("No accounts match \"" + query.trim() + "\".");
+            pressEnterToContinue();
+            return;
+        }
+
+        printHeader("SEARCH RESULTS");
+        printSeparator();
+        printf("%-21s | %-20s | %-15s | %-9s | %-12s%n",
+                "ACC NO", "CUSTOMER NAME", "PHONE", "TYPE", "BALANCE");
+        printSeparator();
+        for (Account account : matches) {
+            printf("%-21s | %-20s | %-15s | %-9s | $%,11.2f%n",
+                    account.getAccountNumber(),
+                    account.getCustomer().getName(),
+                    account.getCustomer().getContact(),
+                    account.getAccountType(),
+                    account.getBalance());
+        }
+        printSeparator();
+        if (matches.size() == SEARCH_RESULT_LIMIT) {
+            printf("Showing the best %d matches; refine the search to narrow them down.%n", SEARCH_RESULT_LIMIT);
+        }
+        pressEnterToContinue();
+    }
+
     private void displayAccountDetails(Account account) {
         print("\nAccount Details for Account Number :" + account.getAccountNumber());
         print("Account Number: " + account.getAccountNumber());
@@ -331,16 +371,9 @@ public class AccountProcessHandler {
 
 
     public void listAllAccounts() {
-       List<Account> savings = accountManager.getAccountsByType("savings");
-    List<Account> checking = accountManager.getAccountsByType("checking");
-    List<Account> all = new ArrayList<>();
-    all.addAll(savings);
-    all.addAll(checking);
-
-    // Sort accounts by account number (ascending)
-    all.sort(Comparator.comparing(Account::getAccountNumber));
-
-    if (all.isEmpty()) {
+    // Walk the account-number index a page at a time instead of copying and sorting every account
+    List<Account> page = accountManager.getAccountsPage(null, LIST_PAGE_SIZE);
+    if (page.isEmpty()) {
         print("No accounts available.");
         pressEnterToContinue();
         return;
@@ -348,16 +381,23 @@ public class AccountProcessHandler {
 
     printHeader("ALL ACCOUNTS");
     printSeparator();
-    printf("%-8s | %-15s | %-9s | %-10s | %-8s%n",
+    printf("%-21s | %-15s | %-9s | %-10s | %-8s%n",
             "ACC NO", "CUSTOMER NAME", "TYPE", "BALANCE", "STATUS");
     printSeparator();
-    for (Account acct : all) {
-        acct.displayAccountDetails();
-        printSeparator();
+    int total = 0;
+    long totalBalanceMinor = 0;
+    while (!page.isEmpty()) {
+        for (Account acct : page) {
+            acct.displayAccountDetails();
+            printSeparator();
+            total++;
+            totalBalanceMinor += acct.getBalanceMinor();
+        }
+        page = accountManager.getAccountsPage(page.get(page.size() - 1).getAccountNumber(), LIST_PAGE_SIZE);
     }
 
-    printf("Total Accounts: %d%n", all.size());
-    printf("Total Bank Balance: $%,.2f%n", all.stream().mapToDouble(Account::getBalance).sum());
+    printf("Total Accounts: %d%n", total);
+    print("Total Bank Balance: $" + Money.formatGrouped(totalBalanceMinor));
     pressEnterToContinue();
     }
 
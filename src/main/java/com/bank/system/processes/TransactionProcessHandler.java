@@ -98,9 +98,9 @@ public class TransactionProcessHandler {
     }
 
     public void performTransfer(String fromAccountNumber) throws InvalidAmountException {
-        String toAccountNumber = readString("Enter destination account number (format: ACC###): ",
+        String toAccountNumber = readString("Enter destination account number (format: ACC followed by 3 to 18 digits): ",
                 isValidAccountNumber,
-                "Error: Invalid account number format. Please use format ACC###"
+                "Error: Invalid account number format. Please use ACC followed by 3 to 18 digits"
         );
 
         if (!accountManager.accountExists(toAccountNumber)) {
@@ -186,8 +186,9 @@ public class TransactionProcessHandler {
         if (snapshot == null) {
             return;
         }
-        snapshot.removeFrom(transactionManager);
+        // Restore first: removing the transaction journals the account's balance at that moment
         account.setBalance(previousBalance);
+        snapshot.removeFrom(transactionManager);
     }
 
     private void rollbackTransactions(TransactionSnapshot fromSnapshot, TransactionSnapshot toSnapshot,
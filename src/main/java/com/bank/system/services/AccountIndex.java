@@ -0,0 +1,251 @@
+package com.bank.system.services;
+
+import com.bank.system.interfaces.BalanceListener;
+import com.bank.system.models.Account;
+import com.bank.system.models.Customer;
+import com.bank.system.utils.IdSequence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The accounts of one {@link AccountManager} generation, plus secondary indexes that are updated
+ * as accounts are added, removed or change balance:
+ * <ul>
+ *     <li>account number to account (hash lookup)</li>
+ *     <li>all accounts and each account type, ordered by account number</li>
+ *     <li>all accounts ordered by balance; {@link BalanceListener} only marks an account stale,
+ *     and balance queries move the stale entries before reading</li>
+ *     <li>customer name and contact search, see {@link CustomerSearchIndex}</li>
+ * </ul>
+ * The ordered indexes are concurrent skip lists, so ordered, top-N, range and paged queries cost
+ * O(log n) plus the size of the result.
+ */
+final class AccountIndex implements BalanceListener {
+    private static final Comparator<BalanceEntry> BALANCE_ORDER = Comparator
+            .comparingLong((BalanceEntry entry) -> entry.balanceMinor)
+            .thenComparing(entry -> entry.accountNumber, IdSequence.ID_ORDER);
+
+    private final ConcurrentHashMap<String, Account> byNumber = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Account> ordered = new ConcurrentSkipListMap<>(IdSequence.ID_ORDER);
+    private final Map<String, ConcurrentSkipListMap<String, Account>> byType = new ConcurrentHashMap<>();
+    // Ascending by balance; each account has exactly one entry, replaced when it is refreshed
+    private final ConcurrentSkipListSet<BalanceEntry> byBalance = new ConcurrentSkipListSet<>(BALANCE_ORDER);
+    private final ConcurrentHashMap<String, BalanceEntry> balanceEntries = new ConcurrentHashMap<>();
+    // Accounts whose balance changed since their entry was last placed
+    private final Set<String> staleBalances = ConcurrentHashMap.newKeySet();
+    private final CustomerSearchIndex customers = new CustomerSearchIndex();
+
+    /**
+     * Adds or replaces an account and starts tracking its balance. Callers serialize writes.
+     */
+    void add(Account account) {
+        String accountNumber = account.getAccountNumber();
+        Account previous = byNumber.put(accountNumber, account);
+        if (previous != null && previous != account) {
+            stopTracking(previous);
+            typeIndex(previous).remove(accountNumber);
+        }
+        ordered.put(accountNumber, account);
+        typeIndex(account).put(accountNumber, account);
+        customers.add(account);
+        account.setBalanceListener(this);
+        placeBalance(account);
+    }
+
+    Account remove(String accountNumber) {
+        Account removed = byNumber.remove(accountNumber);
+        if (removed == null) {
+            return null;
+        }
+        stopTracking(removed);
+        ordered.remove(accountNumber);
+        typeIndex(removed).remove(accountNumber);
+        customers.remove(accountNumber);
+        staleBalances.remove(accountNumber);
+        balanceEntries.compute(accountNumber, (key, entry) -> {
+            if (entry != null) {
+                byBalance.remove(entry);
+            }
+            return null;
+        });
+        return removed;
+    }
+
+    private void stopTracking(Account account) {
+        if (account.getBalanceListener() == this) {
+            account.setBalanceListener(null);
+        }
+    }
+
+    /**
+     * Runs on every balance update, so it only marks the account for the next balance query. For
+     * an account already marked that is a lock-free lookup that allocates nothing.
+     */
+    @Override
+    public void balanceChanged(Account account) {
+        staleBalances.add(account.getAccountNumber());
+    }
+
+    // Unmarks before reading balances, so a change racing with the refresh marks the account again
+    private void refreshBalances() {
+        if (staleBalances.isEmpty()) {
+            return;
+        }
+        Iterator<String> stale = staleBalances.iterator();
+        while (stale.hasNext()) {
+            String accountNumber = stale.next();
+            stale.remove();
+            Account account = byNumber.get(accountNumber);
+            if (account != null) {
+                placeBalance(account);
+            }
+        }
+    }
+
+    /**
+     * Moves the account's balance entry. Runs under the per-key lock of {@code balanceEntries} and
+     * reads the balance there, so racing refreshes for one account cannot leave a stale entry.
+     */
+    private void placeBalance(Account account) {
+        balanceEntries.compute(account.getAccountNumber(), (accountNumber, entry) -> {
+            // The account was removed or replaced since it was looked up
+            if (byNumber.get(accountNumber) != account) {
+                return entry;
+            }
+            long balanceMinor = account.getBalanceMinor();
+            if (entry != null && entry.account == account && entry.balanceMinor == balanceMinor) {
+                return entry;
+            }
+            if (entry != null) {
+                byBalance.remove(entry);
+            }
+            BalanceEntry updated = new BalanceEntry(balanceMinor, accountNumber, account);
+            byBalance.add(updated);
+            return updated;
+        });
+    }
+
+    /**
+     * Refreshes the search entries of every account held by this customer after it was edited.
+     */
+    void customerChanged(Customer customer) {
+        customers.reindexCustomer(customer);
+    }
+
+    private ConcurrentSkipListMap<String, Account> typeIndex(Account account) {
+        return byType.computeIfAbsent(typeKey(account.getAccountType()),
+                key -> new ConcurrentSkipListMap<>(IdSequence.ID_ORDER));
+    }
+
+    private static String typeKey(String accountType) {
+        return accountType == null ? "" : accountType.toLowerCase(Locale.ROOT);
+    }
+
+    // Queries
+
+    Account get(String accountNumber) {
+        return byNumber.get(accountNumber);
+    }
+
+    boolean contains(String accountNumber) {
+        return byNumber.containsKey(accountNumber);
+    }
+
+    Map<String, Account> asMap() {
+        return Collections.unmodifiableMap(byNumber);
+    }
+
+    Collection<Account> accounts() {
+        return Collections.unmodifiableCollection(byNumber.values());
+    }
+
+    List<Account> byNumber() {
+        return new ArrayList<>(ordered.values());
+    }
+
+    List<Account> byType(String accountType) {
+        ConcurrentSkipListMap<String, Account> accounts = byType.get(typeKey(accountType));
+        return accounts == null ? new ArrayList<>() : new ArrayList<>(accounts.values());
+    }
+
+    /**
+     * Up to {@code limit} accounts ordered by number, starting after {@code afterAccountNumber}
+     * (or from the first account when it is null).
+     */
+    List<Account> page(String afterAccountNumber, int limit) {
+        Collection<Account> tail = afterAccountNumber == null
+                ? ordered.values()
+                : ordered.tailMap(afterAccountNumber, false).values();
+        return take(tail, limit);
+    }
+
+    List<Account> byBalanceDescending(int limit) {
+        refreshBalances();
+        List<Account> accounts = new ArrayList<>();
+        for (BalanceEntry entry : byBalance.descendingSet()) {
+            if (accounts.size() == limit) {
+                break;
+            }
+            accounts.add(entry.account);
+        }
+        return accounts;
+    }
+
+    /**
+     * Accounts whose balance lies in {@code [minMinor, maxMinor]}, ascending by balance.
+     */
+    List<Account> inBalanceRange(long minMinor, long maxMinor) {
+        if (minMinor > maxMinor) {
+            return new ArrayList<>();
+        }
+        refreshBalances();
+        // "" sorts before every account number and null after, so these probes bracket the range
+        NavigableSet<BalanceEntry> range = byBalance.subSet(
+                new BalanceEntry(minMinor, "", null), true,
+                new BalanceEntry(maxMinor, null, null), true);
+        List<Account> accounts = new ArrayList<>();
+        for (BalanceEntry entry : range) {
+            accounts.add(entry.account);
+        }
+        return accounts;
+    }
+
+    List<Account> searchCustomers(String query, int limit) {
+        return customers.search(query, limit);
+    }
+
+    private static List<Account> take(Collection<Account> accounts, int limit) {
+        List<Account> page = new ArrayList<>(Math.min(limit, 64));
+        for (Account account : accounts) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(account);
+        }
+        return page;
+    }
+
+    private static final class BalanceEntry {
+        private final long balanceMinor;
+        private final String accountNumber;
+        private final Account account;
+
+        private BalanceEntry(long balanceMinor, String accountNumber, Account account) {
+            this.balanceMinor = balanceMinor;
+            this.accountNumber = accountNumber;
+            this.account = account;
+        }
+    }
+}
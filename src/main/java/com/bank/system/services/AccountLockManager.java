@@ -0,0 +1,182 @@
+package com.bank.system.services;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks keyed by account number. Every account maps onto one of a fixed set of
+ * {@link ReentrantLock}s; multi-account operations take their stripes in ascending index order
+ * so they cannot deadlock. Acquisition is bounded by a timeout with randomized exponential
+ * backoff between attempts, and contention is counted per stripe to help size the table.
+ */
+public class AccountLockManager {
+    public static final int DEFAULT_STRIPES = 64;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 2_000;
+
+    private static final long ATTEMPT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long BASE_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final long timeoutNanos;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contendedAcquisitions = new LongAdder();
+    private final LongAdder backoffs = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final AtomicLongArray stripeContention;
+
+    public AccountLockManager() {
+        this(DEFAULT_STRIPES, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param stripes       number of locks, rounded up to a power of two
+     * @param timeoutMillis how long an acquisition may wait before giving up
+     */
+    public AccountLockManager(int stripes, long timeoutMillis) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be greater than 0");
+        }
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.stripeContention = new AtomicLongArray(size);
+    }
+
+    public int stripeFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    /**
+     * Locks the stripes covering the given accounts. Returns null if they could not all be taken
+     * before the timeout; otherwise the caller must close the returned handle.
+     */
+    public Held acquire(String... accountNumbers) {
+        int[] stripes = orderedStripes(accountNumbers);
+        long deadline = System.nanoTime() + timeoutNanos;
+        int attempt = 0;
+
+        while (true) {
+            int acquired = tryAcquireInOrder(stripes, deadline);
+            if (acquired == stripes.length) {
+                acquisitions.increment();
+                return new Held(stripes);
+            }
+            release(stripes, acquired);
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                timeouts.increment();
+                return null;
+            }
+            backoffs.increment();
+            long ceiling = Math.min(MAX_BACKOFF_NANOS, BASE_BACKOFF_NANOS << Math.min(attempt++, 16));
+            LockSupport.parkNanos(Math.min(remaining, ThreadLocalRandom.current().nextLong(ceiling) + 1));
+        }
+    }
+
+    private int tryAcquireInOrder(int[] stripes, long deadline) {
+        for (int i = 0; i < stripes.length; i++) {
+            ReentrantLock lock = locks[stripes[i]];
+            if (lock.tryLock()) {
+                continue;
+            }
+            contendedAcquisitions.increment();
+            stripeContention.incrementAndGet(stripes[i]);
+            long wait = Math.min(ATTEMPT_NANOS, deadline - System.nanoTime());
+            try {
+                if (wait <= 0 || !lock.tryLock(wait, TimeUnit.NANOSECONDS)) {
+                    return i;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return i;
+            }
+        }
+        return stripes.length;
+    }
+
+    private void release(int[] stripes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            locks[stripes[i]].unlock();
+        }
+    }
+
+    private int[] orderedStripes(String... accountNumbers) {
+        int[] stripes = new int[accountNumbers.length];
+        for (int i = 0; i < accountNumbers.length; i++) {
+            stripes[i] = stripeFor(accountNumbers[i]);
+        }
+        Arrays.sort(stripes);
+        // Two accounts may share a stripe; lock it once
+        int unique = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            if (i == 0 || stripes[i] != stripes[i - 1]) {
+                stripes[unique++] = stripes[i];
+            }
+        }
+        return unique == stripes.length ? stripes : Arrays.copyOf(stripes, unique);
+    }
+
+    // Contention counters
+
+    public int getStripeCount() {
+        return locks.length;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getContendedAcquisitions() {
+        return contendedAcquisitions.sum();
+    }
+
+    public long getBackoffs() {
+        return backoffs.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getStripeContention(int stripe) {
+        return stripeContention.get(stripe);
+    }
+
+    /**
+     * Lock handle for try-with-resources; closing releases every stripe it holds.
+     */
+    public final class Held implements AutoCloseable {
+        private final int[] stripes;
+        private boolean released;
+
+        private Held(int[] stripes) {
+            this.stripes = stripes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(stripes, stripes.length);
+            }
+        }
+    }
+}
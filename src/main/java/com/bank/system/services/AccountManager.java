@@ -1,45 +1,68 @@
 package com.bank.system.services;
 
 import com.bank.system.models.Account;
-import com.bank.system.models.CheckingAccount;
 import com.bank.system.models.Customer;
-import com.bank.system.models.SavingsAccount;
+import com.bank.system.models.Money;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import static com.bank.system.utils.ConsoleUtil.*;
 
 
+/**
+ * Registry of open accounts. Lookups read a volatile {@link AccountIndex} without locking.
+ * Writers are serialized so that a bulk load or replace can build a new index off to the side
+ * and publish it in one volatile write. Readers therefore see either none or all of a loaded
+ * file. The index also keeps accounts ordered by number, by type and by balance.
+ */
 public class AccountManager {
-    private final Map<String, Account> accounts;
+    private volatile AccountIndex accounts;
     private int nextAccountId = 1;
 
     public AccountManager() {
-        this.accounts = new HashMap<>();
+        this.accounts = new AccountIndex();
     }
 
     // Method to add an account
-    public boolean addAccount(Account account) {
+    public synchronized boolean addAccount(Account account) {
         if (account == null || account.getAccountNumber() == null) {
             return false;
         }
-        accounts.put(account.getAccountNumber(), account);
+        accounts.add(account);
         return true;
     }
 
+    /**
+     * Adds or overwrites all the given accounts as one step, e.g. after loading from disk.
+     */
+    public synchronized void putAll(Map<String, Account> loadedAccounts) {
+        AccountIndex merged = new AccountIndex();
+        accounts.accounts().forEach(merged::add);
+        loadedAccounts.values().forEach(merged::add);
+        accounts = merged;
+    }
+
+    /**
+     * Replaces the whole registry with the given accounts as one step.
+     */
+    public synchronized void replaceAll(Map<String, Account> newAccounts) {
+        AccountIndex replacement = new AccountIndex();
+        newAccounts.values().forEach(replacement::add);
+        accounts = replacement;
+    }
+
     // Method to find an account by account number
     public Account findAccount(String accountNumber) {
         return accounts.get(accountNumber);
     }
 
+    /**
+     * Weakly consistent, read-only view; safe to iterate while accounts are added or removed.
+     */
     public Collection<Account> getAllAccounts() {
-        return accounts.values();
+        return accounts.accounts();
     }
 
 
@@ -54,7 +77,7 @@ public class AccountManager {
     }
 
     public boolean accountExists(String accountNumber) {
-        return accounts.containsKey(accountNumber);
+        return accounts.contains(accountNumber);
     }
 
 
@@ -83,25 +106,50 @@ public class AccountManager {
      * Gets accounts sorted by balance (descending)
      */
     public List<Account> getAccountsSortedByBalance() {
-        return accounts.values().stream()
-                .sorted((a, b) -> Double.compare(b.getBalance(), a.getBalance()))
-                .collect(Collectors.toList());
+        return accounts.byBalanceDescending(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Gets the {@code limit} accounts with the highest balances, highest first
+     */
+    public List<Account> getTopAccountsByBalance(int limit) {
+        return accounts.byBalanceDescending(limit);
+    }
+
+    /**
+     * Gets accounts with a balance between min and max inclusive, lowest first
+     */
+    public List<Account> getAccountsInBalanceRange(double minBalance, double maxBalance) {
+        return accounts.inBalanceRange(Money.ofMajor(minBalance), Money.ofMajor(maxBalance));
+    }
+
+    /**
+     * Gets all accounts sorted by account number
+     */
+    public List<Account> getAccountsSortedByNumber() {
+        return accounts.byNumber();
+    }
+
+    /**
+     * Gets the next page of accounts by account number, after the last one of the previous page
+     * (null for the first page)
+     */
+    public List<Account> getAccountsPage(String afterAccountNumber, int pageSize) {
+        return accounts.page(afterAccountNumber, pageSize);
+    }
+
+    /**
+     * Finds accounts by partial customer name or contact number, best match first
+     */
+    public List<Account> searchAccounts(String query, int limit) {
+        return accounts.searchCustomers(query, limit);
     }
 
     /**
-     * Gets accounts by account type
+     * Gets accounts by account type ("savings" or "checking"), sorted by account number
      */
     public List<Account> getAccountsByType(String accountType) {
-        return accounts.values().stream()
-                .filter(account -> {
-                    if ("savings".equalsIgnoreCase(accountType)) {
-                        return account instanceof SavingsAccount;
-                    } else if ("checking".equalsIgnoreCase(accountType)) {
-                        return account instanceof CheckingAccount;
-                    }
-                    return false;
-                })
-                .toList();
+        return accounts.byType(accountType);
     }
 
     /**
@@ -115,13 +163,17 @@ public class AccountManager {
             customer.setContact(contact);
             customer.setAddress(address);
             customer.setAge(age);
+            accounts.customerChanged(customer);
             return true;
         }
         return false;
     }
 
+    /**
+     * Read-only view of the registry as of this call; use {@link #putAll} or {@link #replaceAll} to change it.
+     */
     public Map<String, Account> getAccountsMap() {
-        return accounts;
+        return accounts.asMap();
     }
 
 
@@ -0,0 +1,370 @@
+package com.bank.system.services;
+
+import com.bank.system.enums.TransactionType;
+import com.bank.system.models.Transaction;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary alternative to transactions.txt: a header followed by fixed-size little-endian records,
+ * memory-mapped. Record {@code i} starts at {@code HEADER_SIZE + i * RECORD_SIZE}, so a
+ * transaction is read by ordinal without scanning, and a {@link Cursor} reads fields straight
+ * from the mapping without building a String or Transaction per row.
+ *
+ * <pre>
+ * header   0 magic "BTXL"   4 version   8 record size (ints)   16 record count (long)
+ * record   0 sequence   8 amount   16 balance after   24 epoch millis (longs)
+ *         32 type ordinal   33 account number length   34..63 account number (ASCII)
+ * </pre>
+ *
+ * <p>Only rows with a generated ID, a parseable timestamp, a known type and an ASCII account
+ * number of at most {@value #MAX_ACCOUNT_LENGTH} characters fit; see {@link #fits(Transaction)}.
+ * Not thread-safe: one writer, or any number of readers once writing is done.</p>
+ */
+public final class BinaryTransactionLog implements AutoCloseable {
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 64;
+    public static final int MAX_ACCOUNT_LENGTH = 30;
+
+    private static final int MAGIC = 0x4C585442;
+    private static final int VERSION = 1;
+    private static final long COUNT_OFFSET = 16;
+    private static final long AMOUNT_OFFSET = 8;
+    private static final long BALANCE_OFFSET = 16;
+    private static final long TIMESTAMP_OFFSET = 24;
+    private static final long TYPE_OFFSET = 32;
+    private static final long ACCOUNT_LENGTH_OFFSET = 33;
+    private static final long ACCOUNT_OFFSET = 34;
+    private static final long INITIAL_CAPACITY = 1024;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final boolean writable;
+    private Arena arena;
+    private MemorySegment mapping;
+    private long capacity;
+    private long size;
+
+    private BinaryTransactionLog(Path file, FileChannel channel, boolean writable) {
+        this.file = file;
+        this.channel = channel;
+        this.writable = writable;
+    }
+
+    /**
+     * Maps an existing log read-only.
+     */
+    public static BinaryTransactionLog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        BinaryTransactionLog log = new BinaryTransactionLog(file, channel, false);
+        try {
+            long length = channel.size();
+            if (length < HEADER_SIZE) {
+                throw new IOException("Not a binary transaction log: " + file);
+            }
+            log.map((length - HEADER_SIZE) / RECORD_SIZE);
+            log.readHeader();
+            return log;
+        } catch (IOException | RuntimeException e) {
+            log.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates an empty log, replacing any file at that path. The file grows as records are
+     * appended and is trimmed to its records on {@link #close()}.
+     */
+    public static BinaryTransactionLog create(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        BinaryTransactionLog log = new BinaryTransactionLog(file, channel, true);
+        try {
+            log.map(INITIAL_CAPACITY);
+            log.mapping.set(INT, 0, MAGIC);
+            log.mapping.set(INT, 4, VERSION);
+            log.mapping.set(INT, 8, RECORD_SIZE);
+            log.mapping.set(LONG, COUNT_OFFSET, 0);
+            return log;
+        } catch (IOException | RuntimeException e) {
+            log.release();
+            throw e;
+        }
+    }
+
+    // A read-write mapping past the end of the file extends the file to cover it
+    private void map(long records) throws IOException {
+        if (arena != null) {
+            arena.close();
+        }
+        arena = Arena.ofShared();
+        capacity = records;
+        mapping = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                0, HEADER_SIZE + records * RECORD_SIZE, arena);
+    }
+
+    private void readHeader() throws IOException {
+        if (mapping.get(INT, 0) != MAGIC) {
+            throw new IOException("Not a binary transaction log: " + file);
+        }
+        if (mapping.get(INT, 4) != VERSION || mapping.get(INT, 8) != RECORD_SIZE) {
+            throw new IOException("Unsupported binary transaction log version in " + file);
+        }
+        size = mapping.get(LONG, COUNT_OFFSET);
+        if (size < 0 || size > capacity) {
+            throw new IOException("Binary transaction log " + file + " is truncated: header counts "
+                    + size + " records, file holds " + capacity);
+        }
+    }
+
+    /**
+     * Whether the binary format can hold this transaction exactly.
+     */
+    public static boolean fits(Transaction transaction) {
+        return Transaction.parseSequence(transaction.getTransactionId()) != Transaction.NO_SEQUENCE
+                && transaction.getEpochMillis() != Transaction.NO_TIMESTAMP
+                && typeOf(transaction.getType()) != null
+                && fitsAccount(transaction.getAccountNumber());
+    }
+
+    private static TransactionType typeOf(String name) {
+        for (TransactionType type : TYPES) {
+            if (type.name().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static boolean fitsAccount(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() > MAX_ACCOUNT_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < accountNumber.length(); i++) {
+            if (accountNumber.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void append(Transaction transaction) {
+        if (!fits(transaction)) {
+            throw new IllegalArgumentException("Transaction " + transaction.getTransactionId()
+                    + " cannot be stored in the binary format");
+        }
+        append(Transaction.parseSequence(transaction.getTransactionId()), transaction.getAccountNumber(),
+                typeOf(transaction.getType()), transaction.getAmountMinor(), transaction.getBalanceAfterMinor(),
+                transaction.getEpochMillis());
+    }
+
+    /**
+     * Appends a record and returns its ordinal. The header count is updated with every record,
+     * so a reader never sees a partly written one.
+     */
+    public long append(long sequence, String accountNumber, TransactionType type,
+                       long amountMinor, long balanceAfterMinor, long epochMillis) {
+        if (!writable) {
+            throw new IllegalStateException("Binary transaction log " + file + " is open read-only");
+        }
+        if (!fitsAccount(accountNumber)) {
+            throw new IllegalArgumentException("Account number cannot be stored in the binary format: " + accountNumber);
+        }
+        if (size == capacity) {
+            try {
+                map(capacity * 2);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not grow binary transaction log " + file + ": " + e.getMessage(), e);
+            }
+        }
+        long offset = HEADER_SIZE + size * RECORD_SIZE;
+        mapping.set(LONG, offset, sequence);
+        mapping.set(LONG, offset + AMOUNT_OFFSET, amountMinor);
+        mapping.set(LONG, offset + BALANCE_OFFSET, balanceAfterMinor);
+        mapping.set(LONG, offset + TIMESTAMP_OFFSET, epochMillis);
+        mapping.set(ValueLayout.JAVA_BYTE, offset + TYPE_OFFSET, (byte) type.ordinal());
+        mapping.set(ValueLayout.JAVA_BYTE, offset + ACCOUNT_LENGTH_OFFSET, (byte) accountNumber.length());
+        for (int i = 0; i < accountNumber.length(); i++) {
+            mapping.set(ValueLayout.JAVA_BYTE, offset + ACCOUNT_OFFSET + i, (byte) accountNumber.charAt(i));
+        }
+        mapping.set(LONG, COUNT_OFFSET, size + 1);
+        return size++;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Field accessors by ordinal, 0 to size() - 1
+
+    public long sequenceAt(long ordinal) {
+        return mapping.get(LONG, offsetOf(ordinal));
+    }
+
+    public String transactionIdAt(long ordinal) {
+        return Transaction.formatId(sequenceAt(ordinal));
+    }
+
+    public String accountNumberAt(long ordinal) {
+        return readAccount(offsetOf(ordinal));
+    }
+
+    public TransactionType typeAt(long ordinal) {
+        return TYPES[mapping.get(ValueLayout.JAVA_BYTE, offsetOf(ordinal) + TYPE_OFFSET)];
+    }
+
+    public long amountAt(long ordinal) {
+        return mapping.get(LONG, offsetOf(ordinal) + AMOUNT_OFFSET);
+    }
+
+    public long balanceAfterAt(long ordinal) {
+        return mapping.get(LONG, offsetOf(ordinal) + BALANCE_OFFSET);
+    }
+
+    public long timestampAt(long ordinal) {
+        return mapping.get(LONG, offsetOf(ordinal) + TIMESTAMP_OFFSET);
+    }
+
+    public Transaction get(long ordinal) {
+        return toTransaction(offsetOf(ordinal));
+    }
+
+    private long offsetOf(long ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("Ordinal " + ordinal + " is outside 0.." + (size - 1));
+        }
+        return HEADER_SIZE + ordinal * RECORD_SIZE;
+    }
+
+    private String readAccount(long offset) {
+        int length = mapping.get(ValueLayout.JAVA_BYTE, offset + ACCOUNT_LENGTH_OFFSET);
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(mapping, ValueLayout.JAVA_BYTE, offset + ACCOUNT_OFFSET, bytes, 0, length);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private Transaction toTransaction(long offset) {
+        return Transaction.ofMinorUnits(Transaction.formatId(mapping.get(LONG, offset)), readAccount(offset),
+                TYPES[mapping.get(ValueLayout.JAVA_BYTE, offset + TYPE_OFFSET)].name(),
+                mapping.get(LONG, offset + AMOUNT_OFFSET), mapping.get(LONG, offset + BALANCE_OFFSET),
+                mapping.get(LONG, offset + TIMESTAMP_OFFSET));
+    }
+
+    /**
+     * A forward scan over the records present when it is created.
+     */
+    public Cursor cursor() {
+        return new Cursor(size);
+    }
+
+    /**
+     * Forces appended records to disk.
+     */
+    public void sync() {
+        if (writable) {
+            mapping.force();
+        }
+    }
+
+    /**
+     * Syncs and unmaps the log; a writable log is trimmed to its records first.
+     */
+    @Override
+    public void close() throws IOException {
+        if (arena == null) {
+            return;
+        }
+        try {
+            sync();
+            arena.close();
+            arena = null;
+            if (writable) {
+                channel.truncate(HEADER_SIZE + size * RECORD_SIZE);
+            }
+        } finally {
+            release();
+        }
+    }
+
+    private void release() throws IOException {
+        if (arena != null) {
+            arena.close();
+            arena = null;
+        }
+        channel.close();
+    }
+
+    /**
+     * Reads each record's fields in place; only {@link #accountNumber()} and
+     * {@link #toTransaction()} allocate.
+     */
+    public final class Cursor {
+        private final long end;
+        private long ordinal = -1;
+        private long offset;
+
+        private Cursor(long end) {
+            this.end = end;
+        }
+
+        public boolean next() {
+            if (ordinal + 1 >= end) {
+                return false;
+            }
+            ordinal++;
+            offset = HEADER_SIZE + ordinal * RECORD_SIZE;
+            return true;
+        }
+
+        public long ordinal() {
+            return ordinal;
+        }
+
+        public long sequence() {
+            return mapping.get(LONG, offset);
+        }
+
+        public TransactionType type() {
+            return TYPES[mapping.get(ValueLayout.JAVA_BYTE, offset + TYPE_OFFSET)];
+        }
+
+        public long amountMinor() {
+            return mapping.get(LONG, offset + AMOUNT_OFFSET);
+        }
+
+        public long balanceAfterMinor() {
+            return mapping.get(LONG, offset + BALANCE_OFFSET);
+        }
+
+        public long epochMillis() {
+            return mapping.get(LONG, offset + TIMESTAMP_OFFSET);
+        }
+
+        public String accountNumber() {
+            return readAccount(offset);
+        }
+
+        public Transaction toTransaction() {
+            return BinaryTransactionLog.this.toTransaction(offset);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.bank.system.services;
+
+import com.bank.system.models.Account;
+import com.bank.system.models.Customer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory search over customer names and contact numbers.
+ *
+ * <p>Every indexed account gets posting-list keys:</p>
+ * <ul>
+ *     <li>each prefix (up to {@value #MAX_PREFIX} characters) of each lower-cased name word</li>
+ *     <li>each trigram of the whole name</li>
+ *     <li>each prefix and trigram of the contact number reduced to digits</li>
+ * </ul>
+ * A query looks up its rarest key to get candidates, checks each candidate against the stored
+ * normalized text, then ranks them: exact match first, then prefix matches, then substring
+ * matches. Lookups cost the size of the smallest posting list rather than a scan over all
+ * customers.
+ *
+ * <p>Writes must be serialized by the caller. Reads may run concurrently with them.</p>
+ */
+public class CustomerSearchIndex {
+    static final int MAX_PREFIX = 12;
+    private static final int GRAM = 3;
+
+    private static final int EXACT = 300;
+    private static final int PREFIX = 200;
+    private static final int SUBSTRING = 100;
+
+    private static final String NAME_PREFIX_KEY = "n:";
+    private static final String NAME_GRAM_KEY = "N:";
+    private static final String PHONE_PREFIX_KEY = "p:";
+    private static final String PHONE_GRAM_KEY = "P:";
+
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Accounts sharing one customer, so a customer update can reindex all of them
+    private final Map<String, Set<String>> accountsByCustomer = new ConcurrentHashMap<>();
+
+    public void add(Account account) {
+        remove(account.getAccountNumber());
+        Customer customer = account.getCustomer();
+        Entry entry = new Entry(account, normalizeName(customer.getName()), normalizePhone(customer.getContact()));
+        for (String key : entry.keys) {
+            postings.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry.accountNumber);
+        }
+        entries.put(entry.accountNumber, entry);
+        accountsByCustomer.computeIfAbsent(customer.getCustomerId(), k -> ConcurrentHashMap.newKeySet())
+                .add(entry.accountNumber);
+    }
+
+    public void remove(String accountNumber) {
+        Entry entry = entries.remove(accountNumber);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys) {
+            Set<String> accounts = postings.get(key);
+            if (accounts != null) {
+                accounts.remove(accountNumber);
+                if (accounts.isEmpty()) {
+                    postings.remove(key, accounts);
+                }
+            }
+        }
+        Set<String> siblings = accountsByCustomer.get(entry.customerId);
+        if (siblings != null) {
+            siblings.remove(accountNumber);
+            if (siblings.isEmpty()) {
+                accountsByCustomer.remove(entry.customerId, siblings);
+            }
+        }
+    }
+
+    /**
+     * Re-reads the name and contact of every account held by this customer.
+     */
+    public void reindexCustomer(Customer customer) {
+        Set<String> accountNumbers = accountsByCustomer.get(customer.getCustomerId());
+        if (accountNumbers == null) {
+            return;
+        }
+        for (String accountNumber : new ArrayList<>(accountNumbers)) {
+            Entry entry = entries.get(accountNumber);
+            if (entry != null) {
+                add(entry.account);
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} accounts whose customer name or contact number matches the
+     * query, best match first. Queries made of digits (optionally with +, spaces or dashes) search
+     * contact numbers; anything else searches names word by word.
+     */
+    public List<Account> search(String query, int limit) {
+        if (query == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String phone = normalizePhone(query);
+        boolean phoneQuery = !phone.isEmpty() && phone.length() == query.replaceAll("[\\s+()-]", "").length();
+        return phoneQuery ? searchPhone(phone, limit) : searchName(normalizeName(query), limit);
+    }
+
+    private List<Account> searchPhone(String digits, int limit) {
+        Set<String> candidates = digits.length() < GRAM
+                ? postings.get(PHONE_PREFIX_KEY + digits)
+                : smallestPosting(grams(PHONE_GRAM_KEY, digits));
+        return rank(candidates, limit, entry -> {
+            if (entry.phone.equals(digits)) {
+                return EXACT;
+            }
+            if (entry.phone.startsWith(digits)) {
+                return PREFIX;
+            }
+            return entry.phone.contains(digits) ? SUBSTRING : 0;
+        });
+    }
+
+    private List<Account> searchName(String name, int limit) {
+        String[] words = words(name);
+        if (words.length == 0) {
+            return Collections.emptyList();
+        }
+        // Narrow with the word whose key is rarest, then verify every word against the candidate
+        Set<String> candidates = null;
+        for (String word : words) {
+            Set<String> posting = word.length() <= MAX_PREFIX
+                    ? postings.get(NAME_PREFIX_KEY + word)
+                    : smallestPosting(grams(NAME_GRAM_KEY, word));
+            if (posting == null || posting.isEmpty()) {
+                candidates = null;
+                break;
+            }
+            if (candidates == null || posting.size() < candidates.size()) {
+                candidates = posting;
+            }
+        }
+        if (candidates == null && name.length() >= GRAM) {
+            // No word starts that way; fall back to substring matches anywhere in the name
+            candidates = smallestPosting(grams(NAME_GRAM_KEY, name));
+        }
+        return rank(candidates, limit, entry -> scoreName(entry, name, words));
+    }
+
+    private static int scoreName(Entry entry, String name, String[] words) {
+        if (entry.name.equals(name)) {
+            return EXACT;
+        }
+        int score = PREFIX;
+        String[] nameWords = words(entry.name);
+        for (int i = 0; i < words.length; i++) {
+            int position = indexOfWordWithPrefix(nameWords, words[i]);
+            if (position < 0) {
+                return entry.name.contains(name) ? SUBSTRING : 0;
+            }
+            // Words matched in the same place, e.g. first name to first name, rank higher
+            if (position == i) {
+                score += 10;
+            }
+        }
+        return Math.min(score, EXACT - 1);
+    }
+
+    private static int indexOfWordWithPrefix(String[] nameWords, String prefix) {
+        for (int i = 0; i < nameWords.length; i++) {
+            if (nameWords[i].startsWith(prefix)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<Account> rank(Set<String> candidates, int limit, Scorer scorer) {
+        if (candidates == null || candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Comparator<Scored> order = Comparator.comparingInt((Scored scored) -> scored.score)
+                .thenComparing((Scored scored) -> scored.entry.name, Comparator.reverseOrder());
+        // Min-heap of the best `limit` so far; the weakest result sits on top
+        PriorityQueue<Scored> best = new PriorityQueue<>(order);
+        for (String accountNumber : candidates) {
+            Entry entry = entries.get(accountNumber);
+            if (entry == null) {
+                continue;
+            }
+            int score = scorer.score(entry);
+            if (score <= 0) {
+                continue;
+            }
+            best.add(new Scored(entry, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Account> results = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            results.add(best.poll().entry.account);
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    private Set<String> smallestPosting(Set<String> keys) {
+        Set<String> smallest = null;
+        for (String key : keys) {
+            Set<String> posting = postings.get(key);
+            if (posting == null || posting.isEmpty()) {
+                return null;
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    static String normalizePhone(String contact) {
+        if (contact == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(contact.length());
+        for (int i = 0; i < contact.length(); i++) {
+            char c = contact.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static String[] words(String normalizedName) {
+        return normalizedName.isEmpty() ? new String[0] : normalizedName.split("[ '-]+");
+    }
+
+    private static Set<String> grams(String keyPrefix, String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(keyPrefix + text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static Set<String> prefixes(String keyPrefix, String word) {
+        Set<String> prefixes = new HashSet<>();
+        for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX); length++) {
+            prefixes.add(keyPrefix + word.substring(0, length));
+        }
+        return prefixes;
+    }
+
+    private interface Scorer {
+        int score(Entry entry);
+    }
+
+    private record Scored(Entry entry, int score) {
+    }
+
+    private static final class Entry {
+        private final Account account;
+        private final String accountNumber;
+        private final String customerId;
+        private final String name;
+        private final String phone;
+        private final Set<String> keys = new HashSet<>();
+
+        private Entry(Account account, String name, String phone) {
+            this.account = account;
+            this.accountNumber = account.getAccountNumber();
+            this.customerId = account.getCustomer().getCustomerId();
+            this.name = name;
+            this.phone = phone;
+            for (String word : words(name)) {
+                keys.addAll(prefixes(NAME_PREFIX_KEY, word));
+            }
+            keys.addAll(grams(NAME_GRAM_KEY, name));
+            keys.addAll(prefixes(PHONE_PREFIX_KEY, phone));
+            keys.addAll(grams(PHONE_GRAM_KEY, phone));
+        }
+    }
+}
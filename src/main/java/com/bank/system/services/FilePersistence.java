@@ -1,40 +1,139 @@
 package com.bank.system.services;
 
+import com.bank.system.enums.ExecutionMode;
+import com.bank.system.enums.TransactionType;
 import com.bank.system.models.*;
+import com.bank.system.utils.CallTimer;
+import com.bank.system.utils.DelimitedRecordParser;
+import com.bank.system.utils.IdSequence;
+import com.bank.system.utils.TaskExecutors;
 import static com.bank.system.utils.ValidationUtils.*;
 import static com.bank.system.utils.ConsoleUtil.*;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 
 public class FilePersistence {
-    private static final String ACCOUNTS_FILE = "data/accounts.txt";
-    private static final String TRANSACTIONS_FILE = "data/transactions.txt";
+    private static final String DATA_DIRECTORY = "data";
     private static final String DELIMITER = "|";
     private static final int ACCOUNT_FIELDS = 8;
     private static final int TRANSACTION_FIELDS = 6;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final int SNAPSHOT_MAGIC = 0x534E4150;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOTS_KEPT = 2;
+    // A snapshot remembers a checksum of the journal bytes just before its offset, to notice
+    // when the file was rewritten rather than appended to since
+    private static final int JOURNAL_ANCHOR_BYTES = 4096;
+    // Where the journal started appending to the transactions file; lines before it may be in
+    // the ID order older saves wrote, so only the lines after it say which balance is the latest
+    private static final String JOURNAL_START_FILE = "journal.start";
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+    private static final String[] KNOWN_TRANSACTION_TYPES = Stream.of(
+                    Arrays.stream(TRANSACTION_TYPES).map(TransactionType::name),
+                    Stream.of(TransactionJournal.VOID_TYPE),
+                    Arrays.stream(TRANSACTION_TYPES).map(TransactionJournal::voidType))
+            .flatMap(types -> types)
+            .toArray(String[]::new);
+    // Loads parse on several threads at once; each keeps its own field offsets
+    private static final ThreadLocal<DelimitedRecordParser> ACCOUNT_PARSER =
+            ThreadLocal.withInitial(() -> new DelimitedRecordParser(DELIMITER.charAt(0), ACCOUNT_FIELDS));
+    private static final ThreadLocal<DelimitedRecordParser> TRANSACTION_PARSER =
+            ThreadLocal.withInitial(() -> new DelimitedRecordParser(DELIMITER.charAt(0), TRANSACTION_FIELDS));
+    // Transactions files are parsed in parallel chunks of this many bytes, ending on a line break;
+    // the upper bound also caps how much of the file is held in memory at once
+    private static final long MIN_LOAD_CHUNK_BYTES = 256 * 1024;
+    private static final long MAX_LOAD_CHUNK_BYTES = 4 * 1024 * 1024;
+    // Chunks are parsed on a pool of their own, leaving a core for the merge and the accounts load
+    private static final int LOAD_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private final Path dataDirectory;
+    private final Path accountsFile;
+    private final Path transactionsFile;
+    private final Path journalStartFile;
+    private final CallTimer accountsLoadTimer = new CallTimer();
+    private final CallTimer accountsSaveTimer = new CallTimer();
+    private final CallTimer transactionsLoadTimer = new CallTimer();
+    private final CallTimer transactionsSaveTimer = new CallTimer();
+    private final CallTimer snapshotLoadTimer = new CallTimer();
+    private final CallTimer snapshotSaveTimer = new CallTimer();
+    // Last balance each account reached in the journaled part of the transactions file, from the latest load
+    private volatile Map<String, Long> loadedBalances = Map.of();
+    private TransactionJournal journal;
+
+    public FilePersistence() {
+        this(Paths.get(DATA_DIRECTORY));
+    }
+
+    /**
+     * Reads and writes accounts.txt and transactions.txt in the given directory instead of data/.
+     */
+    public FilePersistence(Path dataDirectory) {
+        this.dataDirectory = dataDirectory;
+        this.accountsFile = dataDirectory.resolve("accounts.txt");
+        this.transactionsFile = dataDirectory.resolve("transactions.txt");
+        this.journalStartFile = dataDirectory.resolve(JOURNAL_START_FILE);
+    }
+
+    /**
+     * Duration of every load and save, keyed by operation name.
+     */
+    public Map<String, CallTimer> getTimers() {
+        Map<String, CallTimer> timers = new LinkedHashMap<>();
+        timers.put("loadAccounts", accountsLoadTimer);
+        timers.put("saveAccounts", accountsSaveTimer);
+        timers.put("loadTransactions", transactionsLoadTimer);
+        timers.put("saveTransactions", transactionsSaveTimer);
+        timers.put("loadSnapshot", snapshotLoadTimer);
+        timers.put("saveSnapshot", snapshotSaveTimer);
+        return timers;
+    }
 
     /**
      * Saves accounts to the accounts file
      */
     public void saveAccounts(Map<String, Account> accounts) {
-        Path path = Paths.get(ACCOUNTS_FILE);
+        Path path = accountsFile;
+        long start = System.nanoTime();
+        Set<String> written = new HashSet<>();
+        boolean saved = false;
 
         try (BufferedWriter writer = Files.newBufferedWriter(path)) {
             if (path.getParent() != null) {
                 Files.createDirectories(path.getParent());
             }else {
-                print("Error creating directories for " + ACCOUNTS_FILE + " failed ");
+                print("Error creating directories for " + path + " failed ");
             }
             List<Account> sorted = new ArrayList<>(accounts.values());
-            sorted.sort(Comparator.comparing(Account::getAccountNumber));
+            sorted.sort(Comparator.comparing(Account::getAccountNumber, IdSequence.ID_ORDER));
 
-            Set<String> written = new HashSet<>();
             for (Account account : sorted) {
                 if (!written.add(account.getAccountNumber())) {
                     print("Skipped duplicate account during save: " + account.getAccountNumber());
@@ -44,39 +143,105 @@ public class FilePersistence {
                 writer.newLine();
             }
 
-            print("Accounts saved to " + ACCOUNTS_FILE);
+            print("Accounts saved to " + path);
+            saved = true;
         } catch (IOException e) {
             print("Error saving accounts: " + e.getMessage());
+        } finally {
+            accountsSaveTimer.record(System.nanoTime() - start, written.size(), saved);
+        }
+    }
+
+    /**
+     * Opens the transactions file as an append-only journal. From then on transactions reach the
+     * file as they are recorded, and {@link #saveTransactions} only syncs the journal instead of
+     * rewriting the file. Load the file before opening it. The first time the journal opens on a
+     * file, the file's length is recorded as the point from which {@link #restoreBalances} trusts it.
+     */
+    public synchronized TransactionJournal openJournal(TransactionJournal.SyncPolicy policy) throws IOException {
+        if (journal == null) {
+            if (journalStart() < 0) {
+                saveJournalStart(Files.exists(transactionsFile) ? Files.size(transactionsFile) : 0);
+            }
+            journal = new TransactionJournal(transactionsFile, policy);
+        }
+        return journal;
+    }
+
+    public synchronized TransactionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Syncs and closes the journal; later saves rewrite the whole file again.
+     */
+    public synchronized void closeJournal() {
+        if (journal != null) {
+            journal.close();
+            journal = null;
         }
     }
 
     /**
-     * Saves transactions to the transactions file
+     * Saves transactions to the transactions file. While the journal is open they are already
+     * in the file, so only the records appended since the last sync are forced to disk.
+     *
+     * <p>Rows are streamed in iteration order, which for the {@link TransactionStore} is the
+     * order they were recorded in, the same order the journal writes. Nothing is copied or
+     * sorted first; the only state that grows with history is the compact duplicate-ID set.</p>
      */
-   public void saveTransactions(List<Transaction> transactions) {
-       Path path = Paths.get(TRANSACTIONS_FILE);
+   public void saveTransactions(Iterable<Transaction> transactions) {
+       Path path = transactionsFile;
+       long start = System.nanoTime();
+       TransactionJournal openJournal = getJournal();
+       if (openJournal != null) {
+           long synced = openJournal.sync();
+           boolean saved = openJournal.getUnsynced() == 0;
+           transactionsSaveTimer.record(System.nanoTime() - start, synced, saved);
+           print(saved ? "Transactions journal synced to " + path + " (" + synced + " new)"
+                   : "Error syncing transactions journal " + path);
+           return;
+       }
+       TransactionIdSet seenIds = new TransactionIdSet();
+       boolean saved = false;
 
+       try {
+           // The rewritten file is no longer the journal's
+           Files.deleteIfExists(journalStartFile);
+       } catch (IOException e) {
+           print("Error removing " + journalStartFile + ": " + e.getMessage());
+       }
        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
            if (path.getParent() != null) {
                Files.createDirectories(path.getParent());
            }else {
-               print("Error creating directories for " + TRANSACTIONS_FILE + " failed" );
+               print("Error creating directories for " + path + " failed" );
            }
-           List<Transaction> sorted = new ArrayList<>(transactions);
-           sorted.sort(Comparator.comparing(Transaction::getTransactionId));
-
-           Set<String> seenIds = new HashSet<>();
-           for (Transaction transaction : sorted) {
+           // One line buffer for the whole save instead of a String per row
+           StringBuilder line = new StringBuilder(96);
+           char[] chars = new char[96];
+           for (Transaction transaction : transactions) {
                if (!seenIds.add(transaction.getTransactionId())) {
                    print("Skipped duplicate transaction during save: " + transaction.getTransactionId());
                    continue;
                }
-               writer.write(serializeTransaction(transaction));
+               line.setLength(0);
+               appendTransactionLine(line, transaction.getTransactionId(), transaction.getAccountNumber(),
+                       transaction.getType(), transaction.getAmountMinor(), transaction.getBalanceAfterMinor(),
+                       transaction.getStoredTimestamp());
+               if (chars.length < line.length()) {
+                   chars = new char[line.length() * 2];
+               }
+               line.getChars(0, line.length(), chars, 0);
+               writer.write(chars, 0, line.length());
                writer.newLine();
            }
-           print("Transactions saved to " + TRANSACTIONS_FILE);
+           print("Transactions saved to " + path);
+           saved = true;
        } catch (IOException e) {
            print("Error saving transactions: " + e.getMessage());
+       } finally {
+           transactionsSaveTimer.record(System.nanoTime() - start, seenIds.size(), saved);
        }
    }
 
@@ -89,7 +254,10 @@ public class FilePersistence {
 
     public Map<String, Account> loadAccounts(Map<String, Account> existingAccounts) {
         Map<String, Account> accounts = new HashMap<>(existingAccounts);
-        Path path = Paths.get(ACCOUNTS_FILE);
+        Path path = accountsFile;
+        long start = System.nanoTime();
+        int loadedCount = 0;
+        boolean loaded = false;
 
         if (!Files.exists(path)) {
             if (existingAccounts.isEmpty()) {
@@ -100,13 +268,12 @@ public class FilePersistence {
             return accounts;
         }
 
-        try {
-            List<String> lines = Files.readAllLines(path);
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
             print("Loading account data from files...");
 
             Set<String> seenAccountNumbers = new HashSet<>(accounts.keySet());
-            int loadedCount = 0;
-            for (String line : lines) {
+            String line;
+            while ((line = reader.readLine()) != null) {
                 Optional<Account> accountOpt = deserializeAccount(line);
                 if (accountOpt.isEmpty()) {
                     continue;
@@ -120,11 +287,14 @@ public class FilePersistence {
                 loadedCount++;
             }
 
-            print("✓ " + loadedCount + " accounts loaded successfully from " + ACCOUNTS_FILE);
+            print("✓ " + loadedCount + " accounts loaded successfully from " + path);
+            loaded = true;
         } catch (IOException e) {
             print("Error loading accounts: " + e.getMessage());
         } catch (Exception e) {
             print("Error processing account data: " + e.getMessage());
+        } finally {
+            accountsLoadTimer.record(System.nanoTime() - start, loadedCount, loaded);
         }
 
         return accounts;
@@ -138,47 +308,580 @@ public class FilePersistence {
     }
 
     public List<Transaction> loadTransactions(List<Transaction> existingTransactions) {
-        List<Transaction> transactions = existingTransactions == null
-                ? new ArrayList<>()
-                : new ArrayList<>(existingTransactions);
-        Path path = Paths.get(TRANSACTIONS_FILE);
+        TransactionStore store = new TransactionStore();
+        if (existingTransactions != null) {
+            existingTransactions.forEach(store::append);
+        }
+        loadTransactions(store, 0, null);
+        return store.snapshot();
+    }
+
+    /**
+     * Streams the transactions file into {@code store}: each parsed chunk is appended as it is
+     * merged, and a void removes its row from the store, so no list of the whole file is built.
+     * Returns how many transactions were loaded.
+     */
+    public long loadTransactions(TransactionStore store) {
+        return loadTransactions(store, 0, null);
+    }
+
+    /**
+     * Streams only the transactions journaled after the snapshot was taken into {@code store}.
+     * A void in that tail whose row is older than the snapshot is taken out of the snapshot's
+     * totals instead, using the type and amount on the void line. Returns how many transactions
+     * were loaded.
+     */
+    public long loadTransactionsAfter(LedgerSnapshot snapshot, TransactionStore store) {
+        List<Transaction> earlierVoids = new ArrayList<>();
+        long loaded = loadTransactions(store, snapshot.getJournalOffset(), earlierVoids);
+        Set<String> untypedVoids = new HashSet<>();
+        for (Transaction voided : earlierVoids) {
+            TransactionType type = TransactionJournal.voidedType(voided.getType());
+            if (type != null) {
+                snapshot.rollback(voided.getAccountNumber(), type, voided.getAmountMinor());
+            } else {
+                untypedVoids.add(voided.getTransactionId());
+            }
+        }
+        if (!untypedVoids.isEmpty()) {
+            rollBackEarlierVoids(snapshot, untypedVoids);
+        }
+        return loaded;
+    }
+
+    // Only for plain VOID lines journaled before voids carried the row's type and amount,
+    // which then have to be found before the snapshot
+    private void rollBackEarlierVoids(LedgerSnapshot snapshot, Set<String> voidedIds) {
+        try {
+            parseTransactionChunks(transactionsFile, 0, snapshot.getJournalOffset(), chunk -> {
+                for (Transaction transaction : chunk) {
+                    TransactionType type = TransactionAggregate.parseType(transaction.getType());
+                    // The first copy of an ID is the one that was loaded and counted
+                    if (type != null && voidedIds.remove(transaction.getTransactionId())) {
+                        snapshot.rollback(transaction.getAccountNumber(), type, transaction.getAmountMinor());
+                    }
+                }
+            });
+            if (!voidedIds.isEmpty()) {
+                print("Voided transactions not found before the snapshot: " + voidedIds);
+            }
+        } catch (IOException e) {
+            print("Error applying voids to the snapshot totals: " + e.getMessage());
+        }
+    }
+
+    // Void lines in the loaded range whose row is not in the store are added to unmatchedVoids.
+    // The journal writes a void after its row, so voids are applied as they are reached.
+    private long loadTransactions(TransactionStore store, long fromOffset, List<Transaction> unmatchedVoids) {
+        Path path = transactionsFile;
+        long start = System.nanoTime();
+        long loadedCount = 0;
+        boolean loaded = false;
 
         if (!Files.exists(path)) {
             print("Transactions file does not exist. Starting with empty transactions.");
-            return transactions;
+            return 0;
         }
 
         try {
-            List<String> lines = Files.readAllLines(path);
+            TransactionIdSet seenTransactionIds = new TransactionIdSet();
+            long existing = store.publishedCount();
+            for (long position = 0; position < existing; position++) {
+                if (!store.isRemoved(position)) {
+                    seenTransactionIds.add(store.transactionIdAt(position));
+                }
+            }
+            int existingCount = store.size();
+            Set<String> voidedIds = new HashSet<>();
+            Map<String, Long> balances = new HashMap<>();
+            // Balances are only tracked from where the journal took over the file; no journal, no balances
+            long journalStart = journalStart();
+            long balancesFrom = journalStart < 0 ? Long.MAX_VALUE : Math.max(fromOffset, journalStart);
+
+            // Merged in file order, so the first copy of an ID wins and the last balance sticks
+            parseTransactionChunks(path, fromOffset, balancesFrom,
+                    chunk -> mergeLoaded(chunk, store, seenTransactionIds, voidedIds, unmatchedVoids, null));
+            if (balancesFrom < Long.MAX_VALUE) {
+                parseTransactionChunks(path, balancesFrom, Long.MAX_VALUE,
+                        chunk -> mergeLoaded(chunk, store, seenTransactionIds, voidedIds, unmatchedVoids, balances));
+            }
+            loadedCount = store.size() - existingCount;
+            loadedBalances = balances;
+
+            print("✓ " + loadedCount + " transactions loaded successfully from " + path);
+            loaded = true;
+        } catch (IOException e) {
+            print("Error loading transactions: " + e.getMessage());
+        } catch (Exception e) {
+            print("Error processing transaction data: " + e.getMessage());
+        } finally {
+            transactionsLoadTimer.record(System.nanoTime() - start, loadedCount, loaded);
+        }
 
-            Set<String> seenTransactionIds = new HashSet<>();
-            for (Transaction tx : transactions) {
-                seenTransactionIds.add(tx.getTransactionId());
+        return loadedCount;
+    }
+
+    // Rows are appended in runs; a void first appends the rows before it, then removes its row
+    private void mergeLoaded(List<Transaction> chunk, TransactionStore store, TransactionIdSet seenIds,
+                             Set<String> voidedIds, List<Transaction> unmatchedVoids, Map<String, Long> balances) {
+        List<Transaction> rows = new ArrayList<>(chunk.size());
+        for (Transaction transaction : chunk) {
+            if (TransactionJournal.isVoid(transaction.getType())) {
+                if (voidedIds.add(transaction.getTransactionId())) {
+                    if (!rows.isEmpty()) {
+                        store.appendAll(rows);
+                        rows.clear();
+                    }
+                    if (store.remove(transaction.getTransactionId()) < 0 && unmatchedVoids != null) {
+                        unmatchedVoids.add(transaction);
+                    }
+                }
+            } else if (!seenIds.add(transaction.getTransactionId())) {
+                print("Skipping duplicate transaction entry for " + transaction.getTransactionId());
+                continue;
+            } else {
+                rows.add(transaction);
+            }
+            if (balances != null) {
+                balances.put(transaction.getAccountNumber(), transaction.getBalanceAfterMinor());
             }
+        }
+        if (!rows.isEmpty()) {
+            store.appendAll(rows);
+        }
+    }
 
-            int loadedCount = 0;
-            for (String line : lines) {
-                Optional<Transaction> transactionOpt = deserializeTransaction(line);
-                if (transactionOpt.isEmpty()) {
-                    continue;
+    /**
+     * Parses the file from {@code fromOffset} up to {@code toOffset}, split at line boundaries into chunks that are
+     * parsed in parallel on a pool started for this call, and hands each chunk to {@code merge} in
+     * file order on the calling thread. The common fork-join pool is left alone, so other startup
+     * work queued there does not wait behind the parse. At most a few chunks per worker are parsed ahead of the
+     * merge, so the memory this needs does not grow with the file. Parsing also moves the
+     * transaction ID counter past every ID it sees; that update is atomic, so the order chunks
+     * finish in does not matter.
+     */
+    private void parseTransactionChunks(Path path, long fromOffset, long toOffset,
+                                        Consumer<List<Transaction>> merge) throws IOException {
+        int window = Math.max(2, LOAD_THREADS * 2);
+        Deque<Future<List<Transaction>>> inFlight = new ArrayDeque<>(window);
+        // The pool closes first and waits for running parses, so nothing reads the channel once it is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             ExecutorService parsers = TaskExecutors.newExecutor(ExecutionMode.PLATFORM, LOAD_THREADS, "txn-load")) {
+            long end = Math.min(toOffset, channel.size());
+            long chunkBytes = chunkBytes(end - fromOffset);
+            long next = fromOffset;
+            try {
+                while (next < end || !inFlight.isEmpty()) {
+                    while (next < end && inFlight.size() < window) {
+                        long from = next;
+                        long to = from + chunkBytes >= end ? end : nextLineStart(channel, from + chunkBytes, end);
+                        inFlight.add(parsers.submit(() -> parseTransactionChunk(channel, from, to)));
+                        next = to;
+                    }
+                    merge.accept(awaitChunk(inFlight.poll()));
                 }
-                Transaction transaction = transactionOpt.get();
-                if (!seenTransactionIds.add(transaction.getTransactionId())) {
-                    print("Skipping duplicate transaction entry for " + transaction.getTransactionId());
-                    continue;
+            } finally {
+                // Only reached with chunks left on failure; drop the ones not started yet
+                for (Future<List<Transaction>> chunk : inFlight) {
+                    chunk.cancel(false);
                 }
-                transactions.add(transaction);
-                loadedCount++;
             }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<Transaction> awaitChunk(Future<List<Transaction>> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading transactions");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
 
-            print("✓ " + loadedCount + " transactions loaded successfully from " + TRANSACTIONS_FILE);
+    private static long chunkBytes(long length) {
+        return Math.clamp(length / (LOAD_THREADS * 4L), MIN_LOAD_CHUNK_BYTES, MAX_LOAD_CHUNK_BYTES);
+    }
+
+    // First position at or after the given one that starts a line
+    private static long nextLineStart(FileChannel channel, long position, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long scanned = position - 1;
+        while (scanned < end) {
+            buffer.clear();
+            int read = channel.read(buffer, scanned);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return Math.min(end, scanned + i + 1);
+                }
+            }
+            scanned += read;
+        }
+        return end;
+    }
+
+    private List<Transaction> parseTransactionChunk(FileChannel channel, long from, long to) {
+        ByteBuffer bytes = ByteBuffer.allocate((int) (to - from));
+        try {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, from + bytes.position()) < 0) {
+                    break;
+                }
+            }
         } catch (IOException e) {
-            print("Error loading transactions: " + e.getMessage());
-        } catch (Exception e) {
-            print("Error processing transaction data: " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        String text = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+        List<Transaction> parsed = new ArrayList<>();
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int newline = text.indexOf('\n', lineStart);
+            int lineEnd = newline < 0 ? text.length() : newline;
+            int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            deserializeTransaction(text, lineStart, contentEnd).ifPresent(parsed::add);
+            lineStart = lineEnd + 1;
+        }
+        return parsed;
+    }
+
+    /**
+     * Writes a snapshot of every account balance and transaction total, tagged with the highest
+     * transaction sequence it covers and the current length of the transactions journal, then
+     * drops all but the newest {@value #SNAPSHOTS_KEPT}. Only meaningful while the journal keeps
+     * the transactions file append-only, and while no transactions are being processed.
+     */
+    public boolean saveSnapshot(Map<String, Account> accounts, Map<String, TransactionAggregate> aggregates,
+                                long lastSequence) {
+        long start = System.nanoTime();
+        Path path = dataDirectory.resolve(SNAPSHOT_PREFIX + lastSequence + SNAPSHOT_SUFFIX);
+        Path temp = dataDirectory.resolve(path.getFileName() + ".tmp");
+        Set<String> accountNumbers = new TreeSet<>(IdSequence.ID_ORDER);
+        accountNumbers.addAll(accounts.keySet());
+        accountNumbers.addAll(aggregates.keySet());
+        boolean saved = false;
+
+        try {
+            Files.createDirectories(dataDirectory);
+            long journalOffset = Files.exists(transactionsFile) ? Files.size(transactionsFile) : 0;
+            CRC32 checksum = new CRC32();
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, checksum));
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(lastSequence);
+                out.writeLong(journalOffset);
+                out.writeLong(journalAnchor(journalOffset));
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(TRANSACTION_TYPES.length);
+                out.writeInt(accountNumbers.size());
+                for (String accountNumber : accountNumbers) {
+                    Account account = accounts.get(accountNumber);
+                    TransactionAggregate aggregate = aggregates.get(accountNumber);
+                    out.writeUTF(accountNumber);
+                    out.writeBoolean(account != null);
+                    out.writeLong(account != null ? account.getBalanceMinor() : 0);
+                    for (TransactionType type : TRANSACTION_TYPES) {
+                        out.writeLong(aggregate != null ? aggregate.getCount(type) : 0);
+                        out.writeLong(aggregate != null ? aggregate.getSumMinor(type) : 0);
+                    }
+                }
+                out.flush();
+                new DataOutputStream(file).writeLong(checksum.getValue());
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            pruneSnapshots();
+            print("Snapshot of " + accountNumbers.size() + " accounts saved to " + path);
+            saved = true;
+        } catch (IOException e) {
+            print("Error saving snapshot: " + e.getMessage());
+        } finally {
+            snapshotSaveTimer.record(System.nanoTime() - start, accountNumbers.size(), saved);
         }
+        return saved;
+    }
 
-        return transactions;
+    /**
+     * Returns the newest snapshot that is intact and still matches the transactions journal,
+     * or empty when there is none.
+     */
+    public Optional<LedgerSnapshot> loadSnapshot() {
+        long start = System.nanoTime();
+        LedgerSnapshot snapshot = null;
+        try {
+            for (Path path : listSnapshots()) {
+                try {
+                    LedgerSnapshot candidate = readSnapshot(path);
+                    if (candidate != null) {
+                        snapshot = candidate;
+                        print("✓ Snapshot loaded from " + path);
+                        break;
+                    }
+                    print("Skipping snapshot " + path + ": the transactions file changed since it was taken");
+                } catch (IOException e) {
+                    print("Skipping unreadable snapshot " + path + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            print("Error listing snapshots: " + e.getMessage());
+        } finally {
+            snapshotLoadTimer.record(System.nanoTime() - start,
+                    snapshot == null ? 0 : snapshot.getBalances().size(), true);
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    // Returns null when the snapshot is intact but no longer matches the journal
+    private LedgerSnapshot readSnapshot(Path path) throws IOException {
+        CRC32 checksum = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path)), checksum))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("not a snapshot file");
+            }
+            long lastSequence = in.readLong();
+            long journalOffset = in.readLong();
+            long anchor = in.readLong();
+            long createdMillis = in.readLong();
+            if (in.readInt() != TRANSACTION_TYPES.length) {
+                throw new IOException("written for different transaction types");
+            }
+            int count = in.readInt();
+            Map<String, Long> balances = new HashMap<>();
+            Map<String, TransactionAggregate> aggregates = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String accountNumber = in.readUTF();
+                boolean hasBalance = in.readBoolean();
+                long balance = in.readLong();
+                if (hasBalance) {
+                    balances.put(accountNumber, balance);
+                }
+                TransactionAggregate aggregate = new TransactionAggregate(accountNumber);
+                for (TransactionType type : TRANSACTION_TYPES) {
+                    aggregate.add(type, in.readLong(), in.readLong());
+                }
+                aggregates.put(accountNumber, aggregate);
+            }
+            long expected = checksum.getValue();
+            if (in.readLong() != expected || in.read() != -1) {
+                throw new IOException("checksum mismatch");
+            }
+            long journalSize = Files.exists(transactionsFile) ? Files.size(transactionsFile) : 0;
+            if (journalOffset > journalSize || journalAnchor(journalOffset) != anchor) {
+                return null;
+            }
+            return new LedgerSnapshot(lastSequence, journalOffset, createdMillis, balances, aggregates);
+        }
+    }
+
+    private long journalAnchor(long journalOffset) throws IOException {
+        CRC32 checksum = new CRC32();
+        if (journalOffset == 0) {
+            return checksum.getValue();
+        }
+        int length = (int) Math.min(JOURNAL_ANCHOR_BYTES, journalOffset);
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        long position = journalOffset - length;
+        try (FileChannel channel = FileChannel.open(transactionsFile, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining()) {
+                if (channel.read(bytes, position + bytes.position()) < 0) {
+                    break;
+                }
+            }
+        }
+        checksum.update(bytes.flip());
+        return checksum.getValue();
+    }
+
+    // Offset the journal started appending at, or -1 when the journal never opened on this file
+    private long journalStart() {
+        if (!Files.exists(journalStartFile)) {
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalStartFile)))) {
+            long offset = in.readLong();
+            long anchor = in.readLong();
+            long size = Files.exists(transactionsFile) ? Files.size(transactionsFile) : 0;
+            return offset <= size && journalAnchor(offset) == anchor ? offset : -1;
+        } catch (IOException e) {
+            print("Ignoring unreadable " + journalStartFile + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private void saveJournalStart(long offset) throws IOException {
+        Files.createDirectories(dataDirectory);
+        Path temp = dataDirectory.resolve(JOURNAL_START_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+            out.writeLong(offset);
+            out.writeLong(journalAnchor(offset));
+        }
+        Files.move(temp, journalStartFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Newest first
+    private List<Path> listSnapshots() throws IOException {
+        if (!Files.isDirectory(dataDirectory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            return files.filter(path -> snapshotSequence(path) >= 0)
+                    .sorted(Comparator.comparingLong(FilePersistence::snapshotSequence).reversed())
+                    .toList();
+        }
+    }
+
+    private static long snapshotSequence(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(SNAPSHOT_PREFIX) || !name.endsWith(SNAPSHOT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void pruneSnapshots() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = SNAPSHOTS_KEPT; i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    /**
+     * Writes the transactions in the transactions file, voids applied, to a
+     * {@link BinaryTransactionLog}. Rows the binary format cannot hold are skipped and reported.
+     * Returns how many were written.
+     *
+     * <p>The file is streamed twice instead of being loaded: once for the voided IDs, then in
+     * parsed chunks straight into the log. Like a load, the first copy of an ID wins.</p>
+     */
+    public long exportTransactionsToBinary(Path binaryFile) throws IOException {
+        Set<String> voidedIds = readVoidedIds();
+        TransactionIdSet seenIds = new TransactionIdSet();
+        try (BinaryTransactionLog log = BinaryTransactionLog.create(binaryFile)) {
+            if (Files.exists(transactionsFile)) {
+                parseTransactionChunks(transactionsFile, 0, Long.MAX_VALUE, chunk -> {
+                    for (Transaction transaction : chunk) {
+                        String transactionId = transaction.getTransactionId();
+                        if (TransactionJournal.isVoid(transaction.getType())
+                                || !seenIds.add(transactionId) || voidedIds.contains(transactionId)) {
+                            continue;
+                        }
+                        if (!BinaryTransactionLog.fits(transaction)) {
+                            print("Skipping transaction the binary format cannot hold: " + transactionId);
+                            continue;
+                        }
+                        log.append(Transaction.parseSequence(transactionId), transaction.getAccountNumber(),
+                                TransactionAggregate.parseType(transaction.getType()), transaction.getAmountMinor(),
+                                transaction.getBalanceAfterMinor(), transaction.getEpochMillis());
+                    }
+                });
+            }
+            print("✓ " + log.size() + " transactions written to " + binaryFile);
+            return log.size();
+        }
+    }
+
+    // IDs of every VOID line; only the type and ID fields are looked at
+    private Set<String> readVoidedIds() throws IOException {
+        Set<String> voidedIds = new HashSet<>();
+        if (!Files.exists(transactionsFile)) {
+            return voidedIds;
+        }
+        DelimitedRecordParser fields = TRANSACTION_PARSER.get();
+        try (BufferedReader reader = Files.newBufferedReader(transactionsFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (fields.parse(line) == TRANSACTION_FIELDS
+                        && TransactionJournal.isVoid(fields.stringOf(2, KNOWN_TRANSACTION_TYPES))) {
+                    voidedIds.add(fields.string(0));
+                }
+            }
+        }
+        return voidedIds;
+    }
+
+    /**
+     * Replaces the transactions file with the records of a {@link BinaryTransactionLog}, in log
+     * order. Not allowed while the journal is open. The records go to a temporary file that
+     * only replaces the transactions file once complete, so a failure leaves the old one intact.
+     * Returns how many were written.
+     */
+    public long importTransactionsFromBinary(Path binaryFile) throws IOException {
+        if (getJournal() != null) {
+            throw new IllegalStateException("Close the transaction journal before replacing " + transactionsFile);
+        }
+        if (transactionsFile.getParent() != null) {
+            Files.createDirectories(transactionsFile.getParent());
+        }
+        Path temp = transactionsFile.resolveSibling(transactionsFile.getFileName() + ".tmp");
+        long imported;
+        try (BinaryTransactionLog log = BinaryTransactionLog.open(binaryFile)) {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+                StringBuilder line = new StringBuilder(96);
+                BinaryTransactionLog.Cursor cursor = log.cursor();
+                while (cursor.next()) {
+                    line.setLength(0);
+                    appendTransactionLine(line, Transaction.formatId(cursor.sequence()), cursor.accountNumber(),
+                            cursor.type().name(), cursor.amountMinor(), cursor.balanceAfterMinor(),
+                            Transaction.formatStoredTimestamp(cursor.epochMillis()));
+                    writer.append(line);
+                    writer.newLine();
+                }
+            }
+            imported = log.size();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, transactionsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(journalStartFile);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        print("✓ " + imported + " transactions written to " + transactionsFile);
+        return imported;
+    }
+
+    /**
+     * Brings each account to the last balance journaled for it, as read by the latest
+     * {@link #loadTransactions()}, so that activity journaled after the accounts file was last
+     * saved survives a crash. Only lines the journal appended count: a file rewritten by a save
+     * without the journal, or by older versions that sorted it by ID, does not list balances in
+     * the order they were reached, and restores nothing. Returns how many balances changed.
+     */
+    public int restoreBalances(Map<String, Account> accounts) {
+        int restored = 0;
+        for (Map.Entry<String, Long> entry : loadedBalances.entrySet()) {
+            Account account = accounts.get(entry.getKey());
+            if (account != null && account.getBalanceMinor() != entry.getValue()) {
+                account.setBalanceMinor(entry.getValue());
+                restored++;
+            }
+        }
+        if (restored > 0) {
+            print("✓ " + restored + " account balances restored from " + transactionsFile);
+        }
+        return restored;
     }
 
     private String serializeAccount(Account account) {
@@ -186,7 +889,7 @@ public class FilePersistence {
         String customerType = (customer instanceof PremiumCustomer) ? "Premium" : "Regular";
         return String.join(DELIMITER,
                 account.getAccountNumber(),
-                String.valueOf(account.getBalance()),
+                Money.format(account.getBalanceMinor()),
                 account.getAccountType(),
                 customerType,
                 customer.getName(),
@@ -197,21 +900,19 @@ public class FilePersistence {
     }
 
     private Optional<Account> deserializeAccount(String line) {
-        String[] parts = line.split("\\Q" + DELIMITER + "\\E");
-        if (parts.length != ACCOUNT_FIELDS) {
+        DelimitedRecordParser fields = ACCOUNT_PARSER.get();
+        if (fields.parse(line) != ACCOUNT_FIELDS) {
             print("Skipping malformed account line: " + line);
             return Optional.empty();
         }
 
         try {
-            String accountNumber = parts[0];
-            double balance = Double.parseDouble(parts[1]);
-            String accountType = parts[2];
-            String customerType = parts[3];
-            String customerName = parts[4];
-            int customerAge = Integer.parseInt(parts[5]);
-            String customerPhone = parts[6];
-            String customerAddress = parts[7];
+            long balanceMinor = fields.minorUnits(1);
+            int customerAge = fields.intValue(5);
+            String accountNumber = fields.string(0);
+            String customerName = fields.string(4);
+            String customerPhone = fields.string(6);
+            String customerAddress = fields.string(7);
 
             if (!validateAccountNumber(accountNumber)) {
                 print("Invalid account number: " + accountNumber);
@@ -235,61 +936,66 @@ public class FilePersistence {
             }
 
             Customer customer;
-            if ("Regular".equals(customerType)) {
+            if (fields.fieldEquals(3, "Regular")) {
                 customer = new RegularCustomer(customerName, customerAge, customerPhone, customerAddress);
-            } else if ("Premium".equals(customerType)) {
+            } else if (fields.fieldEquals(3, "Premium")) {
                 customer = new PremiumCustomer(customerName, customerAge, customerPhone, customerAddress);
             } else {
-                print("Unknown customer type: " + customerType);
+                print("Unknown customer type: " + fields.string(3));
                 return Optional.empty();
             }
 
             Account account;
-            if ("Savings".equals(accountType)) {
-                account = new SavingsAccount(accountNumber, customer, balance);
-            } else if ("Checking".equals(accountType)) {
-                account = new CheckingAccount(accountNumber, customer, balance);
+            if (fields.fieldEquals(2, "Savings")) {
+                account = new SavingsAccount(accountNumber, customer, 0.0);
+            } else if (fields.fieldEquals(2, "Checking")) {
+                account = new CheckingAccount(accountNumber, customer, 0.0);
             } else {
-                print("Unknown account type: " + accountType);
+                print("Unknown account type: " + fields.string(2));
                 return Optional.empty();
             }
 
+            account.setBalanceMinor(balanceMinor);
             return Optional.of(account);
-        } catch (NumberFormatException e) {
+        } catch (NumberFormatException | ArithmeticException e) {
             print("Number format error while parsing account line: " + line);
             return Optional.empty();
         }
     }
 
-    private String serializeTransaction(Transaction transaction) {
-        return String.join(DELIMITER,
-                transaction.getTransactionId(),
-                transaction.getAccountNumber(),
-                transaction.getType(),
-                String.valueOf(transaction.getAmount()),
-                String.valueOf(transaction.getBalanceAfter()),
-                transaction.getTimestamp()
-        );
+    // Shared with TransactionJournal so a journaled line reads back exactly like a saved one
+    static void appendTransactionLine(StringBuilder line, String transactionId, String accountNumber, String type,
+                                      long amountMinor, long balanceAfterMinor, String storedTimestamp) {
+        line.append(transactionId).append(DELIMITER)
+                .append(accountNumber).append(DELIMITER)
+                .append(type).append(DELIMITER);
+        Money.appendTo(line, amountMinor, false).append(DELIMITER);
+        Money.appendTo(line, balanceAfterMinor, false).append(DELIMITER)
+                .append(storedTimestamp);
     }
 
-    private Optional<Transaction> deserializeTransaction(String line) {
-        String[] parts = line.split("\\Q" + DELIMITER + "\\E");
-        if (parts.length != TRANSACTION_FIELDS) {
-            print("Skipping malformed transaction line: " + line);
+    private Optional<Transaction> deserializeTransaction(CharSequence text, int start, int end) {
+        DelimitedRecordParser fields = TRANSACTION_PARSER.get();
+        if (fields.parse(text, start, end) != TRANSACTION_FIELDS) {
+            print("Skipping malformed transaction line: " + text.subSequence(start, end));
             return Optional.empty();
         }
 
         try {
-            String transactionId = parts[0];
-            String accountNumber = parts[1];
-            String type = parts[2];
-            double amount = Double.parseDouble(parts[3]);
-            double balanceAfter = Double.parseDouble(parts[4]);
-            String timestamp = parts[5];
-
-            return Optional.of(new Transaction(transactionId, accountNumber, type, amount, balanceAfter, timestamp));
-        } catch (NumberFormatException e) {
-            print("Number format error while parsing transaction line: " + line);
+            long amountMinor = fields.minorUnits(3);
+            long balanceAfterMinor = fields.minorUnits(4);
+            String transactionId = fields.string(0);
+            String accountNumber = fields.string(1);
+            String type = fields.stringOf(2, KNOWN_TRANSACTION_TYPES);
+            // Stored timestamps are parsed in place; older text formats go through Transaction
+            long epochMillis = fields.isoInstantMillis(5);
+            if (epochMillis == DelimitedRecordParser.NOT_AN_INSTANT) {
+                return Optional.of(Transaction.ofMinorUnits(transactionId, accountNumber, type, amountMinor,
+                        balanceAfterMinor, fields.string(5)));
+            }
+            return Optional.of(Transaction.ofMinorUnits(transactionId, accountNumber, type, amountMinor, balanceAfterMinor, epochMillis));
+        } catch (NumberFormatException | ArithmeticException e) {
+            print("Number format error while parsing transaction line: " + text.subSequence(start, end));
             return Optional.empty();
         }
     }
@@ -0,0 +1,133 @@
+package com.bank.system.services;
+
+import com.bank.system.enums.TransactionType;
+import com.bank.system.interfaces.BankMetricsMXBean;
+import com.bank.system.models.Money;
+import com.bank.system.utils.CallTimer;
+import com.bank.system.utils.OperationMetrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.bank.system.utils.ConsoleUtil.subSeparator;
+
+/**
+ * Collects the metrics of the transaction manager and file persistence, together with account
+ * and transaction counts, and publishes them as platform MBeans under {@value #DOMAIN}:
+ * <ul>
+ *     <li>{@code type=Ledger}: account and transaction counts, and {@code dump()}</li>
+ *     <li>{@code type=Transactions,name=DEPOSIT|WITHDRAWAL|TRANSFER}: outcomes, amounts, latency</li>
+ *     <li>{@code type=Transactions,name=BATCH}: duration of batch calls</li>
+ *     <li>{@code type=Persistence,name=<operation>}: duration of each file load and save</li>
+ * </ul>
+ * Reading the MBeans only sums counters; it never blocks the threads that record them.
+ */
+public class MetricsRegistry implements BankMetricsMXBean {
+    public static final String DOMAIN = "com.bank.system";
+
+    private final AccountManager accountManager;
+    private final TransactionManager transactionManager;
+    private final FilePersistence filePersistence;
+    private final Map<ObjectName, Object> registered = new LinkedHashMap<>();
+
+    public MetricsRegistry(AccountManager accountManager, TransactionManager transactionManager,
+                           FilePersistence filePersistence) {
+        this.accountManager = accountManager;
+        this.transactionManager = transactionManager;
+        this.filePersistence = filePersistence;
+    }
+
+    /**
+     * Registers every MBean with the platform MBean server, replacing any registered earlier
+     * under the same names, e.g. by another registry in the same JVM.
+     */
+    public synchronized void registerMBeans() {
+        Map<ObjectName, Object> beans = new LinkedHashMap<>();
+        try {
+            beans.put(new ObjectName(DOMAIN + ":type=Ledger"), this);
+            TransactionMetrics metrics = transactionManager.getMetrics();
+            for (Map.Entry<TransactionType, OperationMetrics> entry : metrics.getOperations().entrySet()) {
+                beans.put(new ObjectName(DOMAIN + ":type=Transactions,name=" + entry.getKey()), entry.getValue());
+            }
+            beans.put(new ObjectName(DOMAIN + ":type=Transactions,name=BATCH"), metrics.getBatches());
+            for (Map.Entry<String, CallTimer> entry : filePersistence.getTimers().entrySet()) {
+                beans.put(new ObjectName(DOMAIN + ":type=Persistence,name=" + entry.getKey()), entry.getValue());
+            }
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (Map.Entry<ObjectName, Object> bean : beans.entrySet()) {
+                if (server.isRegistered(bean.getKey())) {
+                    server.unregisterMBean(bean.getKey());
+                }
+                server.registerMBean(bean.getValue(), bean.getKey());
+                registered.put(bean.getKey(), bean.getValue());
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBeans: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Removes the MBeans this registry registered, leaving any that were replaced since.
+     */
+    public synchronized void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered.keySet()) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                // Already gone; nothing left to clean up
+            }
+        }
+        registered.clear();
+    }
+
+    @Override
+    public long getActiveAccounts() {
+        return accountManager.getAllAccounts().size();
+    }
+
+    @Override
+    public long getTransactionCount() {
+        return transactionManager.getTransactionCount();
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder dump = new StringBuilder();
+        dump.append("Active accounts: ").append(getActiveAccounts()).append('\n');
+        dump.append("Transactions:    ").append(getTransactionCount()).append('\n');
+        dump.append(subSeparator(110)).append('\n');
+        dump.append(String.format("%-10s | %9s | %9s | %7s | %16s | %9s | %9s | %9s | %9s%n",
+                "Operation", "ok", "declined", "errors", "amount", "mean us", "p50 us", "p99 us", "max us"));
+        dump.append(subSeparator(110)).append('\n');
+        for (Map.Entry<TransactionType, OperationMetrics> entry : transactionManager.getMetrics().getOperations().entrySet()) {
+            OperationMetrics metrics = entry.getValue();
+            dump.append(String.format("%-10s | %9d | %9d | %7d | %16s | %,9.1f | %,9.1f | %,9.1f | %,9.1f%n",
+                    entry.getKey(), metrics.getSucceeded(), metrics.getDeclined(), metrics.getErrors(),
+                    "$" + Money.formatGrouped(metrics.getAmountMinor()), metrics.getMeanLatencyMicros(),
+                    metrics.getP50LatencyMicros(), metrics.getP99LatencyMicros(), metrics.getMaxLatencyMicros()));
+        }
+        dump.append(subSeparator(110)).append('\n');
+        dump.append(String.format("%-18s | %7s | %8s | %12s | %10s | %10s | %10s%n",
+                "Call", "calls", "failures", "last records", "last ms", "mean ms", "max ms"));
+        dump.append(subSeparator(110)).append('\n');
+        appendTimer(dump, "batch", transactionManager.getMetrics().getBatches());
+        for (Map.Entry<String, CallTimer> entry : filePersistence.getTimers().entrySet()) {
+            appendTimer(dump, entry.getKey(), entry.getValue());
+        }
+        return dump.toString();
+    }
+
+    private static void appendTimer(StringBuilder dump, String name, CallTimer timer) {
+        dump.append(String.format("%-18s | %7d | %8d | %12d | %,10.2f | %,10.2f | %,10.2f%n",
+                name, timer.getCalls(), timer.getFailures(), timer.getLastRecords(),
+                timer.getLastMillis(), timer.getMeanMillis(), timer.getMaxMillis()));
+    }
+}
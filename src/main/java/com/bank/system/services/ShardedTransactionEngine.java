@@ -0,0 +1,294 @@
+package com.bank.system.services;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs account work on a fixed set of single-threaded shards. Accounts are hash-partitioned
+ * across the shards, and each shard is the only thread that touches its accounts while the
+ * engine runs, so the tasks themselves need no locks.
+ *
+ * <p>Outside callers submit into a bounded ring buffer per shard and wait while it is full.
+ * Tasks submitted from a shard thread, such as the credit half of a cross-shard transfer, go
+ * into an unbounded inbox instead. That way two shards feeding each other cannot deadlock on
+ * full rings. A shard drains its inbox before taking new work from its ring.
+ */
+public class ShardedTransactionEngine implements AutoCloseable {
+    public static final int DEFAULT_RING_CAPACITY = 1024;
+
+    private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Shard[] shards;
+    private final int mask;
+    // Cleared by close to refuse outside work; shards keep running until stopped is set
+    private volatile boolean running = true;
+    private volatile boolean stopped;
+
+    private final LongAdder fullRingWaits = new LongAdder();
+
+    public ShardedTransactionEngine(int shards) {
+        this(shards, DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * @param shards       number of shard threads, rounded up to a power of two
+     * @param ringCapacity slots per shard ring, rounded up to a power of two
+     */
+    public ShardedTransactionEngine(int shards, int ringCapacity) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("Shard count must be greater than 0");
+        }
+        if (ringCapacity <= 0) {
+            throw new IllegalArgumentException("Ring capacity must be greater than 0");
+        }
+        int size = roundUpToPowerOfTwo(shards);
+        this.shards = new Shard[size];
+        this.mask = size - 1;
+        int capacity = roundUpToPowerOfTwo(ringCapacity);
+        for (int i = 0; i < size; i++) {
+            this.shards[i] = new Shard(i, capacity);
+        }
+        for (Shard shard : this.shards) {
+            shard.thread.start();
+        }
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    public int shardFor(String accountNumber) {
+        int h = accountNumber.hashCode();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    /**
+     * Runs the task on the shard that owns the account. The future completes with the task's
+     * result, or exceptionally with whatever it threw. Blocks while that shard's ring is full.
+     * After {@link #close()} outside submissions are rejected; shard threads may still submit,
+     * so work already accepted can finish.
+     */
+    public <T> CompletableFuture<T> submit(String accountNumber, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable work = () -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        Shard shard = shards[shardFor(accountNumber)];
+        if (isShardThread()) {
+            shard.inboxAccepted.incrementAndGet();
+            shard.inbox.add(work);
+            shard.wake();
+            return future;
+        }
+
+        // close waits for submitting to reach zero, so a task is either refused here or drained
+        shard.submitting.incrementAndGet();
+        try {
+            if (!running) {
+                future.completeExceptionally(new RejectedExecutionException("Transaction engine is stopped"));
+            } else {
+                shard.offer(work);
+            }
+        } finally {
+            shard.submitting.decrementAndGet();
+        }
+        return future;
+    }
+
+    /**
+     * True when called from one of this engine's shard threads.
+     */
+    public boolean isShardThread() {
+        return Thread.currentThread() instanceof ShardThread shardThread && shardThread.engine() == this;
+    }
+
+    /**
+     * Stops accepting outside work, waits until everything already accepted has run
+     * (including follow-up work shards submit to each other), then stops the shard threads.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        for (Shard shard : shards) {
+            while (shard.submitting.get() != 0) {
+                Thread.onSpinWait();
+            }
+        }
+        while (!isQuiescent()) {
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        }
+        stopped = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        boolean interrupted = false;
+        for (Shard shard : shards) {
+            while (shard.thread.isAlive()) {
+                try {
+                    shard.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Both totals only grow and processed never passes accepted. Reading every processed count
+    // before any accepted count means equal sums prove nothing was outstanding in between.
+    private boolean isQuiescent() {
+        long processed = 0;
+        for (Shard shard : shards) {
+            processed += shard.processed;
+        }
+        long accepted = 0;
+        for (Shard shard : shards) {
+            accepted += shard.tail.get() + shard.inboxAccepted.get();
+        }
+        return processed == accepted;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Counters
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public long getProcessed(int shard) {
+        return shards[shard].processed;
+    }
+
+    public long getProcessed() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.processed;
+        }
+        return total;
+    }
+
+    public long getFullRingWaits() {
+        return fullRingWaits.sum();
+    }
+
+    private final class Shard implements Runnable {
+        private final ShardThread thread;
+        private final AtomicReferenceArray<Runnable> ring;
+        private final int ringMask;
+        // Producers claim slots by advancing tail; only the shard thread advances head
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;
+        private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+        private final AtomicLong inboxAccepted = new AtomicLong();
+        private final AtomicInteger submitting = new AtomicInteger();
+        // Written only by the shard thread
+        private volatile long processed;
+        private volatile boolean parked;
+
+        private Shard(int index, int capacity) {
+            this.ring = new AtomicReferenceArray<>(capacity);
+            this.ringMask = capacity - 1;
+            this.thread = new ShardThread(this, "txn-shard-" + index);
+        }
+
+        private void offer(Runnable work) {
+            boolean waited = false;
+            while (true) {
+                long claim = tail.get();
+                if (claim - head > ringMask) {
+                    if (!waited) {
+                        waited = true;
+                        fullRingWaits.increment();
+                    }
+                    LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+                    continue;
+                }
+                if (tail.compareAndSet(claim, claim + 1)) {
+                    // The slot was cleared before head moved past it, so it is free to write
+                    ring.set((int) (claim & ringMask), work);
+                    wake();
+                    return;
+                }
+            }
+        }
+
+        private Runnable poll() {
+            int slot = (int) (head & ringMask);
+            // Null while empty, or while a producer has claimed the slot but not yet written it
+            Runnable work = ring.get(slot);
+            if (work != null) {
+                ring.set(slot, null);
+                head = head + 1;
+            }
+            return work;
+        }
+
+        private boolean hasWork() {
+            return !inbox.isEmpty() || tail.get() != head;
+        }
+
+        private void wake() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                Runnable work = inbox.poll();
+                if (work == null) {
+                    work = poll();
+                }
+                if (work != null) {
+                    work.run();
+                    processed = processed + 1;
+                    continue;
+                }
+                // Producers write their slot and then read parked; checking for work after
+                // setting it means a wake-up cannot be missed.
+                parked = true;
+                if (!hasWork() && !stopped) {
+                    LockSupport.park(this);
+                } else {
+                    Thread.onSpinWait();
+                }
+                parked = false;
+            }
+        }
+    }
+
+    private final class ShardThread extends Thread {
+        private ShardThread(Shard shard, String name) {
+            super(shard, name);
+            setDaemon(true);
+        }
+
+        private ShardedTransactionEngine engine() {
+            return ShardedTransactionEngine.this;
+        }
+    }
+}
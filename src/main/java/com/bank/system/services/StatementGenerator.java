@@ -1,7 +1,10 @@
 package com.bank.system.services;
 
+import com.bank.system.enums.TransactionType;
 import com.bank.system.models.Account;
+import com.bank.system.models.Money;
 import com.bank.system.models.Transaction;
+import com.bank.system.models.TransactionAggregate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,7 +26,8 @@ public class StatementGenerator {
             return "Error: Account not found. Please check the account number and try again.";
         }
         
-        List<Transaction> transactions = transactionManager.getTransactionsForAccount(accountNumber);
+        List<Transaction> transactions = transactionManager.getTransactionsNewestFirst(accountNumber);
+        long unloaded = transactionManager.getUnloadedTransactionCount(accountNumber);
 
         StringBuilder statement = new StringBuilder();
         statement.append(" \n");
@@ -42,9 +46,9 @@ public class StatementGenerator {
         statement.append("Account Type: ")
                 .append(account.getClass().getSimpleName())
                 .append("\n");
-        statement.append(String.format("Current Balance: $%,.2f%n%n", account.getBalance()));
+        statement.append("Current Balance: $").append(Money.formatGrouped(account.getBalanceMinor())).append("\n\n");
 
-        if (transactions.isEmpty()) {
+        if (transactions.isEmpty() && unloaded == 0) {
             statement.append(separator(50)).append("\n");
             statement.append("No transactions found for this account.\n");
             statement.append(separator(50)).append("\n");
@@ -55,30 +59,39 @@ public class StatementGenerator {
                     "TXN ID", "DATE/TIME", "TYPE", "AMOUNT", "BALANCE AFTER"));
             statement.append(subSeparator(90)).append("\n");
 
-            List<Transaction> sortedTransactions = transactionManager.sortTransactionsByTimestampDesc(transactions);
-            for (Transaction transaction : sortedTransactions) {
+            for (Transaction transaction : transactions) {
                 String sign = transactionManager.isCreditTransaction(transaction) ? "+" : "-";
-                statement.append(String.format("%-12s | %-20s | %-12s | %s$%,12.2f | $%,15.2f%n",
+                statement.append(String.format("%-12s | %-20s | %-12s | %s$%12s | $%15s%n",
                         transaction.getTransactionId(),
                         transaction.getTimestamp(),
                         transaction.getType(),
                         sign,
-                        transaction.getAmount(),
-                        transaction.getBalanceAfter()));
+                        Money.formatGrouped(transaction.getAmountMinor()),
+                        Money.formatGrouped(transaction.getBalanceAfterMinor())));
             }
 
-            double netChange = transactionManager.getTotalDeposits(accountNumber) - transactionManager.getTotalWithdrawals(accountNumber);
-            statement.append(subSeparator(90)).append("\n\n");
+            TransactionAggregate aggregate = transactionManager.getAggregate(accountNumber);
+            long netChange = aggregate.getNetChangeMinor();
+            statement.append(subSeparator(90)).append("\n");
+            if (unloaded > 0) {
+                // Started from a snapshot: older rows are only in the totals below
+                statement.append("History truncated: ").append(unloaded)
+                        .append(" earlier transactions are not listed but are included in the summary.\n")
+                        .append("Use Save/Load Data > Load Data from Files to show the full history.\n");
+            }
+            statement.append("\n");
             statement.append("SUMMARY:\n");
             statement.append(subSeparator(35)).append("\n");
-            statement.append("Total Transactions: ").append(transactions.size()).append("\n");
-            statement.append(String.format("Total Deposits: $%,.2f%n", transactionManager.getTotalDeposits(accountNumber)));
-            statement.append(String.format("Total Withdrawals: $%,.2f%n", transactionManager.getTotalWithdrawals(accountNumber)));
-            statement.append(String.format("Total Received: $%,.2f%n", transactionManager.getTotalReceived(accountNumber)));
-            statement.append(String.format("Total Sent: $%,.2f%n", transactionManager.getTotalTranfer(accountNumber)));
-            statement.append(String.format("Net Change: %s$%,.2f%n",
-                    netChange >= 0 ? "+" : "-",
-                    Math.abs(netChange)));
+            statement.append("Total Transactions: ").append(transactions.size() + unloaded).append("\n");
+            statement.append("Total Deposits: $").append(Money.formatGrouped(aggregate.getSumMinor(TransactionType.DEPOSIT))).append("\n");
+            statement.append("Total Withdrawals: $").append(Money.formatGrouped(aggregate.getTotalOutflowMinor())).append("\n");
+            statement.append("Total Received: $").append(Money.formatGrouped(aggregate.getSumMinor(TransactionType.RECEIVE))).append("\n");
+            statement.append("Total Sent: $").append(Money.formatGrouped(aggregate.getSumMinor(TransactionType.TRANSFER))).append("\n");
+            statement.append("Net Change: ")
+                    .append(netChange >= 0 ? "+" : "-")
+                    .append("$")
+                    .append(Money.formatGrouped(Math.abs(netChange)))
+                    .append("\n");
         }
         
         statement.append("\n✓ Statement generated successfully.");
@@ -0,0 +1,81 @@
+package com.bank.system.services;
+
+import com.bank.system.models.Transaction;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Set of transaction IDs for deduplicating loads and saves. Generated IDs are kept by sequence
+ * number in an open-addressing {@code long[]} table, about 16 bytes an ID instead of a String
+ * and a hash entry; only IDs in other forms go to a HashSet. Not thread-safe.
+ */
+final class TransactionIdSet {
+    private static final long EMPTY = Transaction.NO_SEQUENCE;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] table = newTable(INITIAL_CAPACITY);
+    private int sequenceCount;
+    private final Set<String> irregularIds = new HashSet<>();
+
+    /**
+     * Adds the ID; returns false if it was already present.
+     */
+    boolean add(String transactionId) {
+        long sequence = Transaction.parseSequence(transactionId);
+        if (sequence == Transaction.NO_SEQUENCE) {
+            return irregularIds.add(transactionId);
+        }
+        return addSequence(sequence);
+    }
+
+    int size() {
+        return sequenceCount + irregularIds.size();
+    }
+
+    private boolean addSequence(long sequence) {
+        // Kept at most half full so probe runs stay short
+        if ((sequenceCount + 1) * 2 > table.length) {
+            grow();
+        }
+        int mask = table.length - 1;
+        for (int slot = hash(sequence) & mask; ; slot = (slot + 1) & mask) {
+            if (table[slot] == sequence) {
+                return false;
+            }
+            if (table[slot] == EMPTY) {
+                table[slot] = sequence;
+                sequenceCount++;
+                return true;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = newTable(old.length * 2);
+        int mask = table.length - 1;
+        for (long sequence : old) {
+            if (sequence != EMPTY) {
+                int slot = hash(sequence) & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = sequence;
+            }
+        }
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    // Sequences are mostly consecutive, so spread them before masking
+    private static int hash(long sequence) {
+        long mixed = sequence * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -0,0 +1,514 @@
+package com.bank.system.services;
+
+import com.bank.system.enums.TransactionType;
+import com.bank.system.models.Transaction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.bank.system.utils.ConsoleUtil.print;
+
+/**
+ * Append-only journal of committed transactions, written in the transactions file format so
+ * the file stays readable by {@link FilePersistence#loadTransactions()}. A removed transaction
+ * is appended as a void line that carries its ID, its type after {@value #VOID_TYPE}{@code :},
+ * its amount and the account's balance after the removal, so the removal can be undone from
+ * totals without looking the row up. Files journaled before voids carried the row's type have
+ * plain {@value #VOID_TYPE} lines with a zero amount.
+ *
+ * <p>Appending only puts a small entry on a lock-free queue. A dedicated writer thread formats
+ * the lines, writes them and forces them to disk according to the {@link SyncPolicy}, so no
+ * append waits on a shared monitor or on the disk. Entries are taken in queue order, and callers
+ * append while they still hold the account's lock or shard, so every account's rows appear in
+ * balance order. A failed write keeps the bytes not yet written and the next pass resumes from
+ * there, so a line cut short by the failure is completed rather than sent again.</p>
+ *
+ * <p>Under {@link SyncPolicy#everyRecord()} an operation is not acknowledged until its rows are
+ * forced: {@link #whenDurable()} completes once the writer has forced everything appended so
+ * far, so operations appended close together share one force. Callers wait for it after
+ * releasing their account locks, never while holding them.</p>
+ *
+ * <p>An operation that changes state and then journals it calls {@link #admit()} before the
+ * change and {@link #release()} after its last append. {@link #close()} waits for admitted
+ * operations, so a row committed in memory is never refused by a journal closing under it.</p>
+ */
+public final class TransactionJournal implements AutoCloseable {
+    public static final String VOID_TYPE = "VOID";
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final String[] VOID_TYPES = Arrays.stream(TYPES)
+            .map(type -> VOID_TYPE + ':' + type.name())
+            .toArray(String[]::new);
+
+    // Pending lines are written, without forcing, once they reach this size
+    private static final int WRITE_THRESHOLD_CHARS = 64 * 1024;
+    // Upper bound on how long an idle writer sleeps when appends wake it anyway
+    private static final long IDLE_PARK_MILLIS = 100;
+    private static final CompletableFuture<Void> DURABLE = CompletableFuture.completedFuture(null);
+
+    private final Path file;
+    private final FileChannel channel;
+    private final SyncPolicy policy;
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final LongAdder appended = new LongAdder();
+    // Callers of whenDurable() still waiting for a force, with the record count they need
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Thread writer;
+    private volatile boolean writerWaiting;
+    private volatile boolean closed;
+    // Operations between admit() and release(); close() drains the queue once there are none
+    private final AtomicInteger admitted = new AtomicInteger();
+    private volatile boolean finalDrain;
+    private volatile boolean channelClosed;
+    // Guarded by writeLock; only the writer thread, sync() and close() take it
+    private final Object writeLock = new Object();
+    private final StringBuilder pending = new StringBuilder();
+    private long pendingRecords;
+    // Encoded lines a failed write left partly on disk, and how many records they hold
+    private ByteBuffer unwritten;
+    private long unwrittenRecords;
+    private long unforcedRecords;
+    private long lastForceNanos = System.nanoTime();
+    private volatile long durable;
+    private volatile long writeErrors;
+
+    public TransactionJournal(Path file, SyncPolicy policy) throws IOException {
+        this.file = file;
+        this.policy = policy;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (!endsWithNewline(file)) {
+            pending.append(System.lineSeparator());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        writer = new Thread(this::writeContinuously, "txn-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // A hand-edited file may lack the final newline; the first appended line must not join it
+    private static boolean endsWithNewline(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return true;
+        }
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = reader.size();
+            if (size == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            reader.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    public void append(Transaction transaction) {
+        long epochMillis = transaction.getEpochMillis();
+        enqueue(new Entry(Transaction.NO_SEQUENCE, transaction.getTransactionId(), transaction.getAccountNumber(),
+                transaction.getType(), transaction.getAmountMinor(), transaction.getBalanceAfterMinor(), epochMillis,
+                epochMillis == Transaction.NO_TIMESTAMP ? transaction.getStoredTimestamp() : null));
+    }
+
+    /**
+     * Appends a row recorded without a Transaction object; the ID and timestamp are formatted
+     * on the writer thread.
+     */
+    public void append(long sequence, String accountNumber, TransactionType type,
+                       long amountMinor, long balanceAfterMinor, long epochMillis) {
+        enqueue(new Entry(sequence, null, accountNumber, type.name(), amountMinor, balanceAfterMinor, epochMillis, null));
+    }
+
+    public void append(String transactionId, String accountNumber, String type,
+                       long amountMinor, long balanceAfterMinor, String storedTimestamp) {
+        enqueue(new Entry(Transaction.NO_SEQUENCE, transactionId, accountNumber, type, amountMinor,
+                balanceAfterMinor, Transaction.NO_TIMESTAMP, storedTimestamp));
+    }
+
+    /**
+     * Records that a transaction of the given type and amount was removed, with the account's
+     * balance once it was. A null type writes a plain {@value #VOID_TYPE} line.
+     */
+    public void appendVoid(String transactionId, String accountNumber, TransactionType type, long amountMinor,
+                           long balanceAfterMinor) {
+        enqueue(new Entry(Transaction.NO_SEQUENCE, transactionId, accountNumber,
+                type == null ? VOID_TYPE : voidType(type), type == null ? 0 : amountMinor, balanceAfterMinor,
+                System.currentTimeMillis(), null));
+    }
+
+    /**
+     * The type written on the void line of a removed row of the given type.
+     */
+    public static String voidType(TransactionType type) {
+        return VOID_TYPES[type.ordinal()];
+    }
+
+    public static boolean isVoid(String type) {
+        return type != null && type.startsWith(VOID_TYPE)
+                && (type.length() == VOID_TYPE.length() || type.charAt(VOID_TYPE.length()) == ':');
+    }
+
+    /**
+     * The type of the row a void line removed, or null for a plain {@value #VOID_TYPE} line.
+     */
+    public static TransactionType voidedType(String type) {
+        for (int i = 0; i < VOID_TYPES.length; i++) {
+            if (VOID_TYPES[i].equals(type)) {
+                return TYPES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registers an operation that is about to change state and journal it. Returns false once
+     * the journal is closing; the operation should then go ahead without journaling.
+     */
+    public boolean admit() {
+        admitted.incrementAndGet();
+        if (closed) {
+            admitted.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Ends an operation registered with {@link #admit()}, after its last append.
+     */
+    public void release() {
+        admitted.decrementAndGet();
+    }
+
+    private void enqueue(Entry entry) {
+        // Only reachable by callers that skipped admit(); admitted appends always precede the final drain
+        if (finalDrain) {
+            throw new IllegalStateException("Transaction journal is closed");
+        }
+        queue.add(entry);
+        appended.increment();
+        // Interval syncs wake on their own; the other policies want the writer right away
+        if (writerWaiting && policy.mode != SyncMode.INTERVAL) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Completes once every record appended so far, including the caller's own, is forced to
+     * disk. Only the per-record policy waits; the others acknowledge ahead of the disk by
+     * design, so the future is already complete. If the journal is closed before a failing disk
+     * recovers, waiters are released anyway and the failure shows in {@link #getWriteErrors()}.
+     */
+    public CompletableFuture<Void> whenDurable() {
+        if (policy.mode != SyncMode.EVERY_RECORD) {
+            return DURABLE;
+        }
+        // Appends are counted after they are queued, so this covers the caller's own records
+        long needed = appended.sum();
+        if (durable >= needed) {
+            return DURABLE;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        waiters.add(new Waiter(needed, future));
+        // The writer may have forced between the check above and the add
+        if (durable >= needed || channelClosed) {
+            releaseWaiters();
+        }
+        return future;
+    }
+
+    /**
+     * Blocks until {@link #whenDurable()} completes.
+     */
+    public void awaitDurable() {
+        CompletableFuture<Void> future = whenDurable();
+        if (future != DURABLE) {
+            future.join();
+        }
+    }
+
+    private void releaseWaiters() {
+        long forced = durable;
+        boolean all = channelClosed;
+        for (Iterator<Waiter> iterator = waiters.iterator(); iterator.hasNext(); ) {
+            Waiter waiter = iterator.next();
+            if (all || waiter.needed <= forced) {
+                iterator.remove();
+                waiter.future.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Writes every line appended so far and forces it to disk, whatever the policy. Returns how
+     * many records this made durable; their number, not the journal's size, sets the cost.
+     */
+    public long sync() {
+        long synced;
+        synchronized (writeLock) {
+            long before = durable;
+            drainLocked();
+            forceLocked();
+            synced = durable - before;
+        }
+        releaseWaiters();
+        return synced;
+    }
+
+    // Interval syncs sleep a full interval between passes; the other policies sleep only while
+    // the queue is empty and are woken by the next append
+    private void writeContinuously() {
+        boolean interval = policy.mode == SyncMode.INTERVAL;
+        long parkNanos = TimeUnit.MILLISECONDS.toNanos(interval ? policy.every : IDLE_PARK_MILLIS);
+        while (!closed) {
+            if (interval || queue.isEmpty()) {
+                writerWaiting = true;
+                // Checked again after announcing, so an append in between is not missed
+                if ((interval || queue.isEmpty()) && !closed) {
+                    LockSupport.parkNanos(this, parkNanos);
+                }
+                writerWaiting = false;
+            }
+            synchronized (writeLock) {
+                if (closed) {
+                    return;
+                }
+                drainLocked();
+                if (forceDueLocked()) {
+                    forceLocked();
+                } else if (pending.length() >= WRITE_THRESHOLD_CHARS) {
+                    writeLocked();
+                }
+            }
+            // Outside the lock: waiters' continuations run on this thread
+            if (!waiters.isEmpty()) {
+                releaseWaiters();
+            }
+        }
+    }
+
+    private void drainLocked() {
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            FilePersistence.appendTransactionLine(pending,
+                    entry.transactionId != null ? entry.transactionId : Transaction.formatId(entry.sequence),
+                    entry.accountNumber, entry.type, entry.amountMinor, entry.balanceAfterMinor,
+                    entry.storedTimestamp != null ? entry.storedTimestamp
+                            : Transaction.formatStoredTimestamp(entry.epochMillis));
+            pending.append(System.lineSeparator());
+            pendingRecords++;
+            if (pending.length() >= WRITE_THRESHOLD_CHARS) {
+                writeLocked();
+            }
+        }
+    }
+
+    private boolean forceDueLocked() {
+        long unsynced = unforcedRecords + unwrittenRecords + pendingRecords;
+        return switch (policy.mode) {
+            case EVERY_RECORD -> unsynced > 0;
+            case RECORDS -> unsynced >= policy.every;
+            case INTERVAL -> unsynced > 0
+                    && System.nanoTime() - lastForceNanos >= TimeUnit.MILLISECONDS.toNanos(policy.every);
+        };
+    }
+
+    private void forceLocked() {
+        if (!writeLocked()) {
+            return;
+        }
+        try {
+            // Data-only force; on an append it still covers the new file length
+            channel.force(false);
+            durable += unforcedRecords;
+            unforcedRecords = 0;
+            lastForceNanos = System.nanoTime();
+        } catch (IOException e) {
+            reportWriteError(e);
+        }
+    }
+
+    private boolean writeLocked() {
+        if (unwritten == null) {
+            if (pending.isEmpty()) {
+                return true;
+            }
+            unwritten = StandardCharsets.UTF_8.encode(CharBuffer.wrap(pending));
+            unwrittenRecords = pendingRecords;
+            pending.setLength(0);
+            pendingRecords = 0;
+        }
+        try {
+            // The buffer's position counts the bytes already on disk, so a retry starts after them
+            while (unwritten.hasRemaining()) {
+                channel.write(unwritten);
+            }
+        } catch (IOException e) {
+            reportWriteError(e);
+            return false;
+        }
+        unwritten = null;
+        unforcedRecords += unwrittenRecords;
+        unwrittenRecords = 0;
+        // Lines drained while a retry was outstanding follow it
+        return writeLocked();
+    }
+
+    private void reportWriteError(IOException e) {
+        writeErrors++;
+        print("Error writing transaction journal " + file + ": " + e.getMessage());
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public SyncPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getAppended() {
+        return appended.sum();
+    }
+
+    // Appended but not yet forced to disk
+    public long getUnsynced() {
+        return appended.sum() - durable;
+    }
+
+    public long getWriteErrors() {
+        return writeErrors;
+    }
+
+    /**
+     * Stops admitting operations and waits for those already admitted, then stops the writer,
+     * syncs whatever is pending and closes the file. Later appends are refused.
+     */
+    @Override
+    public void close() {
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        while (admitted.get() > 0) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writeLock) {
+            finalDrain = true;
+            drainLocked();
+            forceLocked();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                reportWriteError(e);
+            }
+            channelClosed = true;
+        }
+        releaseWaiters();
+    }
+
+    private record Waiter(long needed, CompletableFuture<Void> future) {
+    }
+
+    // One appended row; formatting is left to the writer thread
+    private record Entry(long sequence, String transactionId, String accountNumber, String type,
+                         long amountMinor, long balanceAfterMinor, long epochMillis, String storedTimestamp) {
+    }
+
+    private enum SyncMode {
+        EVERY_RECORD,
+        INTERVAL,
+        RECORDS
+    }
+
+    /**
+     * When the writer forces appended records to disk: as soon as it picks any up, every N
+     * milliseconds, or every N records. Records appended together are forced together. With
+     * {@link #everyRecord()} operations wait for their force before they are acknowledged, so
+     * an acknowledged operation survives a crash; the other two acknowledge first, and anything
+     * not yet forced, including records still queued, is lost in a crash.
+     */
+    public static final class SyncPolicy {
+        public static final String PROPERTY = "bank.journal.sync";
+
+        private final SyncMode mode;
+        private final long every;
+
+        private SyncPolicy(SyncMode mode, long every) {
+            if (every <= 0) {
+                throw new IllegalArgumentException("Journal sync interval must be greater than 0");
+            }
+            this.mode = mode;
+            this.every = every;
+        }
+
+        public static SyncPolicy everyRecord() {
+            return new SyncPolicy(SyncMode.EVERY_RECORD, 1);
+        }
+
+        public static SyncPolicy everyMillis(long millis) {
+            return new SyncPolicy(SyncMode.INTERVAL, millis);
+        }
+
+        public static SyncPolicy everyRecords(long records) {
+            return new SyncPolicy(SyncMode.RECORDS, records);
+        }
+
+        /**
+         * Parses {@code record}, {@code interval:<millis>} or {@code records:<count>}.
+         */
+        public static SyncPolicy parse(String value) {
+            String[] parts = value.trim().toLowerCase(Locale.ROOT).split(":", 2);
+            return switch (parts[0]) {
+                case "record" -> everyRecord();
+                case "interval" -> everyMillis(parts.length == 2 ? Long.parseLong(parts[1]) : 100);
+                case "records" -> everyRecords(parts.length == 2 ? Long.parseLong(parts[1]) : 100);
+                default -> throw new IllegalArgumentException("Unknown journal sync policy: " + value);
+            };
+        }
+
+        /**
+         * Reads {@code -Dbank.journal.sync}; syncs every 100 ms when unset, and returns null for
+         * {@code off}, which keeps the old save-time full rewrite.
+         */
+        public static SyncPolicy fromSystemProperty() {
+            String value = System.getProperty(PROPERTY);
+            if (value == null || value.isBlank()) {
+                return everyMillis(100);
+            }
+            return "off".equalsIgnoreCase(value.trim()) ? null : parse(value);
+        }
+
+        @Override
+        public String toString() {
+            return switch (mode) {
+                case EVERY_RECORD -> "every record";
+                case INTERVAL -> "every " + every + " ms";
+                case RECORDS -> "every " + every + " records";
+            };
+        }
+    }
+}
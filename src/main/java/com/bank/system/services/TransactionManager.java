@@ -1,22 +1,69 @@
 package com.bank.system.services;
 
+import com.bank.system.enums.TransactionResult;
 import com.bank.system.enums.TransactionType;
+import com.bank.system.exceptions.InsufficientFundsException;
 import com.bank.system.exceptions.InvalidAmountException;
+import com.bank.system.exceptions.OverdraftExceededException;
 import com.bank.system.models.Account;
+import com.bank.system.models.BatchOperation;
+import com.bank.system.models.BatchResult;
+import com.bank.system.models.LedgerSnapshot;
+import com.bank.system.models.Money;
 import com.bank.system.models.Transaction;
+import com.bank.system.models.TransactionAggregate;
+import com.bank.system.utils.ValidationUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 public class TransactionManager {
-    private final List<Transaction> allTransactions;
+    private static final int BATCH_CHUNK_SIZE = 256;
+    // A chunk over many accounts would otherwise hold nearly every stripe and stall all
+    // single-operation callers until it finishes
+    private static final int BATCH_MAX_STRIPES = 8;
+
+    // The store and its per-account index, replaced together by setTransactions; appends and
+    // reads never lock it, and read it once per call so positions match the store
+    private volatile Ledger ledger;
+    private final Map<String, TransactionAggregate> aggregatesByAccount;
+    // Totals of history covered by a snapshot but not loaded; aggregates start from these
+    private volatile Map<String, TransactionAggregate> carriedAggregates = Map.of();
+    // Highest sequence number covered by the snapshot the history was started from
+    private volatile long carriedSequence = Transaction.NO_SEQUENCE;
     private final AccountManager accountManager;
+    private final AccountLockManager lockManager;
+    // Non-null while the sharded engine mode is on; every balance change then runs on a shard
+    private volatile ShardedTransactionEngine engine;
+    private final TransactionMetrics metrics = new TransactionMetrics();
+    // Non-null once persistence has opened the journal; every recorded or removed transaction
+    // is appended to it by the thread that holds the account. Operations admit themselves to it
+    // before changing anything and pass the admitted journal down to the recording methods.
+    private volatile TransactionJournal journal;
 
     public TransactionManager(AccountManager accountManager) {
+        this(accountManager, new AccountLockManager());
+    }
+
+    public TransactionManager(AccountManager accountManager, AccountLockManager lockManager) {
         this.accountManager = accountManager;
-        this.allTransactions = Collections.synchronizedList(new ArrayList<>());
+        this.lockManager = lockManager;
+        this.ledger = new Ledger(new TransactionStore());
+        this.aggregatesByAccount = new ConcurrentHashMap<>();
     }
 
 
@@ -26,164 +73,978 @@ public class TransactionManager {
             return;
         }
 
-        allTransactions.add(transaction);
+        TransactionJournal journal = admitJournal();
+        try {
+            appendTransaction(journal, transaction);
+        } finally {
+            releaseJournal(journal);
+        }
+        awaitDurable(journal, true);
+    }
+
+    // The journal, registered for one operation that is about to change state, so closing it
+    // waits for the operation's rows; null when journaling is off or the journal is closing
+    private TransactionJournal admitJournal() {
+        TransactionJournal current = journal;
+        return current != null && current.admit() ? current : null;
+    }
+
+    private static void releaseJournal(TransactionJournal journal) {
+        if (journal != null) {
+            journal.release();
+        }
+    }
+
+    // Under the per-record sync policy, holds back the acknowledgement of an operation that
+    // recorded something until its rows are forced; called once the account locks are released
+    private static void awaitDurable(TransactionJournal journal, boolean recorded) {
+        if (journal != null && recorded) {
+            journal.awaitDurable();
+        }
+    }
+
+    // The engine form of awaitDurable: completes with the result once its rows are forced
+    private static CompletableFuture<TransactionResult> whenDurable(TransactionJournal journal,
+                                                                    TransactionResult result) {
+        if (journal == null || !result.isApproved()) {
+            return CompletableFuture.completedFuture(result);
+        }
+        return journal.whenDurable().thenApply(ignored -> result);
     }
 
 
+    /**
+     * Appends every transaction recorded or removed from now on to the given journal; null
+     * stops journaling. History already in the ledger is not written. Operations already under
+     * way keep journaling to the journal they started with, and closing it waits for them.
+     */
+    public void setJournal(TransactionJournal journal) {
+        this.journal = journal;
+    }
+
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    public AccountLockManager getLockManager() {
+        return lockManager;
+    }
+
     public int getTransactionCount() {
-        return allTransactions.size();
+        return ledger.store.size();
+    }
+
+    public TransactionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Switches to the sharded engine: from now on deposits, withdrawals, transfers and batches
+     * run on single-threaded shards that own their accounts, without account locks. The
+     * synchronous methods wait for the shard's result. Start and stop the engine while no
+     * transactions are in progress.
+     */
+    public synchronized void startEngine(int shards) {
+        if (engine != null) {
+            throw new IllegalStateException("Transaction engine is already running");
+        }
+        engine = new ShardedTransactionEngine(shards);
+    }
+
+    /**
+     * Lets the engine finish the work it has accepted, then returns to the locking mode.
+     */
+    public synchronized void stopEngine() {
+        ShardedTransactionEngine current = engine;
+        if (current != null) {
+            current.close();
+            engine = null;
+        }
+    }
+
+    // Null unless the sharded engine mode is on
+    public ShardedTransactionEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Deposits on the account's shard when the engine is running; otherwise completes at once
+     * with the result of {@link #deposit}. Failures complete the future exceptionally.
+     */
+    public CompletableFuture<Boolean> depositAsync(String accountNumber, double amount) {
+        return singleAsync(TransactionType.DEPOSIT, "Deposit", accountNumber, amount);
+    }
+
+    /**
+     * Withdraws on the account's shard when the engine is running; otherwise completes at once
+     * with the result of {@link #withdraw}. Failures complete the future exceptionally.
+     */
+    public CompletableFuture<Boolean> withdrawAsync(String accountNumber, double amount) {
+        return singleAsync(TransactionType.WITHDRAWAL, "Withdrawal", accountNumber, amount);
+    }
+
+    private CompletableFuture<Boolean> singleAsync(TransactionType type, String context, String accountNumber,
+                                                   double amount) {
+        ShardedTransactionEngine current = engine;
+        if (current == null) {
+            try {
+                return CompletableFuture.completedFuture(single(type, context, accountNumber, amount));
+            } catch (InvalidAmountException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        long start = System.nanoTime();
+        Account account;
+        long amountMinor;
+        try {
+            account = fetchAccount(accountNumber);
+            amountMinor = toMinorAmount(amount, context);
+        } catch (InvalidAmountException e) {
+            metrics.recordError(type, start);
+            return CompletableFuture.failedFuture(e);
+        }
+        DeclinedBalance declined = new DeclinedBalance();
+        return metrics.observe(type, start, amountMinor, submitSingle(current, account, type, amountMinor, declined))
+                .thenApply(result -> legacyOutcome(result, account, amountMinor, declined));
+    }
+
+    /**
+     * Transfers through the engine's debit/credit protocol when it is running; otherwise
+     * completes at once with the result of {@link #transfer}. The future completes once the
+     * destination is credited, or after the source has been refunded.
+     */
+    public CompletableFuture<Boolean> transferAsync(String fromAccountNumber, String toAccountNumber, double amount) {
+        ShardedTransactionEngine current = engine;
+        if (current == null) {
+            try {
+                return CompletableFuture.completedFuture(transfer(fromAccountNumber, toAccountNumber, amount));
+            } catch (InvalidAmountException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        long start = System.nanoTime();
+        Account from;
+        Account to;
+        long amountMinor;
+        try {
+            checkTransferAccounts(fromAccountNumber, toAccountNumber);
+            amountMinor = toMinorAmount(amount, "Transfer");
+            from = fetchAccount(fromAccountNumber);
+            to = fetchAccount(toAccountNumber);
+        } catch (InvalidAmountException | IllegalArgumentException e) {
+            metrics.recordError(TransactionType.TRANSFER, start);
+            return CompletableFuture.failedFuture(e);
+        }
+        DeclinedBalance declined = new DeclinedBalance();
+        return metrics.observe(TransactionType.TRANSFER, start, amountMinor,
+                        submitTransfer(current, from, to, amountMinor, declined))
+                .thenApply(result -> legacyOutcome(result, from, amountMinor, declined));
     }
 
     public  boolean deposit(String accountNumber, double amount) throws InvalidAmountException {
-        Account account = fetchAccount(accountNumber);
-        validateAmount(amount, "Deposit");
-        boolean success = account.processTransaction(amount, TransactionType.DEPOSIT);
-        if (success) {
-            recordTransaction(account, TransactionType.DEPOSIT, amount);
+        if (engine != null) {
+            return await(depositAsync(accountNumber, amount));
         }
-        return success;
+        return single(TransactionType.DEPOSIT, "Deposit", accountNumber, amount);
     }
 
     public  boolean withdraw(String accountNumber, double amount) throws InvalidAmountException {
-        Account account = fetchAccount(accountNumber);
-        validateAmount(amount, "Withdrawal");
-        boolean success = account.processTransaction(amount, TransactionType.WITHDRAWAL);
-        if (success) {
-            recordTransaction(account, TransactionType.WITHDRAWAL, amount);
+        if (engine != null) {
+            return await(withdrawAsync(accountNumber, amount));
         }
-        return success;
+        return single(TransactionType.WITHDRAWAL, "Withdrawal", accountNumber, amount);
+    }
+
+    // Locking path of deposit and withdraw
+    private boolean single(TransactionType type, String context, String accountNumber, double amount)
+            throws InvalidAmountException {
+        long start = System.nanoTime();
+        Account account;
+        long amountMinor;
+        try {
+            account = fetchAccount(accountNumber);
+            amountMinor = toMinorAmount(amount, context);
+        } catch (InvalidAmountException e) {
+            metrics.recordError(type, start);
+            throw e;
+        }
+        DeclinedBalance declined = new DeclinedBalance();
+        TransactionResult result = applyLocked(account, type, amountMinor, declined);
+        metrics.record(type, start, amountMinor, result);
+        return legacyOutcome(result, account, amountMinor, declined);
     }
 
     public boolean transfer(String fromAccountNumber, String toAccountNumber, double amount)
             throws InvalidAmountException {
+        if (engine != null) {
+            return await(transferAsync(fromAccountNumber, toAccountNumber, amount));
+        }
+        long start = System.nanoTime();
+        Account fromAccount;
+        Account toAccount;
+        long amountMinor;
+        try {
+            checkTransferAccounts(fromAccountNumber, toAccountNumber);
+            amountMinor = toMinorAmount(amount, "Transfer");
+            fromAccount = fetchAccount(fromAccountNumber);
+            toAccount = fetchAccount(toAccountNumber);
+        } catch (InvalidAmountException | IllegalArgumentException e) {
+            metrics.recordError(TransactionType.TRANSFER, start);
+            throw e;
+        }
+        DeclinedBalance declined = new DeclinedBalance();
+        TransactionResult result = transferLocked(fromAccount, toAccount, amountMinor, declined);
+        metrics.record(TransactionType.TRANSFER, start, amountMinor, result);
+        return legacyOutcome(result, fromAccount, amountMinor, declined);
+    }
+
+    /**
+     * Deposits and reports the outcome as a result instead of an exception. Declines and bad
+     * input cost no more than an approval: nothing is thrown or allocated.
+     */
+    public TransactionResult tryDeposit(String accountNumber, double amount) {
+        return trySingle(TransactionType.DEPOSIT, accountNumber, amount);
+    }
+
+    /**
+     * Withdraws and reports the outcome as a result instead of an exception; see
+     * {@link #tryDeposit}.
+     */
+    public TransactionResult tryWithdraw(String accountNumber, double amount) {
+        return trySingle(TransactionType.WITHDRAWAL, accountNumber, amount);
+    }
+
+    private TransactionResult trySingle(TransactionType type, String accountNumber, double amount) {
+        long start = System.nanoTime();
+        Account account = findAccount(accountNumber);
+        long amountMinor = validMinorAmount(amount);
+        TransactionResult result;
+        if (account == null) {
+            result = TransactionResult.ACCOUNT_NOT_FOUND;
+        } else if (amountMinor == 0) {
+            result = TransactionResult.INVALID_AMOUNT;
+        } else {
+            ShardedTransactionEngine current = engine;
+            result = current == null
+                    ? applyLocked(account, type, amountMinor, null)
+                    : awaitResult(type, start, submitSingle(current, account, type, amountMinor, null));
+        }
+        metrics.record(type, start, amountMinor, result);
+        return result;
+    }
+
+    /**
+     * Transfers and reports the outcome as a result instead of an exception; see
+     * {@link #tryDeposit}. A decline names the source account's reason.
+     */
+    public TransactionResult tryTransfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        long start = System.nanoTime();
+        Account from = findAccount(fromAccountNumber);
+        Account to = findAccount(toAccountNumber);
+        long amountMinor = validMinorAmount(amount);
+        TransactionResult result;
+        if (from == null || to == null) {
+            result = TransactionResult.ACCOUNT_NOT_FOUND;
+        } else if (from == to) {
+            result = TransactionResult.SAME_ACCOUNT;
+        } else if (amountMinor == 0) {
+            result = TransactionResult.INVALID_AMOUNT;
+        } else {
+            ShardedTransactionEngine current = engine;
+            result = current == null
+                    ? transferLocked(from, to, amountMinor, null)
+                    : awaitResult(TransactionType.TRANSFER, start, submitTransfer(current, from, to, amountMinor, null));
+        }
+        metrics.record(TransactionType.TRANSFER, start, amountMinor, result);
+        return result;
+    }
+
+    private TransactionResult applyLocked(Account account, TransactionType type, long amountMinor,
+                                          LongConsumer declinedBalance) {
+        TransactionJournal journal = admitJournal();
+        TransactionResult result;
+        try (AccountLockManager.Held held = lockManager.acquire(account.getAccountNumber())) {
+            if (held == null) {
+                result = TransactionResult.LOCK_TIMEOUT;
+            } else {
+                result = account.applyMinor(amountMinor, type, declinedBalance);
+                if (result.isApproved()) {
+                    recordTransaction(journal, account, type, amountMinor);
+                }
+            }
+        } finally {
+            releaseJournal(journal);
+        }
+        awaitDurable(journal, result.isApproved());
+        return result;
+    }
+
+    private TransactionResult transferLocked(Account fromAccount, Account toAccount, long amountMinor,
+                                             LongConsumer declinedBalance) {
+        TransactionJournal journal = admitJournal();
+        TransactionResult result;
+        try {
+            result = transferUnderLock(journal, fromAccount, toAccount, amountMinor, declinedBalance);
+        } finally {
+            releaseJournal(journal);
+        }
+        awaitDurable(journal, result.isApproved());
+        return result;
+    }
+
+    private TransactionResult transferUnderLock(TransactionJournal journal, Account fromAccount, Account toAccount,
+                                                long amountMinor, LongConsumer declinedBalance) {
+        try (AccountLockManager.Held held = lockManager.acquire(fromAccount.getAccountNumber(),
+                toAccount.getAccountNumber())) {
+            if (held == null) {
+                return TransactionResult.LOCK_TIMEOUT;
+            }
+            TransactionResult debit = fromAccount.tryWithdrawMinor(amountMinor, declinedBalance);
+            if (!debit.isApproved()) {
+                return debit;
+            }
+
+            TransactionResult credit = toAccount.tryDepositMinor(amountMinor);
+            if (!credit.isApproved()) {
+                fromAccount.tryDepositMinor(amountMinor);
+                return credit;
+            }
+
+            recordTransaction(journal, fromAccount, TransactionType.TRANSFER, amountMinor);
+            recordTransaction(journal, toAccount, TransactionType.RECEIVE, amountMinor);
+            return TransactionResult.APPROVED;
+        }
+    }
+
+    // What the exception-based methods have always reported: false for a lock timeout, and the
+    // account's own exception, wrapped, for a decline. Only this legacy path builds exceptions.
+    private static boolean legacyOutcome(TransactionResult result, Account account, long amountMinor,
+                                         DeclinedBalance declined) {
+        return switch (result) {
+            case APPROVED -> true;
+            case INSUFFICIENT_FUNDS -> throw new RuntimeException(new InsufficientFundsException(
+                    account.describeDecline(amountMinor, declined.balanceMinor)));
+            case OVERDRAFT_EXCEEDED -> throw new RuntimeException(new OverdraftExceededException(
+                    account.describeDecline(amountMinor, declined.balanceMinor)));
+            default -> false;
+        };
+    }
+
+    // Keeps the balance a declined withdrawal saw, for the message built after the operation.
+    // Written on the thread that ran it; read after its future completes or its lock is released.
+    private static final class DeclinedBalance implements LongConsumer {
+        private long balanceMinor;
+
+        @Override
+        public void accept(long balanceMinor) {
+            this.balanceMinor = balanceMinor;
+        }
+    }
+
+    private static void checkTransferAccounts(String fromAccountNumber, String toAccountNumber) {
         if (fromAccountNumber == null || toAccountNumber == null) {
             throw new IllegalArgumentException("Account numbers must not be null");
         }
         if (fromAccountNumber.equals(toAccountNumber)) {
             throw new IllegalArgumentException("Cannot transfer to the same account");
         }
+    }
 
-        validateAmount(amount, "Transfer");
-        Account fromAccount = fetchAccount(fromAccountNumber);
-        Account toAccount = fetchAccount(toAccountNumber);
+    // Runs on the account's shard, which is its only writer, so no lock is taken
+    private CompletableFuture<TransactionResult> submitSingle(ShardedTransactionEngine engine, Account account,
+                                                              TransactionType type, long amountMinor,
+                                                              LongConsumer declinedBalance) {
+        TransactionJournal journal = admitJournal();
+        return engine.submit(account.getAccountNumber(), () -> {
+            TransactionResult result = account.applyMinor(amountMinor, type, declinedBalance);
+            if (result.isApproved()) {
+                recordTransaction(journal, account, type, amountMinor);
+            }
+            return result;
+        }).whenComplete((ignored, error) -> releaseJournal(journal))
+                .thenCompose(result -> whenDurable(journal, result));
+    }
 
-        Account firstLock = fromAccount;
-        Account secondLock = toAccount;
-        if (fromAccount.getAccountNumber().compareTo(toAccount.getAccountNumber()) > 0) {
-            firstLock = toAccount;
-            secondLock = fromAccount;
+    // Step one debits the source on its shard and records the outgoing leg. Step two credits the
+    // destination on its shard. If the credit fails, step three refunds the source on its shard
+    // and drops the outgoing leg.
+    private CompletableFuture<TransactionResult> submitTransfer(ShardedTransactionEngine engine, Account from,
+                                                                Account to, long amountMinor,
+                                                                LongConsumer declinedBalance) {
+        CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+        // Admitted once for all three steps; released when the transfer's outcome is known
+        TransactionJournal journal = admitJournal();
+        engine.submit(from.getAccountNumber(), () -> {
+            TransactionResult debit = from.tryWithdrawMinor(amountMinor, declinedBalance);
+            if (!debit.isApproved()) {
+                result.complete(debit);
+                return null;
+            }
+            Ledger debitLedger = ledger;
+            long debitPosition = recordTransaction(journal, debitLedger, from, TransactionType.TRANSFER, amountMinor);
+            engine.submit(to.getAccountNumber(), () -> {
+                try {
+                    TransactionResult credit = to.tryDepositMinor(amountMinor);
+                    if (credit.isApproved()) {
+                        recordTransaction(journal, to, TransactionType.RECEIVE, amountMinor);
+                        result.complete(credit);
+                        return null;
+                    }
+                    refund(engine, journal, from, amountMinor, debitLedger, debitPosition, result, credit, null);
+                } catch (RuntimeException e) {
+                    refund(engine, journal, from, amountMinor, debitLedger, debitPosition, result, null, e);
+                }
+                return null;
+            });
+            return null;
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            }
+        });
+        return result.whenComplete((ignored, error) -> releaseJournal(journal))
+                .thenCompose(outcome -> whenDurable(journal, outcome));
+    }
+
+    private void refund(ShardedTransactionEngine engine, TransactionJournal journal, Account from,
+                        long amountMinor, Ledger debitLedger, long debitPosition, CompletableFuture<TransactionResult> result,
+                        TransactionResult creditResult, RuntimeException cause) {
+        engine.submit(from.getAccountNumber(), () -> {
+            from.tryDepositMinor(amountMinor);
+            // The debit's position is known, so neither the store nor the history is searched
+            if (debitLedger.store.removeAt(debitPosition)) {
+                unindexRemoved(journal, debitLedger, debitPosition);
+            }
+            if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(creditResult);
+            }
+            return null;
+        });
+    }
+
+    // Waits for an engine result and rethrows what the task threw, as the locking path would
+    private static boolean await(CompletableFuture<Boolean> future) throws InvalidAmountException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InvalidAmountException invalid) {
+                throw invalid;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    // Engine tasks only fail unexpectedly, e.g. when the engine was stopped under the caller
+    private TransactionResult awaitResult(TransactionType type, long start,
+                                          CompletableFuture<TransactionResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            metrics.recordError(type, start);
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Applies many deposits, withdrawals and transfers, e.g. from a settlement file. Each account
+     * is looked up once per batch. Operations run in submission order, in chunks of up to
+     * {@value #BATCH_CHUNK_SIZE}; a chunk also ends before it would cover more than
+     * {@value #BATCH_MAX_STRIPES} lock stripes. Each chunk takes the locks of all its accounts in
+     * one acquisition and appends all its transactions to the store in one step. One operation failing does not
+     * stop the others; the result reports each operation separately.
+     *
+     * <p>With the sharded engine running, each valid operation is instead queued on its
+     * account's shard, and the call waits for all of them.
+     */
+    public BatchResult applyBatch(List<BatchOperation> operations) {
+        long startNanos = System.nanoTime();
+        BatchResult result = new BatchResult(operations.size());
+        Map<String, Account> accounts = new HashMap<>();
+        ShardedTransactionEngine current = engine;
+        if (current != null) {
+            applyOnEngine(current, operations, accounts, result);
+        } else {
+            for (int start = 0; start < operations.size(); ) {
+                start = applyChunk(operations, start, accounts, result);
+            }
+        }
+        metrics.recordBatch(operations, result, startNanos);
+        return result;
+    }
+
+    // Applies the chunk starting at start and returns where the next one starts
+    private int applyChunk(List<BatchOperation> operations, int start,
+                           Map<String, Account> accounts, BatchResult result) {
+        int limit = Math.min(operations.size(), start + BATCH_CHUNK_SIZE);
+        Set<String> lockSet = new HashSet<>();
+        BitSet stripes = new BitSet(lockManager.getStripeCount());
+        int stripeCount = 0;
+        int end = start;
+        for (; end < limit; end++) {
+            BatchOperation operation = operations.get(end);
+            String error = validate(operation, accounts);
+            if (error != null) {
+                result.markFailed(end, error);
+                continue;
+            }
+            int source = lockManager.stripeFor(operation.getAccountNumber());
+            String target = operation.getTargetAccountNumber();
+            int targetStripe = target == null ? source : lockManager.stripeFor(target);
+            int added = (stripes.get(source) ? 0 : 1)
+                    + (targetStripe == source || stripes.get(targetStripe) ? 0 : 1);
+            if (stripeCount > 0 && stripeCount + added > BATCH_MAX_STRIPES) {
+                break;
+            }
+            stripes.set(source);
+            stripes.set(targetStripe);
+            stripeCount += added;
+            lockSet.add(operation.getAccountNumber());
+            if (target != null) {
+                lockSet.add(target);
+            }
+        }
+        if (lockSet.isEmpty()) {
+            return end;
+        }
+
+        TransactionJournal journal = admitJournal();
+        boolean recordedAny = false;
+        try (AccountLockManager.Held held = lockManager.acquire(lockSet.toArray(new String[0]))) {
+            if (held == null) {
+                for (int i = start; i < end; i++) {
+                    if (!result.isFailed(i)) {
+                        result.markFailed(i, "Timed out waiting for account lock");
+                    }
+                }
+                return end;
+            }
+            List<Transaction> recorded = new ArrayList<>();
+            DeclinedBalance declined = new DeclinedBalance();
+            for (int i = start; i < end; i++) {
+                if (result.isFailed(i)) {
+                    continue;
+                }
+                BatchOperation operation = operations.get(i);
+                TransactionResult outcome = apply(operation, accounts, recorded, declined);
+                if (outcome.isApproved()) {
+                    result.markSucceeded(i);
+                } else {
+                    result.markFailed(i, declineMessage(outcome, accounts.get(operation.getAccountNumber()),
+                            operation.getAmountMinor(), declined));
+                }
+            }
+            // Appended while the chunk's locks are held, so each account's rows stay in balance order
+            appendTransactions(journal, recorded);
+            recordedAny = !recorded.isEmpty();
+        } finally {
+            releaseJournal(journal);
         }
+        awaitDurable(journal, recordedAny);
+        return end;
+    }
 
-        synchronized (firstLock) {
-            synchronized (secondLock) {
-                boolean withdrawalSuccess = fromAccount.processTransaction(amount, TransactionType.WITHDRAWAL);
-                if (!withdrawalSuccess) {
-                    return false;
+    private void applyOnEngine(ShardedTransactionEngine engine, List<BatchOperation> operations,
+                               Map<String, Account> accounts, BatchResult result) {
+        // Every account is resolved before the first task is queued, so shards only read the map
+        for (int i = 0; i < operations.size(); i++) {
+            String error = validate(operations.get(i), accounts);
+            if (error != null) {
+                result.markFailed(i, error);
+            }
+        }
+        List<CompletableFuture<TransactionResult>> pending = new ArrayList<>(Collections.nCopies(operations.size(), null));
+        DeclinedBalance[] declined = new DeclinedBalance[operations.size()];
+        // Held until every queued operation has finished; transfers also admit themselves
+        TransactionJournal journal = admitJournal();
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                if (result.isFailed(i)) {
+                    continue;
+                }
+                BatchOperation operation = operations.get(i);
+                DeclinedBalance operationDeclined = declined[i] = new DeclinedBalance();
+                if (operation.getType() == TransactionType.TRANSFER) {
+                    pending.set(i, submitTransfer(engine, accounts.get(operation.getAccountNumber()),
+                            accounts.get(operation.getTargetAccountNumber()), operation.getAmountMinor(), operationDeclined));
+                } else {
+                    pending.set(i, engine.submit(operation.getAccountNumber(), () -> {
+                        List<Transaction> recorded = new ArrayList<>(1);
+                        TransactionResult outcome = apply(operation, accounts, recorded, operationDeclined);
+                        appendTransactions(journal, recorded);
+                        return outcome;
+                    }));
+                }
+            }
+        } finally {
+            CompletableFuture.allOf(pending.stream().filter(Objects::nonNull).toArray(CompletableFuture[]::new))
+                    .whenComplete((ignored, error) -> releaseJournal(journal));
+        }
+        boolean recordedAny = false;
+        for (int i = 0; i < operations.size(); i++) {
+            CompletableFuture<TransactionResult> future = pending.get(i);
+            if (future == null) {
+                continue;
+            }
+            try {
+                TransactionResult outcome = future.join();
+                if (outcome.isApproved()) {
+                    result.markSucceeded(i);
+                    recordedAny = true;
+                } else {
+                    BatchOperation operation = operations.get(i);
+                    result.markFailed(i, declineMessage(outcome, accounts.get(operation.getAccountNumber()),
+                            operation.getAmountMinor(), declined[i]));
                 }
+            } catch (CompletionException e) {
+                result.markFailed(i, failureMessage(e.getCause()));
+            }
+        }
+        awaitDurable(journal, recordedAny);
+    }
+
+    // Account rule declines get the same wording as the exceptions the other methods throw
+    private static String declineMessage(TransactionResult result, Account account, long amountMinor,
+                                         DeclinedBalance declined) {
+        if (result == TransactionResult.INSUFFICIENT_FUNDS || result == TransactionResult.OVERDRAFT_EXCEEDED) {
+            return account.describeDecline(amountMinor, declined.balanceMinor);
+        }
+        return result.getDescription();
+    }
 
-                boolean depositSuccess = toAccount.processTransaction(amount, TransactionType.DEPOSIT);
-                if (!depositSuccess) {
-                    fromAccount.processTransaction(amount, TransactionType.DEPOSIT);
-                    return false;
+    // Account.processTransactionMinor wraps the checked exceptions; report the original message
+    private static String failureMessage(Throwable error) {
+        if (error instanceof RuntimeException && error.getCause() != null
+                && !(error.getCause() instanceof RuntimeException)) {
+            return error.getCause().getMessage();
+        }
+        return error.getMessage();
+    }
+
+    // Returns why the operation cannot run, or null; caches each account it resolves
+    private String validate(BatchOperation operation, Map<String, Account> accounts) {
+        if (operation == null || operation.getType() == null || operation.getAccountNumber() == null) {
+            return "Incomplete operation";
+        }
+        if (!ValidationUtils.validateAmountMinor(operation.getAmountMinor())) {
+            return "Amount must be greater than 0";
+        }
+        if (resolve(operation.getAccountNumber(), accounts) == null) {
+            return "Account not found: " + operation.getAccountNumber();
+        }
+        switch (operation.getType()) {
+            case DEPOSIT:
+            case WITHDRAWAL:
+                return null;
+            case TRANSFER:
+                String target = operation.getTargetAccountNumber();
+                if (target == null || target.equals(operation.getAccountNumber())) {
+                    return "Transfer needs a different destination account";
                 }
+                return resolve(target, accounts) == null ? "Account not found: " + target : null;
+            default:
+                return "Unsupported operation: " + operation.getType();
+        }
+    }
 
-                recordTransaction(fromAccount, TransactionType.TRANSFER, amount);
-                recordTransaction(toAccount, TransactionType.RECEIVE, amount);
-                return true;
+    private Account resolve(String accountNumber, Map<String, Account> accounts) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            account = accountManager.getAccount(accountNumber);
+            if (account != null) {
+                accounts.put(accountNumber, account);
             }
         }
+        return account;
+    }
+
+    // Returns the operation's outcome; on approval its rows are added to recorded
+    private TransactionResult apply(BatchOperation operation, Map<String, Account> accounts,
+                                    List<Transaction> recorded, LongConsumer declinedBalance) {
+        Account account = accounts.get(operation.getAccountNumber());
+        long amountMinor = operation.getAmountMinor();
+        switch (operation.getType()) {
+            case DEPOSIT:
+            case WITHDRAWAL:
+                TransactionResult result = account.applyMinor(amountMinor, operation.getType(), declinedBalance);
+                if (result.isApproved()) {
+                    recorded.add(newTransaction(account, operation.getType(), amountMinor));
+                }
+                return result;
+            case TRANSFER:
+                Account target = accounts.get(operation.getTargetAccountNumber());
+                TransactionResult debit = account.tryWithdrawMinor(amountMinor, declinedBalance);
+                if (!debit.isApproved()) {
+                    return debit;
+                }
+                TransactionResult credit = target.tryDepositMinor(amountMinor);
+                if (!credit.isApproved()) {
+                    account.tryDepositMinor(amountMinor);
+                    return credit;
+                }
+                recorded.add(newTransaction(account, TransactionType.TRANSFER, amountMinor));
+                recorded.add(newTransaction(target, TransactionType.RECEIVE, amountMinor));
+                return TransactionResult.APPROVED;
+            default:
+                throw new IllegalStateException("Unsupported operation: " + operation.getType());
+        }
+    }
+
+    private static Transaction newTransaction(Account account, TransactionType type, long amountMinor) {
+        return Transaction.ofMinorUnits(account.getAccountNumber(), type.name(), amountMinor, account.getBalanceMinor());
     }
 
+    /**
+     * Returns an account's transactions oldest first.
+     */
     public List<Transaction> getTransactionsForAccount(String accountNumber) {
-        return allTransactions.stream()
-                .filter(t -> isMatchingAccount(t, accountNumber))
-                .collect(Collectors.toList());
+        return materialize(ledger, accountNumber, false);
     }
 
-    public List<Transaction> getAllTransactions() {
-        synchronized (allTransactions) {
-            return new ArrayList<>(allTransactions);
+    /**
+     * Returns an account's transactions newest first, straight from the time-ordered index.
+     */
+    public List<Transaction> getTransactionsNewestFirst(String accountNumber) {
+        return materialize(ledger, accountNumber, true);
+    }
+
+    private static List<Transaction> materialize(Ledger current, String accountNumber, boolean newestFirst) {
+        long[] positions = current.history(accountNumber).snapshot();
+        TransactionStore store = current.store;
+        List<Transaction> transactions = new ArrayList<>(positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            Transaction transaction = store.get(positions[newestFirst ? positions.length - 1 - i : i]);
+            if (transaction != null) {
+                transactions.add(transaction);
+            }
         }
+        return transactions;
+    }
+
+    public List<Transaction> getAllTransactions() {
+        return ledger.store.snapshot();
+    }
+
+    /**
+     * Live, lock-free view of the ledger in append order, e.g. for saving without a copy.
+     */
+    public TransactionStore getTransactionStore() {
+        return ledger.store;
     }
 
     public int getTotalTransactions() {
-        return allTransactions.size();
+        return ledger.store.size();
     }
 
     public void removeTransaction(String transactionId) {
-        allTransactions.removeIf(transaction -> transaction.getTransactionId().equals(transactionId));
+        if (transactionId == null) {
+            return;
+        }
+        TransactionJournal journal = admitJournal();
+        boolean removed = false;
+        try {
+            Ledger current = ledger;
+            long position = current.store.remove(transactionId);
+            if (position >= 0) {
+                unindexRemoved(journal, current, position);
+                removed = true;
+            }
+        } finally {
+            releaseJournal(journal);
+        }
+        awaitDurable(journal, removed);
+    }
+
+    // Takes a row the store has just tombstoned out of its account's history and totals, and journals the void
+    private void unindexRemoved(TransactionJournal journal, Ledger current, long position) {
+        TransactionStore store = current.store;
+        String accountNumber = store.accountNumberAt(position);
+        if (accountNumber == null) {
+            return;
+        }
+        current.history(accountNumber).remove(position, store.timestampAt(position));
+        TransactionType type = store.typeAt(position);
+        long amountMinor = store.amountAt(position);
+        if (type != null) {
+            aggregateFor(accountNumber).rollback(type, amountMinor);
+        }
+        Account account = findAccount(accountNumber);
+        if (journal != null && account != null) {
+            journal.appendVoid(store.transactionIdAt(position), accountNumber, type, amountMinor,
+                    account.getBalanceMinor());
+        }
     }
 
     public Transaction getLastTransaction(String accountNumber) {
-        synchronized (allTransactions) {
-            for (int i = allTransactions.size() - 1; i >= 0; i--) {
-                Transaction transaction = allTransactions.get(i);
-                if (isMatchingAccount(transaction, accountNumber)) {
-                    return transaction;
-                }
+        Ledger current = ledger;
+        long position = current.history(accountNumber).last();
+        return position < 0 ? null : current.store.get(position);
+    }
+
+    private void appendTransactions(TransactionJournal journal, List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        Ledger current = ledger;
+        long first = current.store.appendAll(transactions);
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction transaction = transactions.get(i);
+            if (journal != null) {
+                journal.append(transaction);
             }
+            current.index(transaction.getAccountNumber(), first + i, transaction.getEpochMillis());
+            aggregateTransaction(transaction.getAccountNumber(), TransactionAggregate.parseType(transaction.getType()),
+                    transaction.getAmountMinor());
         }
-        return null;
     }
 
-    private boolean isMatchingAccount(Transaction transaction, String accountNumber) {
-        return transaction != null && accountNumber.equals(transaction.getAccountNumber());
+    private void appendTransaction(TransactionJournal journal, Transaction transaction) {
+        Ledger current = ledger;
+        long position = current.store.append(transaction);
+        if (journal != null) {
+            journal.append(transaction);
+        }
+        current.index(transaction.getAccountNumber(), position, transaction.getEpochMillis());
+        aggregateTransaction(transaction.getAccountNumber(), TransactionAggregate.parseType(transaction.getType()),
+                transaction.getAmountMinor());
+    }
+
+    private void aggregateTransaction(String accountNumber, TransactionType type, long amountMinor) {
+        if (type != null && accountNumber != null) {
+            aggregateFor(accountNumber).record(type, amountMinor);
+        }
     }
 
-    private void recordTransaction(Account account, TransactionType type, double amount) {
-        Transaction transaction = createTransaction(account.getAccountNumber(), type, amount, account.getBalance());
-        allTransactions.add(transaction);
+    /**
+     * Returns the running per-type totals for an account; empty for unknown accounts.
+     */
+    public TransactionAggregate getAggregate(String accountNumber) {
+        TransactionAggregate aggregate = accountNumber == null ? null : aggregatesByAccount.get(accountNumber);
+        return aggregate != null ? aggregate : new TransactionAggregate(accountNumber);
     }
 
-    private Transaction createTransaction(String accountNumber, TransactionType type, double amount, double balanceAfter) {
-        return new Transaction(accountNumber, type.name(), amount, balanceAfter);
+    /**
+     * How many of the account's transactions are only counted in totals carried over from a
+     * snapshot, because startup did not load the history before it.
+     */
+    public long getUnloadedTransactionCount(String accountNumber) {
+        TransactionAggregate carried = accountNumber == null ? null : carriedAggregates.get(accountNumber);
+        return carried == null ? 0 : carried.getTotalCount();
+    }
+
+    private TransactionAggregate aggregateFor(String accountNumber) {
+        return aggregatesByAccount.computeIfAbsent(accountNumber, TransactionAggregate::new);
+    }
+
+    /**
+     * Highest sequence number of any transaction recorded, loaded or carried over from a
+     * snapshot; unlike {@link Transaction#highestSequence()} it ignores IDs reserved but unused.
+     */
+    public long getHighestStoredSequence() {
+        return Math.max(carriedSequence, ledger.store.highestSequence());
+    }
+
+    /**
+     * Live per-account totals, e.g. for a snapshot.
+     */
+    public Map<String, TransactionAggregate> getAggregates() {
+        return Collections.unmodifiableMap(aggregatesByAccount);
+    }
+
+    /**
+     * Recomputes every account aggregate from the stored history, on top of any totals carried
+     * over from a snapshot. Runs whenever the history is replaced, which is how data from
+     * FilePersistence.loadTransactions is installed.
+     */
+    public void rebuildAggregates() {
+        aggregatesByAccount.clear();
+        for (Map.Entry<String, TransactionAggregate> entry : carriedAggregates.entrySet()) {
+            TransactionAggregate carried = entry.getValue();
+            TransactionAggregate aggregate = aggregateFor(entry.getKey());
+            for (TransactionType type : TransactionType.values()) {
+                aggregate.add(type, carried.getCount(type), carried.getSumMinor(type));
+            }
+        }
+        TransactionStore store = ledger.store;
+        long end = store.publishedCount();
+        for (long position = 0; position < end; position++) {
+            if (!store.isRemoved(position)) {
+                aggregateTransaction(store.accountNumberAt(position), store.typeAt(position), store.amountAt(position));
+            }
+        }
+    }
+
+    // Writes straight into the store's columns; no Transaction object is built on this path.
+    // journal is the one the calling operation admitted, or null.
+    private long recordTransaction(TransactionJournal journal, Account account, TransactionType type, long amountMinor) {
+        return recordTransaction(journal, ledger, account, type, amountMinor);
+    }
+
+    private long recordTransaction(TransactionJournal journal, Ledger current, Account account, TransactionType type,
+                                   long amountMinor) {
+        String accountNumber = account.getAccountNumber();
+        long now = System.currentTimeMillis();
+        long sequence = Transaction.nextSequence();
+        long balanceAfterMinor = account.getBalanceMinor();
+        long position = current.store.append(sequence, accountNumber, type, amountMinor, balanceAfterMinor, now);
+        if (journal != null) {
+            journal.append(sequence, accountNumber, type, amountMinor, balanceAfterMinor, now);
+        }
+        current.index(accountNumber, position, now);
+        aggregateTransaction(accountNumber, type, amountMinor);
+        return position;
     }
 
     public double getTotalDeposits(String accountNumber) {
         if (accountNumber == null) {
             return 0.0;
         }
-        return allTransactions.stream()
-                .filter(t -> isMatchingAccount(t, accountNumber))
-                .filter(t -> "DEPOSIT".equalsIgnoreCase(t.getType()) )
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        return getAggregate(accountNumber).getSum(TransactionType.DEPOSIT);
     }
     public double getTotalReceived(String accountNumber) {
         if (accountNumber == null) {
             return 0.0;
         }
-        return allTransactions.stream()
-                .filter(t -> isMatchingAccount(t, accountNumber))
-                .filter(t -> "RECEIVE".equalsIgnoreCase(t.getType()) )
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        return getAggregate(accountNumber).getSum(TransactionType.RECEIVE);
     }
   public double getTotalWithdrawals(String accountNumber) {
       if (accountNumber == null) {
           return 0.0;
       }
-      return allTransactions.stream()
-              .filter(t -> isMatchingAccount(t, accountNumber))
-              .filter(t -> "WITHDRAWAL".equalsIgnoreCase(t.getType()) || "TRANSFER".equalsIgnoreCase(t.getType()))
-              .mapToDouble(Transaction::getAmount)
-              .sum();
+      return getAggregate(accountNumber).getTotalOutflow();
   }
     public double getTotalTranfer(String accountNumber) {
         if (accountNumber == null) {
             return 0.0;
         }
-        return allTransactions.stream()
-                .filter(t -> isMatchingAccount(t, accountNumber))
-                .filter(t -> "TRANSFER".equalsIgnoreCase(t.getType()))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        return getAggregate(accountNumber).getSum(TransactionType.TRANSFER);
     }
 
-    private void validateAmount(double amount, String context) throws InvalidAmountException {
-        if (amount <= 0) {
+    private long toMinorAmount(double amount, String context) throws InvalidAmountException {
+        long amountMinor = validMinorAmount(amount);
+        if (amountMinor == 0) {
             throw new InvalidAmountException(context + " amount must be greater than 0");
         }
+        return amountMinor;
+    }
+
+    // The amount in minor units, or 0 when it is not a positive amount of at least one cent
+    private static long validMinorAmount(double amount) {
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            return 0;
+        }
+        return Math.max(0, Money.ofMajor(amount));
     }
 
     private Account fetchAccount(String accountNumber) throws InvalidAmountException {
@@ -194,22 +1055,86 @@ public class TransactionManager {
         return account;
     }
 
-    public void setTransactions(List<Transaction> transactions) {
-        synchronized (allTransactions) {
-            allTransactions.clear();
-            if (transactions != null) {
-                allTransactions.addAll(transactions);
+    private Account findAccount(String accountNumber) {
+        return accountNumber == null ? null : accountManager.getAccount(accountNumber);
+    }
+
+    /**
+     * Replaces the whole history, e.g. after loading from disk. Intended for use while no
+     * transactions are being processed; appends racing with it may land in the discarded log.
+     */
+    public synchronized void setTransactions(List<Transaction> transactions) {
+        setTransactions(transactions, Map.of());
+    }
+
+    /**
+     * Replaces the history with the transactions recorded after a snapshot. Account totals
+     * start from the snapshot's, so statements still total the history that is not loaded.
+     */
+    public synchronized void setTransactions(List<Transaction> transactions,
+                                             Map<String, TransactionAggregate> snapshotAggregates) {
+        setTransactions(transactions, snapshotAggregates, Transaction.NO_SEQUENCE);
+    }
+
+    /**
+     * Replaces the history with the journal tail after {@code snapshot}, carrying over its totals
+     * and the last sequence number it covers.
+     */
+    public synchronized void setTransactions(List<Transaction> transactions, LedgerSnapshot snapshot) {
+        setTransactions(transactions, snapshot.getAggregates(), snapshot.getLastSequence());
+    }
+
+    /**
+     * Takes over a store filled elsewhere, e.g. by {@link FilePersistence#loadTransactions(TransactionStore)},
+     * as the whole history. Its rows are indexed in place rather than copied.
+     */
+    public synchronized void setTransactions(TransactionStore store) {
+        install(store, Map.of(), Transaction.NO_SEQUENCE);
+    }
+
+    /**
+     * Takes over a store holding the journal tail after {@code snapshot}, carrying over the
+     * snapshot's totals and the last sequence number it covers.
+     */
+    public synchronized void setTransactions(TransactionStore store, LedgerSnapshot snapshot) {
+        install(store, snapshot.getAggregates(), snapshot.getLastSequence());
+    }
+
+    private void setTransactions(List<Transaction> transactions,
+                                 Map<String, TransactionAggregate> snapshotAggregates, long snapshotSequence) {
+        TransactionStore store = new TransactionStore();
+        if (transactions != null) {
+            for (Transaction transaction : transactions) {
+                if (transaction != null) {
+                    store.append(transaction);
+                }
+            }
+        }
+        install(store, snapshotAggregates, snapshotSequence);
+    }
+
+    private void install(TransactionStore store, Map<String, TransactionAggregate> snapshotAggregates,
+                         long snapshotSequence) {
+        carriedAggregates = Map.copyOf(snapshotAggregates);
+        carriedSequence = snapshotSequence;
+        // Built off to the side and published in one write, so no reader pairs the new index
+        // with the old store, and recorders racing the switch only touch the ledger they read
+        Ledger replacement = new Ledger(store);
+        long end = store.publishedCount();
+        for (long position = 0; position < end; position++) {
+            if (!store.isRemoved(position)) {
+                replacement.index(store.accountNumberAt(position), position, store.timestampAt(position));
             }
         }
+        ledger = replacement;
+        rebuildAggregates();
     }
     public List<Transaction> sortTransactionsByTimestampDesc(List<Transaction> transactions) {
         if (transactions == null || transactions.isEmpty()) {
             return Collections.emptyList();
         }
         return transactions.stream()
-                .sorted(java.util.Comparator.comparing(Transaction::getTimestamp,
-                        java.util.Comparator.nullsLast(java.util.Comparator.naturalOrder()))
-                        .reversed())
+                .sorted(Comparator.comparingLong(Transaction::getEpochMillis).reversed())
                 .collect(Collectors.toList());
     }
 
@@ -221,5 +1146,86 @@ public class TransactionManager {
         return type != null && ("DEPOSIT".equalsIgnoreCase(type) || "RECEIVE".equalsIgnoreCase(type));
     }
 
+    /**
+     * A store and the per-account index of its positions. Account queries only touch that
+     * account's history, kept in time order so statements never need to sort it.
+     */
+    private static final class Ledger {
+        private final TransactionStore store;
+        private final Map<String, AccountHistory> histories = new ConcurrentHashMap<>();
+
+        private Ledger(TransactionStore store) {
+            this.store = store;
+        }
+
+        private AccountHistory history(String accountNumber) {
+            AccountHistory history = accountNumber == null ? null : histories.get(accountNumber);
+            return history != null ? history : AccountHistory.EMPTY;
+        }
+
+        private void index(String accountNumber, long position, long epochMillis) {
+            if (accountNumber != null) {
+                histories.computeIfAbsent(accountNumber, key -> new AccountHistory()).add(position, epochMillis);
+            }
+        }
+    }
+
+    /**
+     * Store positions of one account's rows, ordered by timestamp and then by append order.
+     * Rows without a parseable timestamp sort first.
+     */
+    private static final class AccountHistory {
+        private static final AccountHistory EMPTY = new AccountHistory();
 
+        private long[] positions = new long[8];
+        private long[] times = new long[8];
+        private int size;
+
+        // New rows are almost always the newest, so the search from the tail usually stops at once
+        private synchronized void add(long position, long epochMillis) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                times = Arrays.copyOf(times, size * 2);
+            }
+            int index = size;
+            while (index > 0 && times[index - 1] > epochMillis) {
+                index--;
+            }
+            System.arraycopy(positions, index, positions, index + 1, size - index);
+            System.arraycopy(times, index, times, index + 1, size - index);
+            positions[index] = position;
+            times[index] = epochMillis;
+            size++;
+        }
+
+        // Binary-searches the row's time, then checks only the rows sharing it
+        private synchronized void remove(long position, long epochMillis) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < epochMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            for (int i = low; i < size && times[i] == epochMillis; i++) {
+                if (positions[i] == position) {
+                    System.arraycopy(positions, i + 1, positions, i, size - i - 1);
+                    System.arraycopy(times, i + 1, times, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        private synchronized long last() {
+            return size == 0 ? -1 : positions[size - 1];
+        }
+
+        private synchronized long[] snapshot() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package com.bank.system.services;
+
+import com.bank.system.enums.TransactionResult;
+import com.bank.system.enums.TransactionType;
+import com.bank.system.models.BatchOperation;
+import com.bank.system.models.BatchResult;
+import com.bank.system.utils.CallTimer;
+import com.bank.system.utils.OperationMetrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * What {@link TransactionManager} has done since it was created: outcomes, amount totals and
+ * latencies of deposits, withdrawals and transfers, and the duration of each batch. A transfer
+ * counts once, under {@link TransactionType#TRANSFER}.
+ *
+ * <p>Operations inside a batch add to the per-type counters but are not timed one by one; the
+ * batch call as a whole is timed instead.</p>
+ */
+public class TransactionMetrics {
+    private final Map<TransactionType, OperationMetrics> operations = new EnumMap<>(TransactionType.class);
+    private final CallTimer batches = new CallTimer();
+
+    TransactionMetrics() {
+        operations.put(TransactionType.DEPOSIT, new OperationMetrics());
+        operations.put(TransactionType.WITHDRAWAL, new OperationMetrics());
+        operations.put(TransactionType.TRANSFER, new OperationMetrics());
+    }
+
+    /**
+     * Deposits, withdrawals and transfers, in that order.
+     */
+    public Map<TransactionType, OperationMetrics> getOperations() {
+        return Collections.unmodifiableMap(operations);
+    }
+
+    public OperationMetrics get(TransactionType type) {
+        return operations.get(type);
+    }
+
+    public CallTimer getBatches() {
+        return batches;
+    }
+
+    void record(TransactionType type, long startNanos, long amountMinor, TransactionResult result) {
+        long nanos = System.nanoTime() - startNanos;
+        if (result.isApproved()) {
+            operations.get(type).recordSucceeded(amountMinor, nanos);
+        } else if (result.isDeclined()) {
+            operations.get(type).recordDeclined(nanos);
+        } else {
+            operations.get(type).recordError(nanos);
+        }
+    }
+
+    void recordError(TransactionType type, long startNanos) {
+        operations.get(type).recordError(System.nanoTime() - startNanos);
+    }
+
+    // Returns a future that completes like the given one, after its outcome has been recorded
+    CompletableFuture<TransactionResult> observe(TransactionType type, long startNanos, long amountMinor,
+                                                 CompletableFuture<TransactionResult> future) {
+        return future.whenComplete((result, error) -> {
+            if (error == null) {
+                record(type, startNanos, amountMinor, result);
+            } else {
+                recordError(type, startNanos);
+            }
+        });
+    }
+
+    void recordBatch(List<BatchOperation> batch, BatchResult result, long startNanos) {
+        for (int i = 0; i < batch.size(); i++) {
+            BatchOperation operation = batch.get(i);
+            OperationMetrics metrics = operation == null ? null : operations.get(operation.getType());
+            if (metrics == null) {
+                continue;
+            }
+            if (result.isSucceeded(i)) {
+                metrics.countSucceeded(operation.getAmountMinor());
+            } else {
+                metrics.countDeclined();
+            }
+        }
+        batches.record(System.nanoTime() - startNanos, batch.size(), true);
+    }
+}
@@ -0,0 +1,492 @@
+package com.bank.system.services;
+
+import com.bank.system.enums.TransactionType;
+import com.bank.system.models.Transaction;
+import com.bank.system.models.TransactionAggregate;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Append-only, column-oriented transaction store.
+ *
+ * <p>Rows live in fixed-size segments, and each segment keeps one primitive array per field:
+ * sequence number, account code, type code, amount, balance after and epoch timestamp. That is
+ * about 40 bytes a row with no per-row objects. Account numbers and type names are
+ * dictionary-encoded. {@link Transaction} objects are only built when a caller asks for one.</p>
+ *
+ * <p>Writers claim a position with a single atomic increment, fill the columns, and then publish
+ * positions in order, so the published prefix is always gap-free. Readers only look at published
+ * positions and never take a lock. Rolled-back rows are tombstoned in place.</p>
+ */
+public class TransactionStore implements Iterable<Transaction> {
+    private static final int SEGMENT_SHIFT = 12;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    private static final byte REMOVED = 1;
+    private static final int PUBLISH_SPINS = 64;
+    private static final long PUBLISH_PARK_NANOS = 1_000;
+    private static final TransactionType[] KNOWN_TYPES = TransactionType.values();
+    private static final VarHandle FLAG = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLong removed = new AtomicLong();
+    private final Object growLock = new Object();
+    private final Dictionary accounts = new Dictionary(Integer.MAX_VALUE);
+    private final Dictionary types = new Dictionary(Byte.MAX_VALUE);
+    private volatile Segment[] segments = new Segment[4];
+    private volatile long published;
+
+    public TransactionStore() {
+        // Known types get codes equal to their ordinal so they can be compared without lookups
+        for (TransactionType type : KNOWN_TYPES) {
+            types.encode(type.name());
+        }
+    }
+
+    /**
+     * Appends a new row without building a Transaction. Returns its position.
+     */
+    public long append(long sequence, String accountNumber, TransactionType type,
+                       long amountMinor, long balanceAfterMinor, long epochMillis) {
+        // Everything that can fail runs before a position is claimed
+        int account = accounts.encode(accountNumber);
+        byte typeCode = (byte) type.ordinal();
+        long position = reserved.getAndIncrement();
+        boolean written = false;
+        try {
+            segmentFor(position).write((int) (position & SEGMENT_MASK), sequence, null, account,
+                    typeCode, amountMinor, balanceAfterMinor, epochMillis, null);
+            written = true;
+        } finally {
+            publishOrTombstone(position, written ? position + 1 : position, position + 1);
+        }
+        return position;
+    }
+
+    /**
+     * Appends an existing transaction, decomposing it into columns. Returns its position.
+     */
+    public long append(Transaction transaction) {
+        int account = accounts.encode(transaction.getAccountNumber());
+        byte typeCode = (byte) types.encode(transaction.getType());
+        long position = reserved.getAndIncrement();
+        boolean written = false;
+        try {
+            write(position, transaction, account, typeCode);
+            written = true;
+        } finally {
+            publishOrTombstone(position, written ? position + 1 : position, position + 1);
+        }
+        return position;
+    }
+
+    /**
+     * Appends a batch as one contiguous run of positions and publishes it in a single step.
+     * Returns the position of the first row.
+     */
+    public long appendAll(List<Transaction> transactions) {
+        int count = transactions.size();
+        // Encode the whole batch before claiming positions, so a bad row fails it up front
+        int[] accountCodes = new int[count];
+        byte[] typeCodes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            Transaction transaction = transactions.get(i);
+            accountCodes[i] = accounts.encode(transaction.getAccountNumber());
+            typeCodes[i] = (byte) types.encode(transaction.getType());
+        }
+        long first = reserved.getAndAdd(count);
+        int written = 0;
+        try {
+            for (; written < count; written++) {
+                write(first + written, transactions.get(written), accountCodes[written], typeCodes[written]);
+            }
+        } finally {
+            publishOrTombstone(first, first + written, first + count);
+        }
+        return first;
+    }
+
+    private void write(long position, Transaction transaction, int account, byte typeCode) {
+        long sequence = Transaction.parseSequence(transaction.getTransactionId());
+        long epochMillis = transaction.getEpochMillis();
+        segmentFor(position).write((int) (position & SEGMENT_MASK),
+                sequence,
+                sequence == Transaction.NO_SEQUENCE ? transaction.getTransactionId() : null,
+                account,
+                typeCode,
+                transaction.getAmountMinor(),
+                transaction.getBalanceAfterMinor(),
+                epochMillis,
+                epochMillis == Transaction.NO_TIMESTAMP ? transaction.getTimestamp() : null);
+    }
+
+    // Claimed positions must always be published, or every later writer waits for them forever;
+    // rows from writtenTo on could not be written and are published as tombstones instead
+    private void publishOrTombstone(long from, long writtenTo, long to) {
+        try {
+            for (long position = writtenTo; position < to; position++) {
+                if (segmentFor(position).markRemoved((int) (position & SEGMENT_MASK))) {
+                    removed.incrementAndGet();
+                }
+            }
+        } finally {
+            publish(from, to);
+        }
+    }
+
+    // Positions become visible strictly in order; a writer waits for earlier writers to publish first.
+    // After a short spin it yields, so waiters cannot starve a descheduled writer on few cores.
+    // Virtual threads park instead: a yielded virtual thread goes straight back onto its carrier's
+    // queue, and enough yielding waiters keep the writer they wait for from being scheduled.
+    private void publish(long from, long to) {
+        int spins = 0;
+        boolean virtual = Thread.currentThread().isVirtual();
+        while (published != from) {
+            if (++spins < PUBLISH_SPINS) {
+                Thread.onSpinWait();
+            } else if (virtual) {
+                LockSupport.parkNanos(PUBLISH_PARK_NANOS);
+            } else {
+                Thread.yield();
+            }
+        }
+        published = to;
+    }
+
+    private Segment segmentFor(long position) {
+        int index = (int) (position >>> SEGMENT_SHIFT);
+        Segment[] current = segments;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        synchronized (growLock) {
+            current = segments;
+            if (index >= current.length) {
+                Segment[] grown = new Segment[Math.max(current.length * 2, index + 1)];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            if (current[index] == null) {
+                current[index] = new Segment();
+            }
+            segments = current;
+            return current[index];
+        }
+    }
+
+    private Segment segmentAt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)];
+    }
+
+    private void checkPublished(long position) {
+        if (position < 0 || position >= published) {
+            throw new IndexOutOfBoundsException("Position " + position + " is not published");
+        }
+    }
+
+    // Column accessors; positions must already be published
+
+    public boolean isRemoved(long position) {
+        checkPublished(position);
+        return segmentAt(position).isRemoved((int) (position & SEGMENT_MASK));
+    }
+
+    public String accountNumberAt(long position) {
+        checkPublished(position);
+        return accounts.decode(segmentAt(position).accounts[(int) (position & SEGMENT_MASK)]);
+    }
+
+    public int accountCodeAt(long position) {
+        checkPublished(position);
+        return segmentAt(position).accounts[(int) (position & SEGMENT_MASK)];
+    }
+
+    /**
+     * Returns the transaction type of a row, or null if it holds an unrecognised type name.
+     */
+    public TransactionType typeAt(long position) {
+        checkPublished(position);
+        byte code = segmentAt(position).types[(int) (position & SEGMENT_MASK)];
+        return code < KNOWN_TYPES.length ? KNOWN_TYPES[code] : TransactionAggregate.parseType(types.decode(code));
+    }
+
+    public long amountAt(long position) {
+        checkPublished(position);
+        return segmentAt(position).amounts[(int) (position & SEGMENT_MASK)];
+    }
+
+    public long balanceAfterAt(long position) {
+        checkPublished(position);
+        return segmentAt(position).balances[(int) (position & SEGMENT_MASK)];
+    }
+
+    public long timestampAt(long position) {
+        checkPublished(position);
+        return segmentAt(position).timestamps[(int) (position & SEGMENT_MASK)];
+    }
+
+    public String transactionIdAt(long position) {
+        checkPublished(position);
+        Segment segment = segmentAt(position);
+        int offset = (int) (position & SEGMENT_MASK);
+        long sequence = segment.sequences[offset];
+        return sequence == Transaction.NO_SEQUENCE ? segment.irregularIds[offset] : Transaction.formatId(sequence);
+    }
+
+    /**
+     * Builds the Transaction for a row, or returns null if the row was removed.
+     */
+    public Transaction get(long position) {
+        checkPublished(position);
+        Segment segment = segmentAt(position);
+        int offset = (int) (position & SEGMENT_MASK);
+        if (segment.isRemoved(offset)) {
+            return null;
+        }
+        String transactionId = transactionIdAt(position);
+        String accountNumber = accounts.decode(segment.accounts[offset]);
+        String type = types.decode(segment.types[offset]);
+        long epochMillis = segment.timestamps[offset];
+        if (epochMillis == Transaction.NO_TIMESTAMP) {
+            String[] irregular = segment.irregularTimestamps;
+            return Transaction.ofMinorUnits(transactionId, accountNumber, type, segment.amounts[offset],
+                    segment.balances[offset], irregular == null ? null : irregular[offset]);
+        }
+        return Transaction.ofMinorUnits(transactionId, accountNumber, type, segment.amounts[offset],
+                segment.balances[offset], epochMillis);
+    }
+
+    /**
+     * Tombstones the newest live row with the given ID. Returns its position, or -1.
+     */
+    public long remove(String transactionId) {
+        long sequence = Transaction.parseSequence(transactionId);
+        for (long position = published - 1; position >= 0; position--) {
+            Segment segment = segmentAt(position);
+            int offset = (int) (position & SEGMENT_MASK);
+            boolean matches = sequence == Transaction.NO_SEQUENCE
+                    ? segment.sequences[offset] == Transaction.NO_SEQUENCE && transactionId.equals(segment.irregularIds[offset])
+                    : segment.sequences[offset] == sequence;
+            if (matches && segment.markRemoved(offset)) {
+                removed.incrementAndGet();
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tombstones the row at a known position, without searching for it. Returns false if it was
+     * already removed.
+     */
+    public boolean removeAt(long position) {
+        checkPublished(position);
+        if (segmentAt(position).markRemoved((int) (position & SEGMENT_MASK))) {
+            removed.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Highest generated sequence number among the published rows, removed ones included, or
+     * {@link Transaction#NO_SEQUENCE} when there is none.
+     */
+    public long highestSequence() {
+        long end = published;
+        long highest = Transaction.NO_SEQUENCE;
+        for (long position = 0; position < end; position++) {
+            highest = Math.max(highest, segmentAt(position).sequences[(int) (position & SEGMENT_MASK)]);
+        }
+        return highest;
+    }
+
+    /**
+     * Number of published positions, including tombstones; positions run from 0 to this value.
+     */
+    public long publishedCount() {
+        return published;
+    }
+
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, published - removed.get());
+    }
+
+    public List<Transaction> snapshot() {
+        List<Transaction> copy = new ArrayList<>(size());
+        forEach(copy::add);
+        return copy;
+    }
+
+    @Override
+    public void forEach(Consumer<? super Transaction> action) {
+        long end = published;
+        for (long position = 0; position < end; position++) {
+            Transaction transaction = get(position);
+            if (transaction != null) {
+                action.accept(transaction);
+            }
+        }
+    }
+
+    /**
+     * Iterates the rows published when iteration starts, skipping removed ones.
+     */
+    @Override
+    public Iterator<Transaction> iterator() {
+        long end = published;
+        return new Iterator<>() {
+            private long position;
+            private Transaction next = advance();
+
+            private Transaction advance() {
+                while (position < end) {
+                    Transaction candidate = get(position++);
+                    if (candidate != null) {
+                        return candidate;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Transaction next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Transaction current = next;
+                next = advance();
+                return current;
+            }
+        };
+    }
+
+    private static final class Segment {
+        private final long[] sequences = new long[SEGMENT_SIZE];
+        private final int[] accounts = new int[SEGMENT_SIZE];
+        private final byte[] types = new byte[SEGMENT_SIZE];
+        private final long[] amounts = new long[SEGMENT_SIZE];
+        private final long[] balances = new long[SEGMENT_SIZE];
+        private final long[] timestamps = new long[SEGMENT_SIZE];
+        private final byte[] flags = new byte[SEGMENT_SIZE];
+        // Only allocated if a row carries an ID or timestamp that does not fit its column
+        private volatile String[] irregularIds;
+        private volatile String[] irregularTimestamps;
+
+        // Plain writes; they become visible to readers when the position is published
+        private void write(int offset, long sequence, String irregularId, int account, byte type,
+                           long amount, long balance, long timestamp, String irregularTimestamp) {
+            sequences[offset] = sequence;
+            accounts[offset] = account;
+            types[offset] = type;
+            amounts[offset] = amount;
+            balances[offset] = balance;
+            timestamps[offset] = timestamp;
+            if (irregularId != null) {
+                irregularIds()[offset] = irregularId;
+            }
+            if (irregularTimestamp != null) {
+                irregularTimestamps()[offset] = irregularTimestamp;
+            }
+        }
+
+        private String[] irregularIds() {
+            String[] ids = irregularIds;
+            if (ids == null) {
+                synchronized (this) {
+                    if (irregularIds == null) {
+                        irregularIds = new String[SEGMENT_SIZE];
+                    }
+                    ids = irregularIds;
+                }
+            }
+            return ids;
+        }
+
+        private String[] irregularTimestamps() {
+            String[] values = irregularTimestamps;
+            if (values == null) {
+                synchronized (this) {
+                    if (irregularTimestamps == null) {
+                        irregularTimestamps = new String[SEGMENT_SIZE];
+                    }
+                    values = irregularTimestamps;
+                }
+            }
+            return values;
+        }
+
+        private boolean isRemoved(int offset) {
+            return (byte) FLAG.getVolatile(flags, offset) == REMOVED;
+        }
+
+        private boolean markRemoved(int offset) {
+            synchronized (this) {
+                if (isRemoved(offset)) {
+                    return false;
+                }
+                FLAG.setVolatile(flags, offset, REMOVED);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Thread-safe string to int code table; codes are never reused.
+     */
+    private static final class Dictionary {
+        private final int maxCodes;
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[16];
+        private int size;
+
+        private Dictionary(int maxCodes) {
+            this.maxCodes = maxCodes;
+        }
+
+        private int encode(String value) {
+            Integer code = codes.get(value == null ? "" : value);
+            return code != null ? code : register(value == null ? "" : value);
+        }
+
+        private synchronized int register(String value) {
+            Integer existing = codes.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            if (size >= maxCodes) {
+                throw new IllegalStateException("Too many distinct values: " + value);
+            }
+            String[] current = values;
+            if (size == current.length) {
+                String[] grown = new String[current.length * 2];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            current[size] = value;
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+
+        private String decode(int code) {
+            String value = values[code];
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bank.system.utils;
+
+import com.bank.system.interfaces.CallTimerMXBean;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durations of an infrequent, long-running call such as a file load or save.
+ */
+public class CallTimer implements CallTimerMXBean {
+    private final LatencyHistogram durations = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    private volatile long lastNanos;
+    private volatile long lastRecords;
+
+    public void record(long nanos, long records, boolean succeeded) {
+        durations.record(nanos);
+        if (!succeeded) {
+            failures.increment();
+        }
+        lastNanos = nanos;
+        lastRecords = records;
+    }
+
+    @Override
+    public long getCalls() {
+        return durations.getCount();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getLastRecords() {
+        return lastRecords;
+    }
+
+    @Override
+    public double getLastMillis() {
+        return lastNanos / 1_000_000.0;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return durations.getMean() / 1_000_000.0;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return durations.getMax() / 1_000_000.0;
+    }
+}
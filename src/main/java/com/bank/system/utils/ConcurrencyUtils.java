@@ -1,13 +1,14 @@
 package com.bank.system.utils;
 
+import com.bank.system.enums.ExecutionMode;
 import com.bank.system.models.Account;
 import com.bank.system.services.AccountManager;
 import com.bank.system.services.TransactionManager;
 import com.bank.system.exceptions.InvalidAmountException;
 
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import static com.bank.system.utils.ConsoleUtil.pressEnterToContinue;
@@ -23,24 +24,35 @@ public class ConcurrencyUtils {
 
     /**
      * Runs a concurrent transaction simulation with multiple threads performing
-     * deposits and withdrawals on accounts
+     * deposits and withdrawals on accounts, in the mode set by {@code -Dbank.execution.mode}
      */
     public static void runConcurrentSimulation(AccountManager accountManager, TransactionManager transactionManager, int numThreads) {
-        print("Running concurrent transaction simulation...");
-        
-        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        try {
-            // Get a sample account for the simulation
-            Account sampleAccount = accountManager.getAllAccounts().stream().findFirst().orElse(null);
+        runConcurrentSimulation(accountManager, transactionManager, numThreads, ExecutionMode.fromSystemProperty());
+    }
 
-            if (sampleAccount == null) {
-                print("No accounts available for simulation.");
-                return;
-            }
+    /**
+     * Runs the single-account simulation with one task per simulated thread. In virtual mode
+     * every task gets its own virtual thread and pinned carriers are reported at the end.
+     */
+    public static void runConcurrentSimulation(AccountManager accountManager, TransactionManager transactionManager,
+                                               int numThreads, ExecutionMode mode) {
+        print("Running concurrent transaction simulation (" + mode.name().toLowerCase() + " threads)...");
+
+        // Get a sample account for the simulation
+        Account sampleAccount = accountManager.getAllAccounts().stream().findFirst().orElse(null);
+
+        if (sampleAccount == null) {
+            print("No accounts available for simulation.");
+            return;
+        }
 
-            String accountNumber = sampleAccount.getAccountNumber();
-            print("Using account: " + accountNumber + " for simulation");
+        String accountNumber = sampleAccount.getAccountNumber();
+        print("Using account: " + accountNumber + " for simulation");
 
+        ExecutorService executor = TaskExecutors.newExecutor(mode, numThreads, "simulation");
+        // Started last, so nothing between here and the try below can leak the recording
+        PinningMonitor pinningMonitor = startPinningMonitor(mode);
+        try {
             // Submit multiple tasks to perform transactions concurrently
             for (int i = 0; i < numThreads; i++) {
                 final int threadId = i + 1;
@@ -90,8 +102,10 @@ public class ConcurrencyUtils {
                 executor.shutdownNow();
                 Thread.currentThread().interrupt();
             }
+            // Also closes the monitor, which holds a live JFR recording and its thread
+            reportPinning(pinningMonitor);
         }
-        
+
         // Print final balance
         Account finalAccount = accountManager.findAccount(accountManager.getAllAccounts().stream().findFirst().map(Account::getAccountNumber).orElse(null));
         if (finalAccount != null) {
@@ -105,19 +119,25 @@ public class ConcurrencyUtils {
      //Simulates concurrent access to multiple accounts
 
     public static void runMultiAccountConcurrentSimulation(AccountManager accountManager, TransactionManager transactionManager, int numThreads) {
-        print("Running multi-account concurrent transaction simulation...");
-        
-        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-        try {
-            var accounts = accountManager.getAllAccounts();
-            if (accounts.isEmpty()) {
-               print ("No accounts available for simulation.");
-                return;
-            }
+        runMultiAccountConcurrentSimulation(accountManager, transactionManager, numThreads, ExecutionMode.fromSystemProperty());
+    }
+
+    public static void runMultiAccountConcurrentSimulation(AccountManager accountManager, TransactionManager transactionManager,
+                                                           int numThreads, ExecutionMode mode) {
+        print("Running multi-account concurrent transaction simulation (" + mode.name().toLowerCase() + " threads)...");
 
-            // Convert to array for easier indexing
-            var accountArray = accounts.toArray(new Account[0]);
+        var accounts = accountManager.getAllAccounts();
+        if (accounts.isEmpty()) {
+           print ("No accounts available for simulation.");
+            return;
+        }
+
+        // Convert to array for easier indexing
+        var accountArray = accounts.toArray(new Account[0]);
 
+        ExecutorService executor = TaskExecutors.newExecutor(mode, numThreads, "simulation");
+        PinningMonitor pinningMonitor = startPinningMonitor(mode);
+        try {
             // Submit multiple tasks to perform transactions on different accounts
             for (int i = 0; i < numThreads; i++) {
                 final int threadId = i + 1;
@@ -171,8 +191,10 @@ public class ConcurrencyUtils {
                 executor.shutdownNow();
                 Thread.currentThread().interrupt();
             }
+            // Also closes the monitor, which holds a live JFR recording and its thread
+            reportPinning(pinningMonitor);
         }
-        
+
         print("\nMulti-account thread-safe operations completed successfully.");
 
         // Print final balances for all accounts
@@ -181,5 +203,28 @@ public class ConcurrencyUtils {
         }
         pressEnterToContinue();
     }
-}
 
+    // Pinning only matters on virtual threads; JFR may also be missing from the runtime
+    private static PinningMonitor startPinningMonitor(ExecutionMode mode) {
+        if (mode != ExecutionMode.VIRTUAL) {
+            return null;
+        }
+        try {
+            return new PinningMonitor();
+        } catch (RuntimeException e) {
+            print("Pinning diagnostic unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void reportPinning(PinningMonitor pinningMonitor) {
+        if (pinningMonitor == null) {
+            return;
+        }
+        pinningMonitor.close();
+        print("Pinned virtual threads: " + pinningMonitor.getPinnedCount());
+        for (Map.Entry<String, Long> entry : pinningMonitor.getPinnedByFrame().entrySet()) {
+            print("  " + entry.getValue() + " x " + entry.getKey());
+        }
+    }
+}
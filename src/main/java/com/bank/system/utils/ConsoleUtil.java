@@ -1,6 +1,7 @@
 package com.bank.system.utils;
 
 import java.util.Scanner;
+import java.util.function.DoublePredicate;
 import java.util.function.Predicate;
 
 public class ConsoleUtil {
@@ -77,7 +78,7 @@ public class ConsoleUtil {
             }
         }
     }
-    public static double getValidDoubleInput(String prompt, Predicate<Double> validator, String errorMessage) {
+    public static double getValidDoubleInput(String prompt, DoublePredicate validator, String errorMessage) {
         while (true) {
             pr(prompt);
             String input = scanner.nextLine().trim();
@@ -0,0 +1,171 @@
+package com.bank.system.utils;
+
+import com.bank.system.models.Money;
+
+/**
+ * Splits one delimited record into fields by recording their offsets, without copying the
+ * text. Numbers are parsed straight from the source, and a String is only created when a
+ * caller asks for a field with {@link #string(int)}, so a record that is checked and rejected
+ * allocates nothing.
+ *
+ * <p>Field counting matches {@code String.split}: trailing empty fields are not counted. An
+ * instance is reusable but not thread-safe; keep one per thread, e.g. in a ThreadLocal.</p>
+ */
+public final class DelimitedRecordParser {
+    /**
+     * Returned by {@link #isoInstantMillis(int)} when the field is not a plain UTC instant.
+     */
+    public static final long NOT_AN_INSTANT = Long.MIN_VALUE;
+
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334};
+    private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    // 1969 / 4 - 1969 / 100 + 1969 / 400
+    private static final long LEAP_DAYS_BEFORE_1970 = 477;
+
+    private final char delimiter;
+    private final int[] starts;
+    private final int[] ends;
+    private CharSequence text;
+    private int fieldCount;
+
+    /**
+     * @param maxFields how many fields are kept; {@link #fieldCount()} still counts any beyond
+     */
+    public DelimitedRecordParser(char delimiter, int maxFields) {
+        this.delimiter = delimiter;
+        this.starts = new int[maxFields];
+        this.ends = new int[maxFields];
+    }
+
+    /**
+     * Splits {@code text[start, end)} and returns the number of fields.
+     */
+    public int parse(CharSequence text, int start, int end) {
+        this.text = text;
+        int count = 0;
+        int nonEmpty = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || text.charAt(i) == delimiter) {
+                if (count < starts.length) {
+                    starts[count] = fieldStart;
+                    ends[count] = i;
+                }
+                count++;
+                if (i > fieldStart) {
+                    nonEmpty = count;
+                }
+                fieldStart = i + 1;
+            }
+        }
+        // An empty record is one empty field, as with split
+        fieldCount = nonEmpty == 0 ? 1 : nonEmpty;
+        return fieldCount;
+    }
+
+    public int parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public String string(int field) {
+        return text.subSequence(starts[field], ends[field]).toString();
+    }
+
+    public boolean fieldEquals(int field, String value) {
+        int length = ends[field] - starts[field];
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(starts[field] + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first of {@code candidates} equal to the field, or a new String of the field,
+     * so that values from a small known set are shared instead of copied per record.
+     */
+    public String stringOf(int field, String[] candidates) {
+        for (String candidate : candidates) {
+            if (fieldEquals(field, candidate)) {
+                return candidate;
+            }
+        }
+        return string(field);
+    }
+
+    public int intValue(int field) {
+        return Integer.parseInt(text, starts[field], ends[field], 10);
+    }
+
+    /**
+     * Parses a decimal amount into minor units; see {@link Money#parse(CharSequence)}.
+     */
+    public long minorUnits(int field) {
+        return Money.parse(text, starts[field], ends[field]);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm:ssZ} or {@code yyyy-MM-ddTHH:mm:ss.SSSZ} into epoch millis,
+     * the forms timestamps are stored in, or returns {@link #NOT_AN_INSTANT} for anything else.
+     */
+    public long isoInstantMillis(int field) {
+        int start = starts[field];
+        int length = ends[field] - start;
+        if ((length != 20 && length != 24)
+                || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-' || text.charAt(start + 10) != 'T'
+                || text.charAt(start + 13) != ':' || text.charAt(start + 16) != ':'
+                || text.charAt(start + length - 1) != 'Z'
+                || (length == 24 && text.charAt(start + 19) != '.')) {
+            return NOT_AN_INSTANT;
+        }
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        int hour = digits(start + 11, 2);
+        int minute = digits(start + 14, 2);
+        int second = digits(start + 17, 2);
+        int millis = length == 24 ? digits(start + 20, 3) : 0;
+        if (year < 1 || month < 1 || month > 12 || day < 1 || millis < 0
+                || day > (month == 2 && !isLeapYear(year) ? 28 : DAYS_IN_MONTH[month - 1])
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NOT_AN_INSTANT;
+        }
+        long days = epochDay(year, month, day);
+        return ((days * 24 + hour) * 60 + minute) * 60_000L + second * 1_000L + millis;
+    }
+
+    // Returns -1 unless all count characters are ASCII digits
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        long previousYears = year - 1L;
+        long leapDays = previousYears / 4 - previousYears / 100 + previousYears / 400 - LEAP_DAYS_BEFORE_1970;
+        long days = 365 * (year - 1970L) + leapDays + DAYS_BEFORE_MONTH[month - 1];
+        if (month > 2 && isLeapYear(year)) {
+            days++;
+        }
+        return days + day - 1;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bank.system.utils;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates IDs of the form prefix + decimal number, e.g. {@code ACC007} or {@code TXN123456}.
+ * Numbers are zero-padded to at least three digits, so existing short IDs keep their meaning.
+ * They widen as needed up to the full positive {@code long} range.
+ *
+ * <p>Each thread reserves a block of numbers from the shared counter and hands them out
+ * locally, so bulk creation touches the shared counter once per block instead of once per ID.
+ * As a result, IDs from different threads are unique but not in creation order. Use
+ * {@link #ID_ORDER} rather than plain string order when sorting them.</p>
+ *
+ * <p>Virtual threads usually live for a single task, so they take numbers straight from the
+ * shared counter instead of reserving a block they would mostly throw away.</p>
+ */
+public final class IdSequence {
+    public static final int MIN_DIGITS = 3;
+    public static final int MAX_DIGITS = 18;
+    public static final long NONE = -1L;
+    public static final int DEFAULT_BLOCK_SIZE = 64;
+
+    /**
+     * Orders generated IDs numerically: a shorter number sorts before a longer one, and equal
+     * lengths compare digit by digit. Other strings still get a consistent total order.
+     */
+    public static final Comparator<String> ID_ORDER =
+            Comparator.nullsLast(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+
+    private final String prefix;
+    private final int blockSize;
+    private final AtomicLong counter = new AtomicLong();
+    // Highest number seen by observe(); kept apart from the counter, which also covers blocks
+    // reserved but not yet used, so a value inside an outstanding block is still caught
+    private final AtomicLong observed = new AtomicLong();
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    public IdSequence(String prefix) {
+        this(prefix, DEFAULT_BLOCK_SIZE);
+    }
+
+    public IdSequence(String prefix, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be greater than 0");
+        }
+        this.prefix = prefix;
+        this.blockSize = blockSize;
+    }
+
+    public String next() {
+        return format(nextValue());
+    }
+
+    public long nextValue() {
+        if (Thread.currentThread().isVirtual()) {
+            return counter.incrementAndGet();
+        }
+        Block block = blocks.get();
+        // Skip past anything observed since the block was reserved; the rest of it is still ours
+        long floor = observed.get();
+        if (block.next <= floor) {
+            block.next = floor + 1;
+        }
+        if (block.next >= block.end) {
+            block.next = counter.getAndAdd(blockSize) + 1;
+            block.end = block.next + blockSize;
+        }
+        return block.next++;
+    }
+
+    /**
+     * Makes sure IDs generated from now on are above the number in {@code id}, e.g. after
+     * loading stored records. IDs without this sequence's prefix are ignored.
+     */
+    public void observe(String id) {
+        long value = parse(id);
+        if (value != NONE) {
+            observe(value);
+        }
+    }
+
+    /**
+     * Makes sure numbers generated from now on are above {@code value}.
+     */
+    public void observe(long value) {
+        if (value <= observed.get()) {
+            return;
+        }
+        // Raise the counter first, so a block reserved after the floor moves starts above it
+        counter.accumulateAndGet(value, Math::max);
+        observed.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Highest number handed out or reserved so far; every generated ID is at or below it.
+     */
+    public long current() {
+        return counter.get();
+    }
+
+    public String format(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("ID number must not be negative: " + value);
+        }
+        char[] digits = new char[MAX_DIGITS + 1];
+        int start = digits.length;
+        long remaining = value;
+        do {
+            digits[--start] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        while (digits.length - start < MIN_DIGITS) {
+            digits[--start] = '0';
+        }
+        return new StringBuilder(prefix.length() + digits.length - start)
+                .append(prefix)
+                .append(digits, start, digits.length - start)
+                .toString();
+    }
+
+    /**
+     * Returns the number in an ID with this prefix and 3 to 18 digits, or {@link #NONE}.
+     */
+    public long parse(String id) {
+        if (id == null || !id.startsWith(prefix)) {
+            return NONE;
+        }
+        int digits = id.length() - prefix.length();
+        if (digits < MIN_DIGITS || digits > MAX_DIGITS) {
+            return NONE;
+        }
+        long value = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return NONE;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Like {@link #parse(String)}, but only accepts IDs exactly as {@link #format(long)} writes them,
+     * e.g. not {@code TXN0042}.
+     */
+    public long parseCanonical(String id) {
+        long value = parse(id);
+        if (value == NONE) {
+            return NONE;
+        }
+        int digits = id.length() - prefix.length();
+        boolean padded = digits > MIN_DIGITS && id.charAt(prefix.length()) == '0';
+        return padded ? NONE : value;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
@@ -0,0 +1,270 @@
+package com.bank.system.utils;
+
+import com.bank.system.enums.ExecutionMode;
+import com.bank.system.enums.TransactionResult;
+import com.bank.system.enums.TransactionType;
+import com.bank.system.models.Account;
+import com.bank.system.models.CheckingAccount;
+import com.bank.system.models.Money;
+import com.bank.system.models.RegularCustomer;
+import com.bank.system.services.AccountManager;
+import com.bank.system.services.TransactionManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load generator for capacity testing. It opens its own accounts, drives deposits,
+ * withdrawals and transfers through {@link TransactionManager} for a fixed duration, and reports
+ * throughput and latency percentiles per operation type.
+ *
+ * <p>Open-loop latency is measured from each operation's scheduled start rather than from when
+ * it actually ran. A stall therefore shows up in the percentiles instead of silently lowering
+ * the offered load.</p>
+ *
+ * <p>Run it headless with, for example:</p>
+ * <pre>
+ * java -cp target/classes com.bank.system.utils.LoadGenerator --accounts=10000 --skew=1.1
+ *      --mix=50,30,20 --rate=50000 --duration=30 --mode=virtual --engine-shards=4
+ * </pre>
+ */
+public class LoadGenerator {
+    static final List<TransactionType> OPERATION_TYPES =
+            List.of(TransactionType.DEPOSIT, TransactionType.WITHDRAWAL, TransactionType.TRANSFER);
+
+    private final AccountManager accountManager;
+    private final TransactionManager transactionManager;
+    private final LoadSettings settings;
+    private final String[] accountNumbers;
+    private final ZipfSampler accountSampler;
+    private final int mixTotal;
+
+    // Net effect of succeeded operations over the whole run, warmup included
+    private final LongAdder depositedMinor = new LongAdder();
+    private final LongAdder withdrawnMinor = new LongAdder();
+
+    /**
+     * Creates the settings' number of checking accounts in the given registry.
+     */
+    public LoadGenerator(AccountManager accountManager, TransactionManager transactionManager, LoadSettings settings) {
+        this.accountManager = accountManager;
+        this.transactionManager = transactionManager;
+        this.settings = settings;
+        this.accountNumbers = openAccounts(settings.getAccounts(), settings.getInitialBalanceMinor());
+        this.accountSampler = new ZipfSampler(settings.getAccounts(), settings.getZipfSkew());
+        this.mixTotal = settings.getDepositWeight() + settings.getWithdrawalWeight() + settings.getTransferWeight();
+    }
+
+    private String[] openAccounts(int count, long initialBalanceMinor) {
+        RegularCustomer customer = new RegularCustomer("Load Generator", 30, "0000000000", "benchmark");
+        Map<String, Account> accounts = new LinkedHashMap<>();
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            Account account = new CheckingAccount(customer, Money.toMajor(initialBalanceMinor));
+            accounts.put(account.getAccountNumber(), account);
+            numbers[i] = account.getAccountNumber();
+        }
+        accountManager.putAll(accounts);
+        return numbers;
+    }
+
+    public LoadReport run() {
+        LoadReport report = new LoadReport(settings);
+        long startTotal = totalBalanceMinor();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.getWarmup().toNanos();
+        long end = measureFrom + settings.getDuration().toNanos();
+
+        if (settings.isOpenLoop()) {
+            runOpenLoop(report, start, measureFrom, end);
+        } else {
+            runClosedLoop(report, measureFrom, end);
+        }
+
+        long expected = startTotal + depositedMinor.sum() - withdrawnMinor.sum();
+        report.complete(end - measureFrom, expected, totalBalanceMinor());
+        return report;
+    }
+
+    // Each worker starts its next operation as soon as the previous one finishes
+    private void runClosedLoop(LoadReport report, long measureFrom, long end) {
+        try (ExecutorService executor = TaskExecutors.newExecutor(settings.getExecutionMode(),
+                settings.getThreads(), "load")) {
+            for (int i = 0; i < settings.getThreads(); i++) {
+                executor.submit(() -> {
+                    long now = System.nanoTime();
+                    while (now < end) {
+                        execute(report, now, measureFrom);
+                        now = System.nanoTime();
+                    }
+                });
+            }
+        }
+    }
+
+    // One dispatcher submits operations on a fixed schedule. Virtual threads run them all at once;
+    // a platform pool runs at most getThreads() and queues the rest, and latency counts from the schedule
+    private void runOpenLoop(LoadReport report, long start, long measureFrom, long end) {
+        double intervalNanos = 1_000_000_000.0 / settings.getArrivalRate();
+        try (ExecutorService executor = TaskExecutors.newExecutor(settings.getExecutionMode(),
+                settings.getThreads(), "load")) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + (long) (i * intervalNanos);
+                if (scheduled >= end) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.submit(() -> execute(report, scheduled, measureFrom));
+            }
+        }
+    }
+
+    private void execute(LoadReport report, long scheduled, long measureFrom) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        TransactionType type = pickOperation(random.nextInt(mixTotal));
+        long amountMinor = random.nextLong(settings.getMinAmountMinor(), settings.getMaxAmountMinor() + 1);
+        double amount = Money.toMajor(amountMinor);
+        int from = accountSampler.sample(random);
+
+        // Null for an error: bad input or an unexpected failure
+        Boolean succeeded;
+        try {
+            TransactionResult result = switch (type) {
+                case DEPOSIT -> transactionManager.tryDeposit(accountNumbers[from], amount);
+                case WITHDRAWAL -> transactionManager.tryWithdraw(accountNumbers[from], amount);
+                default -> transactionManager.tryTransfer(accountNumbers[from],
+                        accountNumbers[otherAccount(from, random)], amount);
+            };
+            succeeded = result.isApproved() ? Boolean.TRUE : result.isDeclined() ? Boolean.FALSE : null;
+        } catch (RuntimeException e) {
+            succeeded = null;
+        }
+        long latency = System.nanoTime() - scheduled;
+
+        if (Boolean.TRUE.equals(succeeded)) {
+            if (type == TransactionType.DEPOSIT) {
+                depositedMinor.add(amountMinor);
+            } else if (type == TransactionType.WITHDRAWAL) {
+                withdrawnMinor.add(amountMinor);
+            }
+        }
+        if (scheduled < measureFrom) {
+            return;
+        }
+        LoadReport.OperationStats stats = report.statsFor(type);
+        stats.latency.record(latency);
+        if (succeeded == null) {
+            stats.errors.increment();
+        } else if (succeeded) {
+            stats.succeeded.increment();
+        } else {
+            stats.declined.increment();
+        }
+    }
+
+    private TransactionType pickOperation(int roll) {
+        if (roll < settings.getDepositWeight()) {
+            return TransactionType.DEPOSIT;
+        }
+        if (roll < settings.getDepositWeight() + settings.getWithdrawalWeight()) {
+            return TransactionType.WITHDRAWAL;
+        }
+        return TransactionType.TRANSFER;
+    }
+
+    private int otherAccount(int from, ThreadLocalRandom random) {
+        int to = accountSampler.sample(random);
+        return to != from ? to : (from + 1) % accountNumbers.length;
+    }
+
+    private long totalBalanceMinor() {
+        long total = 0;
+        for (String accountNumber : accountNumbers) {
+            total += accountManager.getAccount(accountNumber).getBalanceMinor();
+        }
+        return total;
+    }
+
+    /**
+     * Picks account indexes with probability proportional to 1 / (rank + 1)^skew, using a
+     * precomputed cumulative distribution and binary search.
+     */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int size, double skew) {
+            cumulative = new double[size];
+            double total = 0;
+            for (int i = 0; i < size; i++) {
+                total += skew == 0 ? 1.0 : 1.0 / Math.pow(i + 1, skew);
+                cumulative[i] = total;
+            }
+            for (int i = 0; i < size; i++) {
+                cumulative[i] /= total;
+            }
+        }
+
+        int sample(ThreadLocalRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            int insertion = index >= 0 ? index : -index - 1;
+            return Math.min(insertion, cumulative.length - 1);
+        }
+    }
+
+    public static void main(String[] args) {
+        LoadSettings settings = new LoadSettings();
+        int engineShards = 0;
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("--") || split < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, split);
+            String value = arg.substring(split + 1);
+            switch (name) {
+                case "accounts" -> settings.accounts(Integer.parseInt(value));
+                case "skew" -> settings.zipfSkew(Double.parseDouble(value));
+                case "mix" -> {
+                    int[] weights = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    if (weights.length != 3) {
+                        throw new IllegalArgumentException("--mix needs deposit,withdrawal,transfer weights");
+                    }
+                    settings.mix(weights[0], weights[1], weights[2]);
+                }
+                case "rate" -> settings.arrivalRate(Double.parseDouble(value));
+                case "threads" -> settings.threads(Integer.parseInt(value));
+                case "duration" -> settings.duration(Duration.ofSeconds(Long.parseLong(value)));
+                case "warmup" -> settings.warmup(Duration.ofSeconds(Long.parseLong(value)));
+                case "mode" -> settings.executionMode(ExecutionMode.valueOf(value.toUpperCase()));
+                case "engine-shards" -> engineShards = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+
+        AccountManager accountManager = new AccountManager();
+        TransactionManager transactionManager = new TransactionManager(accountManager);
+        if (engineShards > 0) {
+            transactionManager.startEngine(engineShards);
+        }
+        LoadReport report;
+        try {
+            report = new LoadGenerator(accountManager, transactionManager, settings).run();
+        } finally {
+            transactionManager.stopEngine();
+        }
+        System.out.println(report.format());
+        if (!report.isMoneyConserved()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.bank.system.utils;
+
+import com.bank.system.enums.TransactionType;
+import com.bank.system.models.Money;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome of a {@link LoadGenerator} run: throughput and latency percentiles per operation type
+ * over the measured window, and whether the accounts still hold exactly the money that
+ * succeeded deposits and withdrawals say they should.
+ */
+public class LoadReport {
+    private final LoadSettings settings;
+    private final Map<TransactionType, OperationStats> stats = new EnumMap<>(TransactionType.class);
+    private long measuredNanos;
+    private long expectedTotalMinor;
+    private long actualTotalMinor;
+
+    LoadReport(LoadSettings settings) {
+        this.settings = settings;
+        for (TransactionType type : LoadGenerator.OPERATION_TYPES) {
+            stats.put(type, new OperationStats());
+        }
+    }
+
+    OperationStats statsFor(TransactionType type) {
+        return stats.get(type);
+    }
+
+    void complete(long measuredNanos, long expectedTotalMinor, long actualTotalMinor) {
+        this.measuredNanos = measuredNanos;
+        this.expectedTotalMinor = expectedTotalMinor;
+        this.actualTotalMinor = actualTotalMinor;
+    }
+
+    public LoadSettings getSettings() {
+        return settings;
+    }
+
+    public LatencyHistogram getLatency(TransactionType type) {
+        return stats.get(type).latency;
+    }
+
+    public long getSucceeded(TransactionType type) {
+        return stats.get(type).succeeded.sum();
+    }
+
+    // Refused by the account rules, e.g. insufficient funds, or a lock timeout
+    public long getDeclined(TransactionType type) {
+        return stats.get(type).declined.sum();
+    }
+
+    public long getErrors(TransactionType type) {
+        return stats.get(type).errors.sum();
+    }
+
+    public long getMeasuredOperations() {
+        long total = 0;
+        for (OperationStats operationStats : stats.values()) {
+            total += operationStats.latency.getCount();
+        }
+        return total;
+    }
+
+    public double getOperationsPerSecond(TransactionType type) {
+        return perSecond(stats.get(type).latency.getCount());
+    }
+
+    public double getOperationsPerSecond() {
+        return perSecond(getMeasuredOperations());
+    }
+
+    private double perSecond(long operations) {
+        return measuredNanos <= 0 ? 0.0 : operations * 1_000_000_000.0 / measuredNanos;
+    }
+
+    public long getExpectedTotalMinor() {
+        return expectedTotalMinor;
+    }
+
+    public long getActualTotalMinor() {
+        return actualTotalMinor;
+    }
+
+    public boolean isMoneyConserved() {
+        return expectedTotalMinor == actualTotalMinor;
+    }
+
+    public String format() {
+        StringBuilder report = new StringBuilder();
+        report.append("Load: ").append(settings).append('\n');
+        report.append(String.format("%-10s | %12s | %9s | %9s | %7s | %10s | %10s | %10s | %10s%n",
+                "Operation", "ops/sec", "ok", "declined", "errors", "p50 us", "p99 us", "p999 us", "max us"));
+        for (TransactionType type : LoadGenerator.OPERATION_TYPES) {
+            LatencyHistogram latency = getLatency(type);
+            report.append(String.format("%-10s | %,12.0f | %9d | %9d | %7d | %,10.1f | %,10.1f | %,10.1f | %,10.1f%n",
+                    type, getOperationsPerSecond(type), getSucceeded(type), getDeclined(type), getErrors(type),
+                    latency.getPercentile(50) / 1_000.0, latency.getPercentile(99) / 1_000.0,
+                    latency.getPercentile(99.9) / 1_000.0, latency.getMax() / 1_000.0));
+        }
+        report.append(String.format("Total: %,.0f ops/sec over %,d measured operations%n",
+                getOperationsPerSecond(), getMeasuredOperations()));
+        report.append("Money conserved: ").append(isMoneyConserved() ? "yes" : "NO")
+                .append(" (expected $").append(Money.formatGrouped(expectedTotalMinor))
+                .append(", actual $").append(Money.formatGrouped(actualTotalMinor)).append(')');
+        return report.toString();
+    }
+
+    static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder succeeded = new LongAdder();
+        final LongAdder declined = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
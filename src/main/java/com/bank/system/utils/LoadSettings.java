@@ -0,0 +1,191 @@
+package com.bank.system.utils;
+
+import com.bank.system.enums.ExecutionMode;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link LoadGenerator}. An arrival rate above zero selects open-loop load, where
+ * operations start on schedule whether or not earlier ones have finished. Otherwise a fixed
+ * number of workers each issue their next operation as soon as the last one completes.
+ */
+public class LoadSettings {
+    private int accounts = 1_000;
+    private double zipfSkew = 0.0;
+    private int depositWeight = 50;
+    private int withdrawalWeight = 30;
+    private int transferWeight = 20;
+    private double arrivalRate = 0.0;
+    private int threads = 8;
+    private Duration duration = Duration.ofSeconds(10);
+    private Duration warmup = Duration.ZERO;
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    private long initialBalanceMinor = 1_000_000;
+    private long minAmountMinor = 100;
+    private long maxAmountMinor = 10_000;
+
+    public LoadSettings accounts(int accounts) {
+        if (accounts < 2) {
+            throw new IllegalArgumentException("At least 2 accounts are needed for transfers");
+        }
+        this.accounts = accounts;
+        return this;
+    }
+
+    /**
+     * Zipf exponent for picking accounts: 0 is uniform, around 1 makes a few accounts hot.
+     */
+    public LoadSettings zipfSkew(double zipfSkew) {
+        if (!(zipfSkew >= 0) || Double.isInfinite(zipfSkew)) {
+            throw new IllegalArgumentException("Zipf skew must not be negative");
+        }
+        this.zipfSkew = zipfSkew;
+        return this;
+    }
+
+    /**
+     * Relative weights of deposits, withdrawals and transfers, e.g. 50/30/20.
+     */
+    public LoadSettings mix(int depositWeight, int withdrawalWeight, int transferWeight) {
+        if (depositWeight < 0 || withdrawalWeight < 0 || transferWeight < 0
+                || depositWeight + withdrawalWeight + transferWeight == 0) {
+            throw new IllegalArgumentException("Mix weights must not be negative and must not all be 0");
+        }
+        this.depositWeight = depositWeight;
+        this.withdrawalWeight = withdrawalWeight;
+        this.transferWeight = transferWeight;
+        return this;
+    }
+
+    /**
+     * Operations started per second across all accounts; 0 switches to closed-loop load.
+     */
+    public LoadSettings arrivalRate(double arrivalRate) {
+        if (!(arrivalRate >= 0) || Double.isInfinite(arrivalRate)) {
+            throw new IllegalArgumentException("Arrival rate must not be negative");
+        }
+        this.arrivalRate = arrivalRate;
+        return this;
+    }
+
+    /**
+     * Number of closed-loop workers. Open-loop load on platform threads runs on a pool of this
+     * size, so at most this many operations are in flight; later arrivals queue, and the wait
+     * counts toward their latency. On virtual threads open-loop operations are not capped.
+     */
+    public LoadSettings threads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be greater than 0");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    public LoadSettings duration(Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be greater than 0");
+        }
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Leading part of the run whose operations are executed but not measured.
+     */
+    public LoadSettings warmup(Duration warmup) {
+        if (warmup.isNegative()) {
+            throw new IllegalArgumentException("Warmup must not be negative");
+        }
+        this.warmup = warmup;
+        return this;
+    }
+
+    public LoadSettings executionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+
+    public LoadSettings initialBalanceMinor(long initialBalanceMinor) {
+        if (initialBalanceMinor < 0) {
+            throw new IllegalArgumentException("Initial balance must not be negative");
+        }
+        this.initialBalanceMinor = initialBalanceMinor;
+        return this;
+    }
+
+    /**
+     * Amounts are drawn uniformly from this range, in minor units.
+     */
+    public LoadSettings amountRangeMinor(long minAmountMinor, long maxAmountMinor) {
+        if (minAmountMinor <= 0 || maxAmountMinor < minAmountMinor) {
+            throw new IllegalArgumentException("Amount range must be positive and not empty");
+        }
+        this.minAmountMinor = minAmountMinor;
+        this.maxAmountMinor = maxAmountMinor;
+        return this;
+    }
+
+    public boolean isOpenLoop() {
+        return arrivalRate > 0;
+    }
+
+    public int getAccounts() {
+        return accounts;
+    }
+
+    public double getZipfSkew() {
+        return zipfSkew;
+    }
+
+    public int getDepositWeight() {
+        return depositWeight;
+    }
+
+    public int getWithdrawalWeight() {
+        return withdrawalWeight;
+    }
+
+    public int getTransferWeight() {
+        return transferWeight;
+    }
+
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public long getInitialBalanceMinor() {
+        return initialBalanceMinor;
+    }
+
+    public long getMinAmountMinor() {
+        return minAmountMinor;
+    }
+
+    public long getMaxAmountMinor() {
+        return maxAmountMinor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d accounts, zipf %.2f, mix %d/%d/%d, %s, %ds (+%ds warmup), %s threads",
+                accounts, zipfSkew, depositWeight, withdrawalWeight, transferWeight,
+                isOpenLoop() ? String.format("open loop %.0f ops/s", arrivalRate) : "closed loop x" + threads,
+                duration.toSeconds(), warmup.toSeconds(), executionMode.name().toLowerCase());
+    }
+}
@@ -0,0 +1,99 @@
+package com.bank.system.utils;
+
+import com.bank.system.interfaces.OperationMetricsMXBean;
+import com.bank.system.models.Money;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counters, amount total and latency histogram for one operation type. Counters and
+ * histogram buckets are striped {@link LongAdder}s, so recording from many threads neither
+ * locks nor contends on a single field.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder declined = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder amountMinor = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public void recordSucceeded(long amountMinor, long nanos) {
+        countSucceeded(amountMinor);
+        latency.record(nanos);
+    }
+
+    public void recordDeclined(long nanos) {
+        declined.increment();
+        latency.record(nanos);
+    }
+
+    public void recordError(long nanos) {
+        errors.increment();
+        latency.record(nanos);
+    }
+
+    /**
+     * Counts an outcome that is timed elsewhere, e.g. one operation of a batch.
+     */
+    public void countSucceeded(long amountMinor) {
+        succeeded.increment();
+        this.amountMinor.add(amountMinor);
+    }
+
+    public void countDeclined() {
+        declined.increment();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor.sum();
+    }
+
+    @Override
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    @Override
+    public long getDeclined() {
+        return declined.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getAmountTotal() {
+        return Money.toMajor(amountMinor.sum());
+    }
+
+    @Override
+    public double getMeanLatencyMicros() {
+        return latency.getMean() / 1_000.0;
+    }
+
+    @Override
+    public double getP50LatencyMicros() {
+        return latency.getPercentile(50) / 1_000.0;
+    }
+
+    @Override
+    public double getP99LatencyMicros() {
+        return latency.getPercentile(99) / 1_000.0;
+    }
+
+    @Override
+    public double getP999LatencyMicros() {
+        return latency.getPercentile(99.9) / 1_000.0;
+    }
+
+    @Override
+    public double getMaxLatencyMicros() {
+        return latency.getMax() / 1_000.0;
+    }
+}
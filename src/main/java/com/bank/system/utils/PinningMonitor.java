@@ -0,0 +1,85 @@
+package com.bank.system.utils;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts virtual threads that blocked while pinned to their carrier, e.g. inside a
+ * {@code synchronized} block or a native frame, using the JFR {@code jdk.VirtualThreadPinned}
+ * event. Each pin is attributed to the innermost frame of this application, so a hot monitor
+ * shows up by method name. Start it before a virtual-thread workload and close it afterwards.
+ */
+public class PinningMonitor implements AutoCloseable {
+    public static final Duration DEFAULT_THRESHOLD = Duration.ofMillis(20);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.bank.system.";
+
+    private final RecordingStream stream;
+    private final LongAdder pinned = new LongAdder();
+    private final Map<String, LongAdder> pinnedByFrame = new ConcurrentHashMap<>();
+
+    public PinningMonitor() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold shortest pinned block that is reported; zero reports every one
+     */
+    public PinningMonitor(Duration threshold) {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            pinnedByFrame.computeIfAbsent(describe(event.getStackTrace()), key -> new LongAdder()).increment();
+        });
+        stream.startAsync();
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APPLICATION_PACKAGE)) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        RecordedFrame top = frames.get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+
+    public long getPinnedCount() {
+        return pinned.sum();
+    }
+
+    /**
+     * Pin counts per application frame, most frequent first.
+     */
+    public Map<String, Long> getPinnedByFrame() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        pinnedByFrame.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .forEach(entry -> counts.put(entry.getKey(), entry.getValue().sum()));
+        return counts;
+    }
+
+    /**
+     * Flushes events still in the recording, then stops it.
+     */
+    @Override
+    public void close() {
+        stream.stop();
+        stream.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.bank.system.utils;
+
+import com.bank.system.enums.ExecutionMode;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates executors for transaction and session work in either {@link ExecutionMode}. Virtual
+ * mode starts a new virtual thread for every task, so tens of thousands of blocking operations
+ * can be in flight without sizing a pool; the thread count only applies to platform mode.
+ */
+public final class TaskExecutors {
+
+    // Hide utility class constructor
+    private TaskExecutors() {
+        throw new UnsupportedOperationException("TaskExecutors is a utility class and cannot be instantiated");
+    }
+
+    public static ExecutorService newExecutor(ExecutionMode mode, int platformThreads, String name) {
+        return switch (mode) {
+            case PLATFORM -> Executors.newFixedThreadPool(platformThreads,
+                    Thread.ofPlatform().name(name + "-", 1).factory());
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name(name + "-", 1).factory());
+        };
+    }
+
+    public static ExecutorService newExecutor(int platformThreads, String name) {
+        return newExecutor(ExecutionMode.fromSystemProperty(), platformThreads, name);
+    }
+}
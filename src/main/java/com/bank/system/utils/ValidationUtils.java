@@ -1,12 +1,14 @@
 package com.bank.system.utils;
 
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public class ValidationUtils {
 
     // Regex patterns
-    private static final String ACCOUNT_NUMBER_PATTERN = "^ACC\\d{3}$";
+    private static final String ACCOUNT_NUMBER_PATTERN = "^ACC\\d{3,18}$";
     private static final String EMAIL_PATTERN = "^[A-Za-z0-9+_.-]+@([A-Za-z0-9.-]+\\.[A-Za-z]{2,})$";
     //    private static final String PHONE_PATTERN = "^\\+?[1-9]\\d{1,14}$"; // International phone format
     private static final String NAME_PATTERN = "^[A-Za-zÀ-ÖØ-öø-ÿ\\s'-]+$";
@@ -39,7 +41,8 @@ public class ValidationUtils {
     public static final Predicate<Integer> isValidAge =
             age -> age != null && age >= 0 && age <= 150;
 
-    public static final Predicate<Double> isValidAmount = amount -> amount != null && amount>0;
+    public static final DoublePredicate isValidAmount = amount -> amount > 0 && !Double.isInfinite(amount);
+    public static final LongPredicate isValidMinorAmount = amountMinor -> amountMinor > 0;
 
 
     public static boolean validateAccountNumber(String accountNumber) {
@@ -64,6 +67,9 @@ public class ValidationUtils {
     public static boolean validateAmount(double amount) {
         return isValidAmount.test(amount);
     }
+    public static boolean validateAmountMinor(long amountMinor) {
+        return isValidMinorAmount.test(amountMinor);
+    }
     public static boolean validateContactNumber(String contactNumber) {
         return isValidPhone.test(contactNumber);
     }
@@ -0,0 +1,208 @@
+package com.bank.system.test;
+
+import com.bank.system.models.*;
+import com.bank.system.services.AccountManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountManagerTest {
+    private AccountManager accountManager;
+    private RegularCustomer customer;
+
+    @BeforeEach
+    void setUp() {
+        accountManager = new AccountManager();
+        customer = new RegularCustomer("John Smith", 35, "1234567890", "123 Main St");
+    }
+
+    @Test
+    @DisplayName("Test Bulk Load Is Seen All At Once")
+    void testBulkLoadIsSeenAllAtOnce() throws InterruptedException {
+        Map<String, Account> loaded = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            Account account = new CheckingAccount(customer, 0.0);
+            loaded.put(account.getAccountNumber(), account);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger partialViews = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                int size = accountManager.getAllAccounts().size();
+                if (size != 0 && size != loaded.size()) {
+                    partialViews.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+        accountManager.putAll(loaded);
+        done.set(true);
+        reader.join();
+
+        assertEquals(0, partialViews.get());
+        assertEquals(loaded.size(), accountManager.getAllAccounts().size());
+    }
+
+    @Test
+    @DisplayName("Test Accounts Added During A Load Are Kept")
+    void testAccountsAddedDuringLoadAreKept() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 200; i++) {
+            executor.submit(() -> accountManager.addAccount(new SavingsAccount(customer, 1000.0)));
+            executor.submit(() -> accountManager.putAll(Map.of()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(200, accountManager.getAllAccounts().size());
+    }
+
+    @Test
+    @DisplayName("Test Registry Views Are Read Only")
+    void testRegistryViewsAreReadOnly() {
+        Account account = new SavingsAccount(customer, 1000.0);
+        accountManager.addAccount(account);
+
+        assertThrows(UnsupportedOperationException.class, () -> accountManager.getAccountsMap().clear());
+        assertThrows(UnsupportedOperationException.class, () -> accountManager.getAllAccounts().clear());
+
+        accountManager.replaceAll(Map.of());
+        assertNull(accountManager.getAccount(account.getAccountNumber()));
+    }
+
+    @Test
+    @DisplayName("Test Balance Index Follows Balance Changes")
+    void testBalanceIndexFollowsBalanceChanges() throws Exception {
+        Account low = addChecking(100.0);
+        Account middle = addChecking(500.0);
+        Account high = addChecking(900.0);
+
+        assertEquals(List.of(high, middle, low), accountManager.getAccountsSortedByBalance());
+
+        low.deposit(1_000.0);
+        high.withdraw(850.0);
+
+        assertEquals(List.of(low, middle), accountManager.getTopAccountsByBalance(2));
+        assertEquals(List.of(high, middle), accountManager.getAccountsInBalanceRange(50.0, 500.0));
+
+        accountManager.removeAccount(middle.getAccountNumber());
+        middle.deposit(5_000.0);
+        assertEquals(List.of(low, high), accountManager.getAccountsSortedByBalance());
+    }
+
+    @Test
+    @DisplayName("Test Concurrent Balance Changes Leave One Current Entry Per Account")
+    void testConcurrentBalanceChangesKeepIndexCurrent() throws InterruptedException {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            accounts.add(addChecking(0.0));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 4_000; i++) {
+            Account account = accounts.get(i % accounts.size());
+            executor.submit(() -> account.deposit(1.0));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<Account> byBalance = accountManager.getAccountsSortedByBalance();
+        assertEquals(4, byBalance.size());
+        assertEquals(4, accountManager.getAccountsInBalanceRange(1_000.0, 1_000.0).size());
+    }
+
+    @Test
+    @DisplayName("Test Type Index And Pages Are Ordered By Account Number")
+    void testTypeIndexAndPagesAreOrdered() {
+        Account savings = addSavings();
+        List<Account> checking = List.of(addChecking(1.0), addChecking(2.0), addChecking(3.0));
+
+        assertEquals(List.of(savings), accountManager.getAccountsByType("savings"));
+        assertEquals(checking, accountManager.getAccountsByType("CHECKING"));
+
+        List<Account> firstPage = accountManager.getAccountsPage(null, 2);
+        List<Account> secondPage = accountManager.getAccountsPage(firstPage.get(1).getAccountNumber(), 2);
+        List<Account> all = new ArrayList<>(firstPage);
+        all.addAll(secondPage);
+        assertEquals(accountManager.getAccountsSortedByNumber(), all);
+        assertEquals(4, all.size());
+    }
+
+    @Test
+    @DisplayName("Test Customer Search Ranks Exact And Prefix Name Matches")
+    void testCustomerSearchRanksNameMatches() {
+        Account johnson = addFor(new RegularCustomer("Sarah Johnson", 28, "+1-555-0102", "1 Oak Ave"));
+        Account john = addFor(new RegularCustomer("John", 35, "+1-555-0199", "2 Elm St"));
+        Account johnny = addFor(new PremiumCustomer("Johnny Walker", 40, "0244123456", "3 Pine Rd"));
+
+        assertEquals(List.of(john, johnny, johnson), accountManager.searchAccounts("john", 10));
+        assertEquals(List.of(johnny), accountManager.searchAccounts("jo wal", 10));
+        assertEquals(List.of(johnson), accountManager.searchAccounts("hnso", 10));
+        assertEquals(2, accountManager.searchAccounts("john", 2).size());
+        assertTrue(accountManager.searchAccounts("zed", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test Customer Search Matches Normalized Phone Numbers")
+    void testCustomerSearchMatchesPhoneNumbers() {
+        Account first = addFor(new RegularCustomer("Sarah Johnson", 28, "+1-555-0102", "1 Oak Ave"));
+        Account second = addFor(new RegularCustomer("Emily Brown", 31, "+1 555 0104", "2 Elm St"));
+
+        assertEquals(List.of(first), accountManager.searchAccounts("0102", 10));
+        assertEquals(2, accountManager.searchAccounts("555-01", 10).size());
+        assertEquals(List.of(second), accountManager.searchAccounts("15550104", 10));
+    }
+
+    @Test
+    @DisplayName("Test Customer Search Follows Updates And Removals")
+    void testCustomerSearchFollowsUpdatesAndRemovals() {
+        Customer shared = new RegularCustomer("Michael Chen", 42, "+1-555-0103", "3 Pine Rd");
+        Account savings = addFor(shared);
+        Account checking = addChecking(shared);
+
+        accountManager.updateCustomerInfo(savings.getAccountNumber(), "Michelle Chen", 42, "0201234567", "3 Pine Rd");
+
+        assertTrue(accountManager.searchAccounts("michael", 10).isEmpty());
+        assertEquals(2, accountManager.searchAccounts("michelle", 10).size());
+        assertEquals(2, accountManager.searchAccounts("0201", 10).size());
+
+        accountManager.removeAccount(savings.getAccountNumber());
+        assertEquals(List.of(checking), accountManager.searchAccounts("michelle", 10));
+    }
+
+    private Account addFor(Customer owner) {
+        Account account = new SavingsAccount(owner, 1000.0);
+        accountManager.addAccount(account);
+        return account;
+    }
+
+    private Account addChecking(Customer owner) {
+        Account account = new CheckingAccount(owner, 0.0);
+        accountManager.addAccount(account);
+        return account;
+    }
+
+    private Account addChecking(double balance) {
+        Account account = new CheckingAccount(customer, balance);
+        accountManager.addAccount(account);
+        return account;
+    }
+
+    private Account addSavings() {
+        Account account = new SavingsAccount(customer, 1000.0);
+        accountManager.addAccount(account);
+        return account;
+    }
+}
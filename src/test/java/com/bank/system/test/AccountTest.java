@@ -1,11 +1,25 @@
 package com.bank.system.test;
 
+import com.bank.system.enums.ExecutionMode;
+import com.bank.system.enums.TransactionResult;
 import com.bank.system.exceptions.*;
 import com.bank.system.models.*;
+import com.bank.system.utils.IdSequence;
+import com.bank.system.utils.TaskExecutors;
+import com.bank.system.utils.ValidationUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class AccountTest {
@@ -108,6 +122,145 @@ public class AccountTest {
         assertEquals(initialBalance - 600.0, account.getBalance(), 0.01);
     }
 
+    @Test
+    @DisplayName("Test Concurrent Deposits Are Not Lost")
+    void testConcurrentDepositsAreNotLost() throws InterruptedException {
+        CheckingAccount account = createCheckingAccount(0.0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            executor.submit(() -> {
+                account.deposit(1.0);
+                return null;
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(8_000.0, account.getBalance(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Test Concurrent Withdrawals Respect Minimum Balance")
+    void testConcurrentWithdrawalsRespectMinimumBalance() throws InterruptedException {
+        SavingsAccount account = createSavingsAccount(1500.0);
+        AtomicInteger approved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.submit(() -> {
+                try {
+                    account.withdraw(10.0);
+                    approved.incrementAndGet();
+                } catch (InsufficientFundsException | InvalidAmountException ignored) {
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(100, approved.get());
+        assertEquals(account.getMinimumBalance(), account.getBalance(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Test Concurrently Created Account Numbers Are Unique And Valid")
+    void testConcurrentAccountNumbersAreUniqueAndValid() throws InterruptedException {
+        Set<String> accountNumbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2_000; i++) {
+            executor.submit(() -> accountNumbers.add(createCheckingAccount(0.0).getAccountNumber()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(2_000, accountNumbers.size());
+        assertTrue(accountNumbers.stream().allMatch(ValidationUtils::validateAccountNumber));
+    }
+
+    @Test
+    @DisplayName("Test Virtual Threads Take Sequence Numbers Without Gaps")
+    void testVirtualThreadsTakeSequenceNumbersWithoutGaps() throws InterruptedException {
+        IdSequence sequence = new IdSequence("VT");
+        Set<Long> values = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = TaskExecutors.newExecutor(ExecutionMode.VIRTUAL, 0, "id-test")) {
+            for (int i = 0; i < 10_000; i++) {
+                executor.submit(() -> values.add(sequence.nextValue()));
+            }
+        }
+
+        assertEquals(10_000, values.size());
+        assertEquals(10_000L, values.stream().mapToLong(Long::longValue).max().orElse(0));
+    }
+
+    @Test
+    @DisplayName("Test Loaded Account Numbers Move The Sequence Past Them")
+    void testLoadedAccountNumbersMoveTheSequence() {
+        new SavingsAccount("ACC1000000", customer, 1000.0);
+
+        Account created = createCheckingAccount(0.0);
+
+        assertTrue(IdSequence.ID_ORDER.compare("ACC1000000", created.getAccountNumber()) < 0);
+    }
+
+    @Test
+    @DisplayName("Test Observing An ID Inside A Reserved Block Skips Past It")
+    void testObservingIdInsideReservedBlock() {
+        IdSequence sequence = new IdSequence("ACC");
+
+        assertEquals("ACC001", sequence.next());
+        sequence.observe("ACC005");
+
+        assertEquals("ACC006", sequence.next());
+        assertEquals("ACC007", sequence.next());
+    }
+
+    @Test
+    @DisplayName("Test ID Order Is Numeric Across Widths")
+    void testIdOrderIsNumericAcrossWidths() {
+        List<String> ids = new ArrayList<>(List.of("TXN1000", "TXN999", "TXN010", "TXN12345"));
+
+        ids.sort(IdSequence.ID_ORDER);
+
+        assertEquals(List.of("TXN010", "TXN999", "TXN1000", "TXN12345"), ids);
+        assertEquals("TXN007", new IdSequence("TXN").format(7));
+        assertEquals(IdSequence.NONE, new IdSequence("TXN").parseCanonical("TXN0042"));
+    }
+
+    @Test
+    @DisplayName("Test Try Withdraw Reports Declines Without Throwing")
+    void testTryWithdrawReportsDeclines() {
+        SavingsAccount savings = createSavingsAccount(1000.0);
+        CheckingAccount checking = createCheckingAccount(100.0);
+
+        assertEquals(TransactionResult.INSUFFICIENT_FUNDS, savings.tryWithdrawMinor(Money.ofMajor(600.0)));
+        assertEquals(TransactionResult.OVERDRAFT_EXCEEDED, checking.tryWithdrawMinor(Money.ofMajor(700.0)));
+        assertEquals(TransactionResult.INVALID_AMOUNT, savings.tryWithdrawMinor(0));
+        assertEquals(1000.0, savings.getBalance(), 0.01);
+        assertEquals(Money.ofMajor(500.0), savings.getAvailableMinor());
+        assertEquals(Money.ofMajor(600.0), checking.getAvailableMinor());
+
+        assertEquals(TransactionResult.APPROVED, savings.tryWithdrawMinor(Money.ofMajor(500.0)));
+        assertEquals(500.0, savings.getBalance(), 0.01);
+        assertEquals(0, savings.getAvailableMinor());
+    }
+
+    @Test
+    @DisplayName("Test Decline Message Uses Balance Seen By Failed Withdrawal")
+    void testDeclineMessageUsesSeenBalance() {
+        SavingsAccount savings = createSavingsAccount(1000.0);
+        long[] seen = new long[1];
+
+        // A deposit landing right after the refusing check must not leak into the message
+        TransactionResult result = savings.tryWithdrawMinor(Money.ofMajor(600.0), balance -> {
+            seen[0] = balance;
+            savings.tryDepositMinor(Money.ofMajor(500.0));
+        });
+
+        assertEquals(TransactionResult.INSUFFICIENT_FUNDS, result);
+        assertEquals(Money.ofMajor(1000.0), seen[0]);
+        assertEquals(1500.0, savings.getBalance(), 0.01);
+        assertTrue(savings.describeDecline(Money.ofMajor(600.0), seen[0]).contains("Current balance: $1000.00"));
+    }
+
     private SavingsAccount createSavingsAccount(double balance) {
         return new SavingsAccount(customer, balance);
     }
@@ -1,26 +1,54 @@
 package com.bank.system.test;
 
 import com.bank.system.models.*;
+import com.bank.system.enums.TransactionResult;
+import com.bank.system.enums.TransactionType;
+import com.bank.system.services.AccountManager;
+import com.bank.system.services.BinaryTransactionLog;
 import com.bank.system.services.FilePersistence;
+import com.bank.system.services.StatementGenerator;
+import com.bank.system.services.TransactionJournal;
+import com.bank.system.services.TransactionManager;
+import com.bank.system.services.TransactionStore;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FilePersistenceTest {
     private static final Path ACCOUNTS_PATH = Paths.get("data/accounts.txt");
     private static final Path TRANSACTIONS_PATH = Paths.get("data/transactions.txt");
+    private static final Path BINARY_PATH = Paths.get("data/transactions.bin");
+    private static final Path JOURNAL_START_PATH = Paths.get("data/journal.start");
 
     private FilePersistence persistence;
 
@@ -29,12 +57,21 @@ class FilePersistenceTest {
         persistence = new FilePersistence();
         deleteIfExists(ACCOUNTS_PATH);
         deleteIfExists(TRANSACTIONS_PATH);
+        deleteIfExists(JOURNAL_START_PATH);
     }
 
     @AfterEach
     void tearDown() throws IOException {
+        persistence.closeJournal();
         deleteIfExists(ACCOUNTS_PATH);
         deleteIfExists(TRANSACTIONS_PATH);
+        deleteIfExists(BINARY_PATH);
+        deleteIfExists(JOURNAL_START_PATH);
+        try (Stream<Path> files = Files.list(TRANSACTIONS_PATH.getParent())) {
+            for (Path file : files.filter(path -> path.getFileName().toString().startsWith("snapshot-")).toList()) {
+                Files.delete(file);
+            }
+        }
     }
 
     @Test
@@ -85,6 +122,116 @@ class FilePersistenceTest {
         assertEquals(transaction.getTimestamp(), loadedTransaction.getTimestamp());
     }
 
+    @Test
+    @DisplayName("loadTransactions does not need the common fork-join pool")
+    void loadTransactionsRunsWithCommonPoolBusy() {
+        persistence.saveTransactions(List.of(
+                new Transaction("TXN998", "ACC123", "DEPOSIT", 200.0, 1200.0, "15-12-2025 10:00 AM")));
+        CountDownLatch release = new CountDownLatch(1);
+        int workers = ForkJoinPool.getCommonPoolParallelism();
+        for (int i = 0; i < workers; i++) {
+            ForkJoinPool.commonPool().execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                assertEquals(1, persistence.loadTransactions().size());
+            });
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("loadTransactions reads amounts written by the old double-based format")
+    void loadTransactionsReadsLegacyAmounts() throws IOException {
+        Files.createDirectories(TRANSACTIONS_PATH.getParent());
+        Files.write(TRANSACTIONS_PATH, List.of(
+                "TXN001|ACC001|DEPOSIT|3457.0|3457.0|12-01-2026 10:00 AM",
+                "TXN002|ACC001|WITHDRAWAL|0.30000000000000004|1.0E7|12-01-2026 10:01 AM"));
+
+        List<Transaction> loaded = persistence.loadTransactions();
+
+        assertEquals(2, loaded.size());
+        assertEquals(345_700L, loaded.get(0).getAmountMinor());
+        assertEquals(30L, loaded.get(1).getAmountMinor());
+        assertEquals(1_000_000_000L, loaded.get(1).getBalanceAfterMinor());
+    }
+
+    @Test
+    @DisplayName("saveTransactions writes exact two-decimal amounts")
+    void saveTransactionsWritesExactAmounts() throws IOException {
+        Transaction transaction = Transaction.ofMinorUnits("TXN998", "ACC123", "DEPOSIT", 10L, 123_456_789L, 1_765_792_800_123L);
+
+        persistence.saveTransactions(List.of(transaction));
+
+        assertEquals(List.of("TXN998|ACC123|DEPOSIT|0.10|1234567.89|2025-12-15T10:00:00.123Z"), Files.readAllLines(TRANSACTIONS_PATH));
+    }
+
+    @Test
+    @DisplayName("saveTransactions streams rows in store order and skips duplicate IDs")
+    void saveTransactionsStreamsInStoreOrder() throws IOException {
+        TransactionStore store = new TransactionStore();
+        store.append(Transaction.ofMinorUnits("TXN010", "ACC123", "DEPOSIT", 1_000L, 1_000L, 1_765_792_800_000L));
+        store.append(Transaction.ofMinorUnits("TXN002", "ACC123", "DEPOSIT", 2_000L, 3_000L, 1_765_792_801_000L));
+        store.append(Transaction.ofMinorUnits("TXN010", "ACC123", "DEPOSIT", 5_000L, 8_000L, 1_765_792_802_000L));
+        store.append(Transaction.ofMinorUnits("LEGACY-7", "ACC123", "WITHDRAWAL", 500L, 2_500L, 1_765_792_803_000L));
+        store.append(Transaction.ofMinorUnits("LEGACY-7", "ACC123", "WITHDRAWAL", 500L, 2_000L, 1_765_792_804_000L));
+
+        persistence.saveTransactions(store);
+
+        assertEquals(List.of(
+                "TXN010|ACC123|DEPOSIT|10.00|10.00|2025-12-15T10:00:00.000Z",
+                "TXN002|ACC123|DEPOSIT|20.00|30.00|2025-12-15T10:00:01.000Z",
+                "LEGACY-7|ACC123|WITHDRAWAL|5.00|25.00|2025-12-15T10:00:03.000Z"), Files.readAllLines(TRANSACTIONS_PATH));
+        assertEquals(3L, persistence.getTimers().get("saveTransactions").getLastRecords());
+        assertEquals(List.of("TXN010", "TXN002", "LEGACY-7"),
+                persistence.loadTransactions().stream().map(Transaction::getTransactionId).toList());
+    }
+
+    @Test
+    @DisplayName("loadTransactions reads both legacy and instant timestamps in time order")
+    void loadTransactionsReadsLegacyAndInstantTimestamps() throws IOException {
+        Files.write(TRANSACTIONS_PATH, List.of(
+                "TXN001|ACC123|DEPOSIT|10.00|110.00|01-12-2025 11:00 PM",
+                "TXN002|ACC123|DEPOSIT|10.00|120.00|2025-12-15T10:00:00.123Z"));
+
+        List<Transaction> loaded = persistence.loadTransactions();
+
+        assertEquals(2, loaded.size());
+        assertEquals("01-12-2025 11:00 PM", loaded.get(0).getTimestamp());
+        assertEquals(1_765_792_800_123L, loaded.get(1).getEpochMillis());
+        assertTrue(loaded.get(0).getEpochMillis() < loaded.get(1).getEpochMillis());
+    }
+
+    @Test
+    @DisplayName("loadTransactions parses stored instants in place like Instant.parse")
+    void loadTransactionsParsesInstantsInPlace() throws IOException {
+        List<String> timestamps = List.of("2024-02-29T23:59:59.999Z", "2000-02-29T00:00:00Z",
+                "1969-12-31T23:59:59.001Z", "2100-03-01T12:30:45.500Z", "1970-01-01T00:00:00.000Z");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < timestamps.size(); i++) {
+            lines.add("TXN00" + (i + 1) + "|ACC123|DEPOSIT|1.00|" + (i + 1) + ".00|" + timestamps.get(i));
+        }
+        lines.add("TXN009|ACC123|DEPOSIT|1.00|9.00|2023-02-29T10:00:00.000Z");
+        Files.createDirectories(TRANSACTIONS_PATH.getParent());
+        Files.write(TRANSACTIONS_PATH, lines);
+
+        List<Transaction> loaded = persistence.loadTransactions();
+
+        assertEquals(timestamps.size() + 1, loaded.size());
+        for (int i = 0; i < timestamps.size(); i++) {
+            assertEquals(Instant.parse(timestamps.get(i)).toEpochMilli(), loaded.get(i).getEpochMillis());
+        }
+        assertEquals(Transaction.NO_TIMESTAMP, loaded.get(timestamps.size()).getEpochMillis());
+        assertEquals("2023-02-29T10:00:00.000Z", loaded.get(timestamps.size()).getStoredTimestamp());
+    }
+
     @Test
     @DisplayName("loadTransactions returns empty when no file exists")
     void loadTransactionsReturnsEmptyWhenMissing() {
@@ -93,6 +240,400 @@ class FilePersistenceTest {
         assertTrue(loaded.isEmpty());
     }
 
+    @Test
+    @DisplayName("Journaled transactions and balances survive a run that never saves")
+    void journalRecoversUnsavedActivity() throws IOException {
+        AccountManager accountManager = new AccountManager();
+        SavingsAccount account = new SavingsAccount(
+                new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 1000.0);
+        accountManager.addAccount(account);
+        persistence.saveAccounts(accountManager.getAccountsMap());
+
+        TransactionManager transactionManager = new TransactionManager(accountManager);
+        transactionManager.setJournal(persistence.openJournal(TransactionJournal.SyncPolicy.everyRecord()));
+        transactionManager.tryDeposit(account.getAccountNumber(), 250.0);
+        transactionManager.tryWithdraw(account.getAccountNumber(), 100.0);
+        // Cancelled the way the console does it: restore the balance, then drop the row
+        String withdrawalId = transactionManager.getLastTransaction(account.getAccountNumber()).getTransactionId();
+        account.setBalanceMinor(125_000L);
+        transactionManager.removeTransaction(withdrawalId);
+        persistence.closeJournal();
+
+        FilePersistence restarted = new FilePersistence();
+        Map<String, Account> accounts = restarted.loadAccounts();
+        List<Transaction> loaded = restarted.loadTransactions();
+
+        assertEquals(1, loaded.size());
+        assertEquals("DEPOSIT", loaded.get(0).getType());
+        assertEquals(100_000L, accounts.get(account.getAccountNumber()).getBalanceMinor());
+        assertEquals(1, restarted.restoreBalances(accounts));
+        assertEquals(125_000L, accounts.get(account.getAccountNumber()).getBalanceMinor());
+    }
+
+    @Test
+    @DisplayName("Concurrent deposits are all journaled in each account's balance order")
+    void concurrentDepositsAreJournaledInOrder() throws Exception {
+        AccountManager accountManager = new AccountManager();
+        List<SavingsAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            SavingsAccount account = new SavingsAccount(
+                    new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 1000.0);
+            accountManager.addAccount(account);
+            accounts.add(account);
+        }
+        TransactionManager transactionManager = new TransactionManager(accountManager);
+        transactionManager.setJournal(persistence.openJournal(TransactionJournal.SyncPolicy.everyRecord()));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 4_000; i++) {
+            String accountNumber = accounts.get(i % accounts.size()).getAccountNumber();
+            executor.submit(() -> transactionManager.tryDeposit(accountNumber, 1.0));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        persistence.closeJournal();
+
+        Map<String, Long> lastBalance = new HashMap<>();
+        List<String> lines = Files.readAllLines(TRANSACTIONS_PATH);
+        assertEquals(4_000, lines.size());
+        for (String line : lines) {
+            String[] fields = line.split("\\|");
+            long balance = Money.parse(fields[4]);
+            Long previous = lastBalance.put(fields[1], balance);
+            assertEquals(previous == null ? 100_100L : previous + 100L, balance);
+        }
+    }
+
+    @Test
+    @DisplayName("With per-record sync a deposit returns only once its row is forced")
+    void everyRecordSyncForcesBeforeReturning() throws Exception {
+        AccountManager accountManager = new AccountManager();
+        SavingsAccount account = new SavingsAccount(
+                new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 1000.0);
+        accountManager.addAccount(account);
+        TransactionManager transactionManager = new TransactionManager(accountManager);
+        TransactionJournal journal = persistence.openJournal(TransactionJournal.SyncPolicy.everyRecord());
+        transactionManager.setJournal(journal);
+
+        assertTrue(transactionManager.deposit(account.getAccountNumber(), 25.0));
+        assertEquals(0, journal.getUnsynced());
+        assertEquals(1, Files.readAllLines(TRANSACTIONS_PATH).size());
+
+        transactionManager.startEngine(2);
+        try {
+            assertTrue(transactionManager.withdraw(account.getAccountNumber(), 5.0));
+            assertEquals(0, journal.getUnsynced());
+            assertEquals(2, Files.readAllLines(TRANSACTIONS_PATH).size());
+        } finally {
+            transactionManager.stopEngine();
+        }
+    }
+
+    @Test
+    @DisplayName("Closing the journal under running deposits neither fails them nor drops committed rows")
+    void closingJournalDuringDepositsKeepsCommittedRows() throws Exception {
+        AccountManager accountManager = new AccountManager();
+        SavingsAccount account = new SavingsAccount(
+                new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 1000.0);
+        accountManager.addAccount(account);
+        TransactionManager transactionManager = new TransactionManager(accountManager);
+        transactionManager.setJournal(persistence.openJournal(TransactionJournal.SyncPolicy.everyRecords(100)));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<TransactionResult>> results = new ArrayList<>();
+        for (int i = 0; i < 4_000; i++) {
+            results.add(executor.submit(() -> transactionManager.tryDeposit(account.getAccountNumber(), 1.0)));
+            if (i == 2_000) {
+                // At least one deposit is journaled before the close, however slowly the pool starts
+                results.get(0).get();
+                persistence.closeJournal();
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        for (Future<TransactionResult> result : results) {
+            assertEquals(TransactionResult.APPROVED, result.get());
+        }
+
+        // Deposits admitted before the close all reached the file, whole and in balance order;
+        // later ones ran unjournaled, as after setJournal(null)
+        List<String> lines = Files.readAllLines(TRANSACTIONS_PATH);
+        assertFalse(lines.isEmpty());
+        long previous = 100_000L;
+        for (String line : lines) {
+            long balance = Money.parse(line.split("\\|")[4]);
+            assertTrue(balance > previous);
+            previous = balance;
+        }
+        assertEquals(4_000.0 + 1000.0, account.getBalance(), 0.01);
+    }
+
+    @Test
+    @DisplayName("saveTransactions only syncs the journal while it is open")
+    void saveTransactionsSyncsOpenJournal() throws IOException {
+        Files.createDirectories(TRANSACTIONS_PATH.getParent());
+        Files.write(TRANSACTIONS_PATH, List.of("TXN001|ACC123|DEPOSIT|10.00|110.00|2025-12-15T10:00:00.123Z"));
+        TransactionJournal journal = persistence.openJournal(TransactionJournal.SyncPolicy.everyRecords(100));
+        journal.append(Transaction.ofMinorUnits("TXN002", "ACC123", "WITHDRAWAL", 500L, 10_500L, 1_765_792_800_123L));
+        assertEquals(1, journal.getUnsynced());
+
+        persistence.saveTransactions(List.of());
+
+        assertEquals(0, journal.getUnsynced());
+        assertEquals(List.of(
+                "TXN001|ACC123|DEPOSIT|10.00|110.00|2025-12-15T10:00:00.123Z",
+                "TXN002|ACC123|WITHDRAWAL|5.00|105.00|2025-12-15T10:00:00.123Z"), Files.readAllLines(TRANSACTIONS_PATH));
+    }
+
+    @Test
+    @DisplayName("loadTransactions merges parallel chunks in file order")
+    void loadTransactionsMergesChunksInOrder() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 40_000; i++) {
+            lines.add("TXN" + (5_000_000 + i) + "|ACC" + (100 + i % 7) + "|DEPOSIT|1.00|" + i + ".00|2025-12-15T10:00:00.123Z");
+        }
+        lines.set(20_000, "not a transaction");
+        lines.add("TXN5000001|ACC101|WITHDRAWAL|9.99|0.00|2025-12-15T10:00:00.123Z");
+        lines.add("TXN5000002|ACC102|VOID|0.00|77.00|2025-12-15T10:00:00.123Z");
+        Files.createDirectories(TRANSACTIONS_PATH.getParent());
+        Files.write(TRANSACTIONS_PATH, lines);
+        assertTrue(Files.size(TRANSACTIONS_PATH) > 1_000_000);
+
+        List<Transaction> loaded = persistence.loadTransactions();
+
+        assertEquals(39_998, loaded.size());
+        assertEquals("TXN5000001", loaded.get(0).getTransactionId());
+        assertEquals("DEPOSIT", loaded.get(0).getType());
+        assertEquals("TXN5000003", loaded.get(1).getTransactionId());
+        assertEquals("TXN5040000", loaded.get(loaded.size() - 1).getTransactionId());
+        for (int i = 1; i < loaded.size(); i++) {
+            assertTrue(loaded.get(i - 1).getBalanceAfterMinor() < loaded.get(i).getBalanceAfterMinor());
+        }
+        assertTrue(Transaction.highestSequence() >= 5_040_000L);
+
+        AccountManager accountManager = new AccountManager();
+        SavingsAccount account = new SavingsAccount("ACC102",
+                new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 0.0);
+        accountManager.addAccount(account);
+        // Never journaled, so the file says nothing about which balance is the latest
+        assertEquals(0, persistence.restoreBalances(accountManager.getAccountsMap()));
+        assertEquals(0L, account.getBalanceMinor());
+    }
+
+    @Test
+    @DisplayName("Balances are restored from the journaled lines only, never from an ID-sorted file")
+    void restoreBalancesSkipsLinesWrittenBeforeTheJournal() throws IOException {
+        // Sorted by ID as text, the way saves used to write it: the newer TXN1000 comes first
+        Files.createDirectories(TRANSACTIONS_PATH.getParent());
+        Files.write(TRANSACTIONS_PATH, List.of(
+                "TXN1000|ACC700|DEPOSIT|10.00|30.00|2025-12-15T10:00:00.123Z",
+                "TXN999|ACC700|DEPOSIT|10.00|20.00|2025-12-15T10:00:00.123Z",
+                "TXN998|ACC800|DEPOSIT|10.00|10.00|2025-12-15T10:00:00.123Z"));
+        AccountManager accountManager = new AccountManager();
+        SavingsAccount journaled = new SavingsAccount("ACC700",
+                new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 30.0);
+        SavingsAccount legacy = new SavingsAccount("ACC800",
+                new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 10.0);
+        accountManager.addAccount(journaled);
+        accountManager.addAccount(legacy);
+        persistence.saveAccounts(accountManager.getAccountsMap());
+
+        FilePersistence unjournaled = new FilePersistence();
+        unjournaled.loadAccounts();
+        unjournaled.loadTransactions();
+        assertEquals(0, unjournaled.restoreBalances(unjournaled.loadAccounts()));
+
+        TransactionManager transactionManager = new TransactionManager(accountManager);
+        transactionManager.setJournal(persistence.openJournal(TransactionJournal.SyncPolicy.everyRecord()));
+        transactionManager.tryDeposit("ACC700", 5.0);
+        persistence.closeJournal();
+
+        FilePersistence restarted = new FilePersistence();
+        Map<String, Account> accounts = restarted.loadAccounts();
+        assertEquals(4, restarted.loadTransactions().size());
+        assertEquals(1, restarted.restoreBalances(accounts));
+        assertEquals(3_500L, accounts.get("ACC700").getBalanceMinor());
+        assertEquals(1_000L, accounts.get("ACC800").getBalanceMinor());
+
+        // A save with the journal closed rewrites the file, which is then no longer trusted
+        restarted.saveTransactions(restarted.loadTransactions());
+        restarted.loadTransactions();
+        assertEquals(0, restarted.restoreBalances(restarted.loadAccounts()));
+    }
+
+    @Test
+    @DisplayName("Startup from a snapshot replays only the journal tail")
+    void snapshotPlusJournalTail() throws IOException {
+        AccountManager accountManager = new AccountManager();
+        SavingsAccount account = new SavingsAccount(
+                new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 1000.0);
+        accountManager.addAccount(account);
+        persistence.saveAccounts(accountManager.getAccountsMap());
+        TransactionManager transactionManager = new TransactionManager(accountManager);
+        transactionManager.setJournal(persistence.openJournal(TransactionJournal.SyncPolicy.everyRecords(10)));
+        transactionManager.tryDeposit(account.getAccountNumber(), 100.0);
+        transactionManager.tryDeposit(account.getAccountNumber(), 50.0);
+        long lastSequence = Transaction.parseSequence(
+                transactionManager.getLastTransaction(account.getAccountNumber()).getTransactionId());
+        persistence.saveTransactions(List.of());
+        assertEquals(lastSequence, transactionManager.getHighestStoredSequence());
+        assertTrue(persistence.saveSnapshot(accountManager.getAccountsMap(), transactionManager.getAggregates(),
+                transactionManager.getHighestStoredSequence()));
+        transactionManager.tryWithdraw(account.getAccountNumber(), 25.0);
+        persistence.closeJournal();
+
+        FilePersistence restarted = new FilePersistence();
+        Map<String, Account> accounts = restarted.loadAccounts();
+        Optional<LedgerSnapshot> snapshot = restarted.loadSnapshot();
+        assertTrue(snapshot.isPresent());
+        assertEquals(lastSequence, snapshot.get().getLastSequence());
+        TransactionStore tail = new TransactionStore();
+        assertEquals(1, restarted.loadTransactionsAfter(snapshot.get(), tail));
+        snapshot.get().applyBalances(accounts);
+        restarted.restoreBalances(accounts);
+        AccountManager restartedAccounts = new AccountManager();
+        accounts.values().forEach(restartedAccounts::addAccount);
+        TransactionManager restartedTransactions = new TransactionManager(restartedAccounts);
+        restartedTransactions.setTransactions(tail, snapshot.get());
+
+        assertEquals(1, tail.size());
+        assertEquals("WITHDRAWAL", tail.get(0).getType());
+        assertSame(tail, restartedTransactions.getTransactionStore());
+        assertEquals(112_500L, accounts.get(account.getAccountNumber()).getBalanceMinor());
+        TransactionAggregate aggregate = restartedTransactions.getAggregate(account.getAccountNumber());
+        assertEquals(2, aggregate.getCount(TransactionType.DEPOSIT));
+        assertEquals(15_000L, aggregate.getSumMinor(TransactionType.DEPOSIT));
+        assertEquals(1, aggregate.getCount(TransactionType.WITHDRAWAL));
+        assertTrue(restartedTransactions.getHighestStoredSequence() > lastSequence);
+    }
+
+    @Test
+    @DisplayName("A void in the journal tail is taken out of the snapshot totals")
+    void tailVoidOfEarlierTransactionCorrectsSnapshot() throws IOException {
+        AccountManager accountManager = new AccountManager();
+        SavingsAccount account = new SavingsAccount(
+                new RegularCustomer("John Smith", 35, "1234567890", "123 Main St"), 1000.0);
+        accountManager.addAccount(account);
+        persistence.saveAccounts(accountManager.getAccountsMap());
+        TransactionManager transactionManager = new TransactionManager(accountManager);
+        transactionManager.setJournal(persistence.openJournal(TransactionJournal.SyncPolicy.everyRecords(10)));
+        transactionManager.tryDeposit(account.getAccountNumber(), 100.0);
+        String voided = transactionManager.getLastTransaction(account.getAccountNumber()).getTransactionId();
+        transactionManager.tryDeposit(account.getAccountNumber(), 50.0);
+        persistence.saveTransactions(List.of());
+        assertTrue(persistence.saveSnapshot(accountManager.getAccountsMap(), transactionManager.getAggregates(),
+                transactionManager.getHighestStoredSequence()));
+        // Rolls back the first deposit after the snapshot was taken
+        account.setBalanceMinor(account.getBalanceMinor() - 10_000L);
+        transactionManager.removeTransaction(voided);
+        persistence.closeJournal();
+        // The void says what it took out, so the head before the snapshot is never read back
+        assertTrue(Files.readAllLines(TRANSACTIONS_PATH).stream()
+                .anyMatch(line -> line.startsWith(voided + "|") && line.contains("|VOID:DEPOSIT|100.00|")));
+
+        FilePersistence restarted = new FilePersistence();
+        Map<String, Account> accounts = restarted.loadAccounts();
+        LedgerSnapshot snapshot = restarted.loadSnapshot().orElseThrow();
+        TransactionStore tail = new TransactionStore();
+        assertEquals(0, restarted.loadTransactionsAfter(snapshot, tail));
+        snapshot.applyBalances(accounts);
+        restarted.restoreBalances(accounts);
+        AccountManager restartedAccounts = new AccountManager();
+        accounts.values().forEach(restartedAccounts::addAccount);
+        TransactionManager restartedTransactions = new TransactionManager(restartedAccounts);
+        restartedTransactions.setTransactions(tail, snapshot);
+
+        assertEquals(0, tail.size());
+        assertEquals(105_000L, accounts.get(account.getAccountNumber()).getBalanceMinor());
+        TransactionAggregate aggregate = restartedTransactions.getAggregate(account.getAccountNumber());
+        assertEquals(1, aggregate.getCount(TransactionType.DEPOSIT));
+        assertEquals(5_000L, aggregate.getSumMinor(TransactionType.DEPOSIT));
+        String statement = new StatementGenerator(restartedAccounts, restartedTransactions)
+                .generateStatement(account.getAccountNumber());
+        assertTrue(statement.contains("History truncated: 1 earlier transactions"));
+        assertTrue(statement.contains("Total Transactions: 1"));
+    }
+
+    @Test
+    @DisplayName("A plain VOID line in the tail is still found before the snapshot")
+    void untypedTailVoidFallsBackToTheHead() throws IOException {
+        persistence.saveTransactions(List.of(
+                Transaction.ofMinorUnits("TXN001", "ACC123", "DEPOSIT", 1_000L, 11_000L, 1_765_792_800_123L)));
+        TransactionAggregate aggregate = new TransactionAggregate("ACC123");
+        aggregate.record(TransactionType.DEPOSIT, 1_000L);
+        assertTrue(persistence.saveSnapshot(Map.of(), Map.of("ACC123", aggregate), 1));
+        Files.write(TRANSACTIONS_PATH, List.of("TXN001|ACC123|VOID|0.00|100.00|2025-12-15T10:00:01Z"),
+                StandardOpenOption.APPEND);
+
+        LedgerSnapshot snapshot = persistence.loadSnapshot().orElseThrow();
+        assertEquals(0, persistence.loadTransactionsAfter(snapshot, new TransactionStore()));
+
+        assertEquals(0, snapshot.getAggregates().get("ACC123").getCount(TransactionType.DEPOSIT));
+        assertEquals(0L, snapshot.getAggregates().get("ACC123").getSumMinor(TransactionType.DEPOSIT));
+    }
+
+    @Test
+    @DisplayName("A snapshot is ignored once the transactions file has been rewritten")
+    void snapshotIgnoredAfterRewrite() throws IOException {
+        persistence.saveTransactions(List.of(
+                Transaction.ofMinorUnits("TXN001", "ACC123", "DEPOSIT", 1_000L, 11_000L, 1_765_792_800_123L)));
+        assertTrue(persistence.saveSnapshot(Map.of(), Map.of(), 1));
+        assertTrue(persistence.loadSnapshot().isPresent());
+
+        persistence.saveTransactions(List.of(
+                Transaction.ofMinorUnits("TXN002", "ACC123", "DEPOSIT", 2_000L, 12_000L, 1_765_792_800_123L)));
+
+        assertFalse(persistence.loadSnapshot().isPresent());
+    }
+
+    @Test
+    @DisplayName("Transactions convert to the binary log and back unchanged")
+    void binaryLogRoundTrip() throws IOException {
+        List<String> lines = List.of(
+                "TXN001|ACC001|DEPOSIT|100.00|100.00|2025-12-15T10:00:00.123Z",
+                "TXN002|ACC002|DEPOSIT|0.10|0.10|2025-12-15T10:00:01Z",
+                "TXN003|ACC001|WITHDRAWAL|25.50|74.50|2025-12-15T10:00:02Z",
+                "TXN003|ACC001|VOID|0.00|100.00|2025-12-15T10:00:03Z");
+        Files.createDirectories(TRANSACTIONS_PATH.getParent());
+        Files.write(TRANSACTIONS_PATH, lines);
+
+        assertEquals(2, persistence.exportTransactionsToBinary(BINARY_PATH));
+        assertEquals(BinaryTransactionLog.HEADER_SIZE + 2L * BinaryTransactionLog.RECORD_SIZE, Files.size(BINARY_PATH));
+        try (BinaryTransactionLog log = BinaryTransactionLog.open(BINARY_PATH)) {
+            assertEquals(2, log.size());
+            assertEquals("TXN002", log.transactionIdAt(1));
+            assertEquals("ACC002", log.accountNumberAt(1));
+            assertEquals(TransactionType.DEPOSIT, log.typeAt(1));
+            assertEquals(10L, log.get(1).getAmountMinor());
+            assertEquals(1_765_792_800_123L, log.timestampAt(0));
+        }
+
+        Files.delete(TRANSACTIONS_PATH);
+        assertEquals(2, persistence.importTransactionsFromBinary(BINARY_PATH));
+        assertEquals(List.of(
+                "TXN001|ACC001|DEPOSIT|100.00|100.00|2025-12-15T10:00:00.123Z",
+                "TXN002|ACC002|DEPOSIT|0.10|0.10|2025-12-15T10:00:01.000Z"), Files.readAllLines(TRANSACTIONS_PATH));
+    }
+
+    @Test
+    @DisplayName("A binary import that fails partway leaves the transactions file intact")
+    void failedBinaryImportKeepsTransactionsFile() throws IOException {
+        List<String> lines = List.of(
+                "TXN001|ACC001|DEPOSIT|100.00|100.00|2025-12-15T10:00:00.123Z",
+                "TXN002|ACC002|DEPOSIT|0.10|0.10|2025-12-15T10:00:01.000Z");
+        Files.createDirectories(TRANSACTIONS_PATH.getParent());
+        Files.write(TRANSACTIONS_PATH, lines);
+        assertEquals(2, persistence.exportTransactionsToBinary(BINARY_PATH));
+        // An unknown type code in the second record makes the import fail after the first line
+        try (RandomAccessFile file = new RandomAccessFile(BINARY_PATH.toFile(), "rw")) {
+            file.seek(BinaryTransactionLog.HEADER_SIZE + BinaryTransactionLog.RECORD_SIZE + 32);
+            file.write(99);
+        }
+
+        assertThrows(RuntimeException.class, () -> persistence.importTransactionsFromBinary(BINARY_PATH));
+
+        assertEquals(lines, Files.readAllLines(TRANSACTIONS_PATH));
+        assertFalse(Files.exists(Paths.get("data/transactions.txt.tmp")));
+    }
+
     private void deleteIfExists(Path path) throws IOException {
         if (Files.exists(path)) {
             Files.delete(path);
@@ -1,14 +1,42 @@
 package com.bank.system.test;
 
+import com.bank.system.enums.ExecutionMode;
+import com.bank.system.enums.TransactionResult;
+import com.bank.system.enums.TransactionType;
 import com.bank.system.exceptions.*;
 import com.bank.system.models.*;
 import com.bank.system.services.*;
+import com.bank.system.utils.LatencyHistogram;
+import com.bank.system.utils.LoadGenerator;
+import com.bank.system.utils.LoadReport;
+import com.bank.system.utils.LoadSettings;
+import com.bank.system.utils.OperationMetrics;
+import com.bank.system.utils.TaskExecutors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TransactionManagerTest {
     private AccountManager accountManager;
@@ -85,6 +113,581 @@ public class TransactionManagerTest {
         assertEquals(toInitialBalance + 300.0, toAccount.getBalance(), 0.01);
     }
 
+    @Test
+    @DisplayName("Test Account Queries Only Return That Account's Transactions")
+    void testAccountQueriesUsePerAccountHistory() throws InvalidAmountException {
+        SavingsAccount first = createSavingsAccount(1000.0);
+        CheckingAccount second = createCheckingAccount(500.0);
+
+        transactionManager.deposit(first.getAccountNumber(), 100.0);
+        transactionManager.deposit(second.getAccountNumber(), 250.0);
+        transactionManager.withdraw(first.getAccountNumber(), 40.0);
+        transactionManager.transfer(second.getAccountNumber(), first.getAccountNumber(), 60.0);
+
+        List<Transaction> firstHistory = transactionManager.getTransactionsForAccount(first.getAccountNumber());
+        assertEquals(3, firstHistory.size());
+        assertEquals("RECEIVE", transactionManager.getLastTransaction(first.getAccountNumber()).getType());
+        assertEquals(100.0, transactionManager.getTotalDeposits(first.getAccountNumber()), 0.01);
+        assertEquals(40.0, transactionManager.getTotalWithdrawals(first.getAccountNumber()), 0.01);
+        assertEquals(60.0, transactionManager.getTotalReceived(first.getAccountNumber()), 0.01);
+        assertEquals(60.0, transactionManager.getTotalTranfer(second.getAccountNumber()), 0.01);
+    }
+
+    @Test
+    @DisplayName("Test Removed And Replaced Transactions Leave The Account History")
+    void testRemoveAndSetTransactionsKeepHistoryInSync() throws InvalidAmountException {
+        SavingsAccount account = createSavingsAccount(1000.0);
+        transactionManager.deposit(account.getAccountNumber(), 100.0);
+
+        Transaction last = transactionManager.getLastTransaction(account.getAccountNumber());
+        transactionManager.removeTransaction(last.getTransactionId());
+        assertNull(transactionManager.getLastTransaction(account.getAccountNumber()));
+        assertEquals(0.0, transactionManager.getTotalDeposits(account.getAccountNumber()), 0.01);
+
+        transactionManager.setTransactions(List.of(
+                new Transaction("TXN900", account.getAccountNumber(), "DEPOSIT", 75.0, 1075.0, "15-12-2025 10:00 AM")));
+        assertEquals(1, transactionManager.getTransactionsForAccount(account.getAccountNumber()).size());
+        assertEquals(75.0, transactionManager.getTotalDeposits(account.getAccountNumber()), 0.01);
+    }
+
+    @Test
+    @DisplayName("Test Removing One Of Several Same-Minute Transactions Keeps The Others")
+    void testRemoveAmongEqualTimestamps() {
+        SavingsAccount account = createSavingsAccount(1000.0);
+        String number = account.getAccountNumber();
+        transactionManager.setTransactions(List.of(
+                new Transaction("TXN910", number, "DEPOSIT", 10.0, 1010.0, "15-12-2025 10:00 AM"),
+                new Transaction("TXN911", number, "DEPOSIT", 20.0, 1030.0, "15-12-2025 10:00 AM"),
+                new Transaction("TXN912", number, "DEPOSIT", 30.0, 1060.0, "15-12-2025 10:00 AM")));
+
+        transactionManager.removeTransaction("TXN911");
+
+        List<Transaction> history = transactionManager.getTransactionsForAccount(number);
+        assertEquals(2, history.size());
+        assertEquals("TXN910", history.get(0).getTransactionId());
+        assertEquals("TXN912", history.get(1).getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Test Aggregates Track Recorded And Rolled Back Transactions")
+    void testAggregatesTrackRecordedAndRolledBackTransactions() throws InvalidAmountException {
+        SavingsAccount account = createSavingsAccount(1000.0);
+        transactionManager.deposit(account.getAccountNumber(), 200.0);
+        transactionManager.deposit(account.getAccountNumber(), 50.0);
+        transactionManager.withdraw(account.getAccountNumber(), 30.0);
+
+        TransactionAggregate aggregate = transactionManager.getAggregate(account.getAccountNumber());
+        assertEquals(2, aggregate.getCount(TransactionType.DEPOSIT));
+        assertEquals(250.0, aggregate.getSum(TransactionType.DEPOSIT), 0.01);
+        assertEquals(220.0, aggregate.getNetChange(), 0.01);
+
+        Transaction last = transactionManager.getLastTransaction(account.getAccountNumber());
+        transactionManager.removeTransaction(last.getTransactionId());
+        assertEquals(0, aggregate.getCount(TransactionType.WITHDRAWAL));
+        assertEquals(250.0, aggregate.getNetChange(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Test Opposing Concurrent Transfers Conserve Money")
+    void testOpposingConcurrentTransfersConserveMoney() throws InterruptedException {
+        CheckingAccount first = createCheckingAccount(5000.0);
+        CheckingAccount second = createCheckingAccount(5000.0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2_000; i++) {
+            boolean forward = i % 2 == 0;
+            executor.submit(() -> forward
+                    ? transactionManager.transfer(first.getAccountNumber(), second.getAccountNumber(), 3.0)
+                    : transactionManager.transfer(second.getAccountNumber(), first.getAccountNumber(), 3.0));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(10_000.0, first.getBalance() + second.getBalance(), 0.001);
+        assertEquals(4_000, transactionManager.getTransactionCount());
+        assertEquals(0, transactionManager.getLockManager().getTimeouts());
+    }
+
+    @Test
+    @DisplayName("Test Concurrent Appends Across Log Segments Are All Published")
+    void testConcurrentAppendsAcrossSegmentsArePublished() throws InterruptedException {
+        CheckingAccount[] accounts = new CheckingAccount[8];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = createCheckingAccount(0.0);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 10_000; i++) {
+            String accountNumber = accounts[i % accounts.length].getAccountNumber();
+            executor.submit(() -> transactionManager.deposit(accountNumber, 1.0));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<Transaction> all = transactionManager.getAllTransactions();
+        assertEquals(10_000, all.size());
+        assertEquals(10_000, all.stream().map(Transaction::getTransactionId).distinct().count());
+        for (CheckingAccount account : accounts) {
+            assertEquals(1_250, transactionManager.getTransactionsForAccount(account.getAccountNumber()).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Test Store Keeps Publishing After An Append Fails")
+    void testStoreKeepsPublishingAfterAppendFails() {
+        TransactionStore store = new TransactionStore();
+        assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 256; i++) {
+                store.append(Transaction.ofMinorUnits("TXN" + (900 + i), "ACC901", "TYPE" + i, 100L, 100L, 0L));
+            }
+        });
+        int appended = store.size();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            store.append(Transaction.ofMinorUnits("TXN899", "ACC901", "DEPOSIT", 100L, 200L, 0L));
+        });
+        assertEquals(appended + 1, store.size());
+        assertEquals(store.publishedCount(), store.size());
+    }
+
+    @Test
+    @DisplayName("Test Store Removes A Row By Position Once")
+    void testStoreRemovesRowAtPosition() {
+        TransactionStore store = new TransactionStore();
+        store.append(Transaction.ofMinorUnits("TXN801", "ACC901", "DEPOSIT", 100L, 100L, 0L));
+        long position = store.append(Transaction.ofMinorUnits("TXN802", "ACC901", "WITHDRAWAL", 40L, 60L, 0L));
+
+        assertTrue(store.removeAt(position));
+        assertFalse(store.removeAt(position));
+        assertNull(store.get(position));
+        assertEquals(1, store.size());
+        assertEquals(-1, store.remove("TXN802"));
+    }
+
+    @Test
+    @DisplayName("Test A Failing Batch Leaves The Store Usable")
+    void testFailingBatchLeavesStoreUsable() {
+        TransactionStore store = new TransactionStore();
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            batch.add(Transaction.ofMinorUnits("TXN" + (900 + i), "ACC901", "TYPE" + i, 100L, 100L, 0L));
+        }
+        assertThrows(IllegalStateException.class, () -> store.appendAll(batch));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            store.appendAll(List.of(Transaction.ofMinorUnits("TXN899", "ACC901", "DEPOSIT", 100L, 200L, 0L)));
+        });
+        assertEquals(1, store.size());
+        assertEquals(1L, store.publishedCount());
+    }
+
+    @Test
+    @DisplayName("Test Column Store Round-Trips Loaded Transactions")
+    void testColumnStoreRoundTripsLoadedTransactions() {
+        transactionManager.setTransactions(List.of(
+                new Transaction("TXN901", "ACC901", "DEPOSIT", 10.25, 110.25, "15-12-2025 10:00 AM"),
+                new Transaction("LEGACY-7", "ACC901", "withdrawal", 5.0, 105.25, "sometime")));
+
+        // The row without a parseable timestamp sorts first
+        List<Transaction> history = transactionManager.getTransactionsForAccount("ACC901");
+        assertEquals(2, history.size());
+        assertEquals("LEGACY-7", history.get(0).getTransactionId());
+        assertEquals("withdrawal", history.get(0).getType());
+        assertEquals("sometime", history.get(0).getTimestamp());
+        assertEquals("TXN901", history.get(1).getTransactionId());
+        assertEquals("15-12-2025 10:00 AM", history.get(1).getTimestamp());
+        assertEquals(1025, history.get(1).getAmountMinor());
+        assertEquals(5.0, transactionManager.getTotalWithdrawals("ACC901"), 0.01);
+    }
+
+    @Test
+    @DisplayName("Test Account History Is Ordered By Time Across Days And AM/PM")
+    void testAccountHistoryIsOrderedByTime() {
+        // Chosen so the old string sort would put them in the wrong order
+        transactionManager.setTransactions(List.of(
+                new Transaction("TXN911", "ACC902", "DEPOSIT", 1.0, 1.0, "02-01-2026 09:00 AM"),
+                new Transaction("TXN912", "ACC902", "DEPOSIT", 1.0, 2.0, "15-12-2025 11:00 PM"),
+                new Transaction("TXN913", "ACC902", "DEPOSIT", 1.0, 3.0, "15-12-2025 01:00 PM")));
+
+        List<String> newestFirst = transactionManager.getTransactionsNewestFirst("ACC902").stream()
+                .map(Transaction::getTransactionId)
+                .toList();
+        assertEquals(List.of("TXN911", "TXN912", "TXN913"), newestFirst);
+        assertEquals("TXN911", transactionManager.getLastTransaction("ACC902").getTransactionId());
+
+        List<String> sorted = transactionManager.sortTransactionsByTimestampDesc(
+                        transactionManager.getTransactionsForAccount("ACC902")).stream()
+                .map(Transaction::getTransactionId)
+                .toList();
+        assertEquals(newestFirst, sorted);
+    }
+
+    @Test
+    @DisplayName("Test Transfer Gives Up When Account Lock Times Out")
+    void testTransferGivesUpWhenLockTimesOut() throws Exception {
+        AccountLockManager lockManager = new AccountLockManager(4, 50);
+        TransactionManager manager = new TransactionManager(accountManager, lockManager);
+        SavingsAccount from = createSavingsAccount(1000.0);
+        CheckingAccount to = createCheckingAccount(500.0);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try (AccountLockManager.Held held = lockManager.acquire(to.getAccountNumber())) {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        holder.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        assertFalse(manager.transfer(from.getAccountNumber(), to.getAccountNumber(), 100.0));
+        release.countDown();
+        holder.join();
+
+        assertEquals(1, lockManager.getTimeouts());
+        assertTrue(lockManager.getContendedAcquisitions() > 0);
+        assertBalanceUnchanged(from, 1000.0);
+        assertBalanceUnchanged(to, 500.0);
+    }
+
+    @Test
+    @DisplayName("Test Batch Reports Each Operation And Records Successes")
+    void testBatchReportsEachOperation() {
+        SavingsAccount savings = createSavingsAccount(1000.0);
+        CheckingAccount checking = createCheckingAccount(500.0);
+
+        BatchResult result = transactionManager.applyBatch(List.of(
+                BatchOperation.deposit(savings.getAccountNumber(), 10_000),
+                BatchOperation.withdrawal(savings.getAccountNumber(), 500_000),
+                BatchOperation.transfer(checking.getAccountNumber(), savings.getAccountNumber(), 20_000),
+                BatchOperation.deposit("ACC-MISSING", 100),
+                BatchOperation.withdrawal(checking.getAccountNumber(), 0),
+                BatchOperation.transfer(savings.getAccountNumber(), savings.getAccountNumber(), 100)));
+
+        assertEquals(6, result.size());
+        assertEquals(2, result.getSuccessCount());
+        assertTrue(result.isSucceeded(0));
+        assertTrue(result.isFailed(1));
+        assertTrue(result.isSucceeded(2));
+        assertEquals("Account not found: ACC-MISSING", result.getError(3));
+        assertTrue(result.isFailed(4));
+        assertTrue(result.isFailed(5));
+
+        assertEquals(1300.0, savings.getBalance(), 0.01);
+        assertEquals(300.0, checking.getBalance(), 0.01);
+        assertEquals(3, transactionManager.getTransactionCount());
+        assertEquals("RECEIVE", transactionManager.getLastTransaction(savings.getAccountNumber()).getType());
+        assertEquals(200.0, transactionManager.getTotalTranfer(checking.getAccountNumber()), 0.01);
+    }
+
+    @Test
+    @DisplayName("Test Batch Spanning Several Chunks Applies Operations In Order")
+    void testBatchSpanningChunksKeepsOrder() {
+        CheckingAccount account = createCheckingAccount(0.0);
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            operations.add(i % 3 == 2
+                    ? BatchOperation.withdrawal(account.getAccountNumber(), 100)
+                    : BatchOperation.deposit(account.getAccountNumber(), 100));
+        }
+
+        BatchResult result = transactionManager.applyBatch(operations);
+
+        assertEquals(600, result.getSuccessCount());
+        assertEquals(200.0, account.getBalance(), 0.01);
+        List<Transaction> history = transactionManager.getTransactionsForAccount(account.getAccountNumber());
+        assertEquals(600, history.size());
+        assertEquals(200.0, history.get(history.size() - 1).getBalanceAfter(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Test Batch Over Many Accounts Locks A Few Stripes At A Time")
+    void testBatchOverManyAccountsSplitsChunksByStripes() {
+        AccountLockManager locks = transactionManager.getLockManager();
+        List<BatchOperation> operations = new ArrayList<>();
+        Set<Integer> stripes = new HashSet<>();
+        for (int i = 0; i < 40; i++) {
+            CheckingAccount account = createCheckingAccount(0.0);
+            operations.add(BatchOperation.deposit(account.getAccountNumber(), 100));
+            stripes.add(locks.stripeFor(account.getAccountNumber()));
+        }
+        long acquisitionsBefore = locks.getAcquisitions();
+
+        BatchResult result = transactionManager.applyBatch(operations);
+
+        assertEquals(40, result.getSuccessCount());
+        assertEquals(40, transactionManager.getTransactionCount());
+        // At most eight stripes per acquisition, so one chunk can never hold the whole table
+        assertTrue(locks.getAcquisitions() - acquisitionsBefore >= (stripes.size() + 7) / 8);
+    }
+
+    @Test
+    @DisplayName("Test Virtual Thread Mode Runs Ten Thousand Blocking Deposits At Once")
+    void testVirtualThreadModeRunsManyBlockingDeposits() throws InterruptedException {
+        CheckingAccount account = createCheckingAccount(0.0);
+        CountDownLatch allStarted = new CountDownLatch(10_000);
+        try (ExecutorService executor = TaskExecutors.newExecutor(ExecutionMode.VIRTUAL, 0, "deposit")) {
+            for (int i = 0; i < 10_000; i++) {
+                executor.submit(() -> {
+                    // Every task blocks until all are in flight, which a small platform pool could never reach
+                    allStarted.countDown();
+                    allStarted.await();
+                    return transactionManager.deposit(account.getAccountNumber(), 1.0);
+                });
+            }
+        }
+
+        assertEquals(10_000.0, account.getBalance(), 0.01);
+        assertEquals(10_000, transactionManager.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Test Engine Runs Deposits And Withdrawals On Account Shards")
+    void testEngineRunsDepositsAndWithdrawals() throws Exception {
+        CheckingAccount[] accounts = new CheckingAccount[16];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = createCheckingAccount(0.0);
+        }
+        transactionManager.startEngine(4);
+        try {
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8_000; i++) {
+                String accountNumber = accounts[i % accounts.length].getAccountNumber();
+                results.add((i / accounts.length) % 4 == 3
+                        ? transactionManager.withdrawAsync(accountNumber, 1.0)
+                        : transactionManager.depositAsync(accountNumber, 1.0));
+            }
+            for (CompletableFuture<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+            assertTrue(transactionManager.deposit(accounts[0].getAccountNumber(), 5.0));
+        } finally {
+            transactionManager.stopEngine();
+        }
+
+        assertEquals(8_001, transactionManager.getTransactionCount());
+        assertEquals(255.0, accounts[0].getBalance(), 0.01);
+        for (int i = 1; i < accounts.length; i++) {
+            assertEquals(250.0, accounts[i].getBalance(), 0.01);
+            assertEquals(500, transactionManager.getTransactionsForAccount(accounts[i].getAccountNumber()).size());
+        }
+        assertEquals(0, transactionManager.getLockManager().getAcquisitions());
+    }
+
+    @Test
+    @DisplayName("Test Engine Transfers Across Shards Conserve Money")
+    void testEngineTransfersConserveMoney() throws Exception {
+        CheckingAccount[] accounts = new CheckingAccount[8];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = createCheckingAccount(1000.0);
+        }
+        transactionManager.startEngine(4);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String from = accounts[(i + offset) % accounts.length].getAccountNumber();
+                        String to = accounts[(i + offset + 3) % accounts.length].getAccountNumber();
+                        CompletableFuture<Boolean> result = transactionManager.transferAsync(from, to, 2.0);
+                        synchronized (results) {
+                            results.add(result);
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            for (CompletableFuture<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            transactionManager.stopEngine();
+        }
+
+        double total = 0;
+        for (CheckingAccount account : accounts) {
+            total += account.getBalance();
+        }
+        assertEquals(8_000.0, total, 0.001);
+        assertEquals(4_000, transactionManager.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Test Engine Reports Failures Like The Locking Path")
+    void testEngineReportsFailures() throws Exception {
+        SavingsAccount savings = createSavingsAccount(600.0);
+        CheckingAccount checking = createCheckingAccount(0.0);
+        transactionManager.startEngine(2);
+        try {
+            ExecutionException declined = assertThrows(ExecutionException.class,
+                    () -> transactionManager.transferAsync(savings.getAccountNumber(), checking.getAccountNumber(), 500.0)
+                            .get(10, TimeUnit.SECONDS));
+            assertEquals(InsufficientFundsException.class, declined.getCause().getCause().getClass());
+            assertThrows(InvalidAmountException.class,
+                    () -> transactionManager.deposit(savings.getAccountNumber(), -1.0));
+            assertThrows(IllegalArgumentException.class,
+                    () -> transactionManager.transfer(savings.getAccountNumber(), savings.getAccountNumber(), 1.0));
+
+            BatchResult result = transactionManager.applyBatch(List.of(
+                    BatchOperation.deposit(checking.getAccountNumber(), 5_000),
+                    BatchOperation.withdrawal(savings.getAccountNumber(), 50_000),
+                    BatchOperation.transfer(savings.getAccountNumber(), checking.getAccountNumber(), 10_000)));
+            assertTrue(result.isSucceeded(0));
+            assertTrue(result.getError(1).startsWith("Insufficient funds"));
+            assertTrue(result.isSucceeded(2));
+        } finally {
+            transactionManager.stopEngine();
+        }
+
+        assertBalanceUnchanged(savings, 500.0);
+        assertBalanceUnchanged(checking, 150.0);
+        assertEquals(3, transactionManager.getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("Test Load Generator Conserves Money Under Skewed Closed-Loop Load")
+    void testLoadGeneratorClosedLoopConservesMoney() {
+        LoadSettings settings = new LoadSettings()
+                .accounts(50)
+                .zipfSkew(1.2)
+                .mix(40, 40, 20)
+                .threads(4)
+                .duration(Duration.ofMillis(300));
+
+        LoadReport report = new LoadGenerator(accountManager, transactionManager, settings).run();
+
+        assertTrue(report.isMoneyConserved());
+        for (TransactionType type : List.of(TransactionType.DEPOSIT, TransactionType.WITHDRAWAL, TransactionType.TRANSFER)) {
+            LatencyHistogram latency = report.getLatency(type);
+            assertTrue(latency.getCount() > 0);
+            assertEquals(latency.getCount(), report.getSucceeded(type) + report.getDeclined(type) + report.getErrors(type));
+            assertEquals(0, report.getErrors(type));
+            assertTrue(latency.getPercentile(50) <= latency.getPercentile(99));
+            assertTrue(latency.getPercentile(99.9) <= latency.getMax());
+        }
+        assertTrue(report.getOperationsPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Test Load Generator Holds An Open-Loop Rate Through The Engine")
+    void testLoadGeneratorOpenLoopThroughEngine() {
+        LoadSettings settings = new LoadSettings()
+                .accounts(20)
+                .arrivalRate(2_000)
+                .executionMode(ExecutionMode.VIRTUAL)
+                .duration(Duration.ofMillis(500));
+        transactionManager.startEngine(2);
+        LoadReport report;
+        try {
+            report = new LoadGenerator(accountManager, transactionManager, settings).run();
+        } finally {
+            transactionManager.stopEngine();
+        }
+
+        assertTrue(report.isMoneyConserved());
+        assertEquals(1_000, report.getMeasuredOperations());
+        assertEquals(report.getActualTotalMinor(), accountManager.getAllAccounts().stream()
+                .mapToLong(Account::getBalanceMinor).sum());
+    }
+
+    @Test
+    @DisplayName("Test Latency Histogram Percentiles Stay Within Bucket Precision")
+    void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(5_000_000, histogram.getPercentile(50), 5_000_000 * 0.02);
+        assertEquals(9_900_000, histogram.getPercentile(99), 9_900_000 * 0.02);
+        assertEquals(10_000_000, histogram.getPercentile(100));
+        assertEquals(0, new LatencyHistogram().getPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Test Metrics Count Each Outcome Once")
+    void testMetricsCountEachOutcome() throws Exception {
+        SavingsAccount savings = createSavingsAccount(1000.0);
+        CheckingAccount checking = createCheckingAccount(1000.0);
+
+        transactionManager.deposit(savings.getAccountNumber(), 250.0);
+        assertThrows(InvalidAmountException.class, () -> transactionManager.deposit(savings.getAccountNumber(), -5.0));
+        assertThrows(RuntimeException.class, () -> transactionManager.withdraw(savings.getAccountNumber(), 5_000.0));
+        transactionManager.transfer(checking.getAccountNumber(), savings.getAccountNumber(), 100.0);
+        transactionManager.startEngine(2);
+        try {
+            transactionManager.deposit(checking.getAccountNumber(), 50.0);
+        } finally {
+            transactionManager.stopEngine();
+        }
+
+        OperationMetrics deposits = transactionManager.getMetrics().get(TransactionType.DEPOSIT);
+        assertEquals(2, deposits.getSucceeded());
+        assertEquals(1, deposits.getErrors());
+        assertEquals(300.0, deposits.getAmountTotal(), 0.001);
+        assertEquals(3, deposits.getLatency().getCount());
+        OperationMetrics withdrawals = transactionManager.getMetrics().get(TransactionType.WITHDRAWAL);
+        assertEquals(0, withdrawals.getSucceeded());
+        assertEquals(1, withdrawals.getDeclined());
+        assertEquals(1, transactionManager.getMetrics().get(TransactionType.TRANSFER).getSucceeded());
+    }
+
+    @Test
+    @DisplayName("Test Metrics Are Published As MBeans")
+    void testMetricsPublishedAsMBeans() throws Exception {
+        SavingsAccount account = createSavingsAccount(1000.0);
+        transactionManager.deposit(account.getAccountNumber(), 10.0);
+        MetricsRegistry registry = new MetricsRegistry(accountManager, transactionManager, new FilePersistence());
+
+        registry.registerMBeans();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(1L, server.getAttribute(
+                    new ObjectName(MetricsRegistry.DOMAIN + ":type=Transactions,name=DEPOSIT"), "Succeeded"));
+            assertEquals(1L, server.getAttribute(
+                    new ObjectName(MetricsRegistry.DOMAIN + ":type=Ledger"), "ActiveAccounts"));
+            assertTrue(registry.dump().contains("DEPOSIT"));
+        } finally {
+            registry.unregisterMBeans();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+                new ObjectName(MetricsRegistry.DOMAIN + ":type=Ledger")));
+    }
+
+    @Test
+    @DisplayName("Test Result API Reports Outcomes In Both Modes")
+    void testResultApiReportsOutcomes() {
+        SavingsAccount savings = createSavingsAccount(1000.0);
+        CheckingAccount checking = createCheckingAccount(0.0);
+
+        assertEquals(TransactionResult.INSUFFICIENT_FUNDS, transactionManager.tryWithdraw(savings.getAccountNumber(), 600.0));
+        assertEquals(TransactionResult.INVALID_AMOUNT, transactionManager.tryDeposit(savings.getAccountNumber(), -1.0));
+        assertEquals(TransactionResult.ACCOUNT_NOT_FOUND, transactionManager.tryDeposit("ACC-MISSING", 10.0));
+        assertEquals(TransactionResult.SAME_ACCOUNT,
+                transactionManager.tryTransfer(savings.getAccountNumber(), savings.getAccountNumber(), 10.0));
+        assertEquals(TransactionResult.APPROVED,
+                transactionManager.tryTransfer(savings.getAccountNumber(), checking.getAccountNumber(), 100.0));
+
+        transactionManager.startEngine(2);
+        try {
+            assertEquals(TransactionResult.OVERDRAFT_EXCEEDED,
+                    transactionManager.tryTransfer(checking.getAccountNumber(), savings.getAccountNumber(), 700.0));
+            assertEquals(TransactionResult.APPROVED, transactionManager.tryWithdraw(savings.getAccountNumber(), 100.0));
+        } finally {
+            transactionManager.stopEngine();
+        }
+
+        assertBalanceUnchanged(savings, 800.0);
+        assertBalanceUnchanged(checking, 100.0);
+        assertEquals(3, transactionManager.getTransactionCount());
+        assertEquals(2, transactionManager.getMetrics().get(TransactionType.TRANSFER).getSucceeded()
+                + transactionManager.getMetrics().get(TransactionType.TRANSFER).getDeclined());
+    }
+
     private SavingsAccount createSavingsAccount(double initialBalance) {
         SavingsAccount account = new SavingsAccount(customer, initialBalance);
         accountManager.addAccount(account);